@@ -37,6 +37,11 @@ android {
     androidResources {
         noCompress += "mp3"
     }
+
+    testOptions {
+        // Classes under JVM test log through android.util.Log
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -52,6 +57,7 @@ dependencies {
     implementation("com.google.android.material:material:1.12.0")
 
     implementation("com.github.bumptech.glide:glide:4.16.0")
+    implementation("com.github.bumptech.glide:okhttp3-integration:4.16.0")
     // If Java only:
     annotationProcessor("com.github.bumptech.glide:compiler:4.16.0")
     // If Kotlin:
@@ -63,12 +69,9 @@ dependencies {
 
     implementation("com.davemorrissey.labs:subsampling-scale-image-view:3.10.0")
 
-    implementation("com.squareup.picasso:picasso:2.8")
-
-    implementation("io.github.chrisbanes:PhotoView:2.3.0")
-    
 
     testImplementation(libs.junit)
+    testImplementation("com.squareup.okhttp3:mockwebserver:4.9.3")
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 
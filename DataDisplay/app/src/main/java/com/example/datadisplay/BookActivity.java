@@ -15,6 +15,8 @@ import android.widget.LinearLayout;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.drawerlayout.widget.DrawerLayout;
 
+import com.example.datadisplay.managers.CatalogRepository;
+import com.example.datadisplay.utils.CompiledCatalog;
 import com.google.android.flexbox.FlexboxLayout;
 import com.google.android.material.navigation.NavigationView;
 
@@ -27,12 +29,9 @@ import java.io.FileInputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
-
-import android.util.JsonReader;
-import android.util.JsonReader;
-import android.util.JsonToken;
-import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
 
 public class BookActivity extends AppCompatActivity {
 
@@ -70,7 +69,7 @@ public class BookActivity extends AppCompatActivity {
         if (jsonPath != null) {
             File jsonFile = new File(jsonPath);
             if (jsonFile.exists()) {
-                parseJson(jsonFile);   // stream parse directly from file
+                parseJson(jsonFile);   // compiled on first open, memory-mapped afterwards; loaded in the background
             } else {
                 Log.e("BookActivity", "JSON file not found at " + jsonPath);
             }
@@ -169,78 +168,55 @@ public class BookActivity extends AppCompatActivity {
         }
     }
 
-    // Parse JSON directly from file and populate both userList and displayedBooks
+    // Read books from the compiled catalog off the main thread, then populate both userList and displayedBooks
     private void parseJson(File jsonFile) {
-        try (FileInputStream fis = new FileInputStream(jsonFile);
-             InputStreamReader isr = new InputStreamReader(fis, StandardCharsets.UTF_8);
-             JsonReader reader = new JsonReader(isr)) {
-
-            booksArray = new JSONArray();
-            userList.clear();
-            displayedBooks.clear();
-            Set<String> uniqueTags = new HashSet<>();
-
-            reader.beginArray();
-            while (reader.hasNext()) {
-                reader.beginObject();
-
-                String name = "Unknown";
-                String author = "";
-                String content = "";
-                ArrayList<String> tags = new ArrayList<>();
-
-                while (reader.hasNext()) {
-                    String key = reader.nextName();
-                    switch (key) {
-                        case "name":
-                            name = reader.nextString();
-                            break;
-                        case "author":
-                            author = reader.nextString();
-                            break;
-                        case "content":
-                            content = reader.nextString();
-                            break;
-                        case "tag":
-                            if (reader.peek() == JsonToken.BEGIN_ARRAY) {
-                                reader.beginArray();
-                                while (reader.hasNext()) {
-                                    String t = reader.nextString();
-                                    tags.add(t);
-                                    uniqueTags.add(t);
-                                }
-                                reader.endArray();
-                            } else {
-                                String t = reader.nextString();
-                                tags.add(t);
-                                uniqueTags.add(t);
-                            }
-                            break;
-                        default:
-                            reader.skipValue();
-                    }
+        Executors.newSingleThreadExecutor().execute(() -> {
+            try {
+                CompiledCatalog catalog = CatalogRepository.getInstance(this).getCatalog(jsonFile);
+
+                JSONArray books = new JSONArray();
+                List<String> titles = new ArrayList<>();
+                Set<String> uniqueTags = new HashSet<>();
+
+                for (int i = 0; i < catalog.getBookCount(); i++) {
+                    String name = catalog.getBookName(i);
+                    if (name == null) name = "Unknown";
+                    String author = catalog.getBookAuthor(i);
+                    String content = catalog.getBookContent(i);
+                    List<String> tags = catalog.getBookTags(i);
+                    uniqueTags.addAll(tags);
+
+                    JSONObject obj = new JSONObject();
+                    obj.put("name", name);
+                    obj.put("author", author != null ? author : "");
+                    obj.put("content", content != null ? content : "");
+                    if (!tags.isEmpty()) obj.put("tag", new JSONArray(tags));
+
+                    books.put(obj);
+                    titles.add(limitWords(name, 10));
                 }
 
-                JSONObject obj = new JSONObject();
-                obj.put("name", name);
-                obj.put("author", author);
-                obj.put("content", content);
-                if (!tags.isEmpty()) obj.put("tag", new JSONArray(tags));
-
-                booksArray.put(obj);
-                userList.add(limitWords(name, 10));
-                displayedBooks.add(obj);
-
-                reader.endObject();
+                runOnUiThread(() -> showBooks(books, titles, uniqueTags));
+            } catch (Exception e) {
+                Log.e("JSON_PARSE", "Error loading compiled book catalog", e);
             }
-            reader.endArray();
-
-            adapter.notifyDataSetChanged();
-            setupTags(uniqueTags);
+        });
+    }
 
-        } catch (Exception e) {
-            Log.e("JSON_PARSE", "Error parsing JSON with JsonReader", e);
+    private void showBooks(JSONArray books, List<String> titles, Set<String> uniqueTags) {
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
+        booksArray = books;
+        userList.clear();
+        userList.addAll(titles);
+        displayedBooks.clear();
+        for (int i = 0; i < books.length(); i++) {
+            displayedBooks.add(books.optJSONObject(i));
         }
+
+        adapter.notifyDataSetChanged();
+        setupTags(uniqueTags);
     }
 
 
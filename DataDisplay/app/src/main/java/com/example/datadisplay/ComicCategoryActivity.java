@@ -9,25 +9,19 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.datadisplay.adapters.PhotoCategoryAdapter;
+import com.example.datadisplay.managers.CatalogRepository;
+import com.example.datadisplay.managers.CatalogSyncManager;
 import com.example.datadisplay.models.PhotoCategory;
-import com.example.datadisplay.models.PhotoData;
+import com.example.datadisplay.utils.CompiledCatalog;
 import com.example.datadisplay.utils.DataUrlManager;
 import com.google.android.material.snackbar.Snackbar;
-import com.google.gson.Gson;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
-
-import okhttp3.Call;
-import okhttp3.Callback;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 public class ComicCategoryActivity extends AppCompatActivity {
 
@@ -36,6 +30,7 @@ public class ComicCategoryActivity extends AppCompatActivity {
     private RecyclerView recyclerView;
     private String jsonUrl;
     private File cacheFile;
+    private final ExecutorService parseExecutor = Executors.newSingleThreadExecutor();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -51,94 +46,83 @@ public class ComicCategoryActivity extends AppCompatActivity {
         String fromPath = getIntent().getStringExtra("json_path");
         Log.d(TAG, "🧭 onCreate route entry | json_path=" + fromPath);
 
-        // Use external files dir for consistency with HomeActivity
-        cacheFile = new File(getExternalFilesDir(null), "comic_data.json");
+        // Same file HomeActivity downloads, so both screens share one copy and its validators
+        cacheFile = new File(getExternalFilesDir("Downloads"), "comic_data.json");
 
         // ✅ 1. Load from cache immediately if available
         if (cacheFile.exists()) {
-            try {
-                String cachedJson = readFileAsString(cacheFile);
-                setupRecyclerWithJson(cachedJson);
-                Log.d(TAG, "Loaded categories from cache");
-            } catch (Exception e) {
-                Log.e(TAG, "Failed to read cache", e);
-            }
+            scheduleCategoryLoad();
         }
 
         // ✅ 2. Always refresh in background
         fetchCategories();
     }
 
+    // ✅ Conditional GET: an unchanged catalog costs a 304, and only a 200 rewrites the file
     private void fetchCategories() {
-        OkHttpClient client = new OkHttpClient();
-        Request request = new Request.Builder().url(jsonUrl).build();
-
-        client.newCall(request).enqueue(new Callback() {
-            @Override
-            public void onFailure(Call call, java.io.IOException e) {
-                Log.e(TAG, "Network fetch failed", e);
-                runOnUiThread(() -> Snackbar.make(
-                        recyclerView,
-                        "Failed to refresh comic categories",
-                        Snackbar.LENGTH_LONG).show());
-            }
-
-            @Override
-            public void onResponse(Call call, Response response) throws java.io.IOException {
-                if (response.isSuccessful() && response.body() != null) {
-                    String json = response.body().string();
-                    Log.d(TAG, "Fetched fresh JSON, length=" + json.length());
-
-                    // Save JSON to cache
-                    try (FileWriter writer = new FileWriter(cacheFile)) {
-                        writer.write(json);
-                        Log.d(TAG, "Cache updated at " + cacheFile.getAbsolutePath());
+        CatalogSyncManager.getInstance(this).syncAsync(cacheFile, jsonUrl, (target, result) -> {
+            if (result == CatalogSyncManager.Result.UPDATED) {
+                // Update UI with fresh data
+                scheduleCategoryLoad();
+            } else if (result == CatalogSyncManager.Result.FAILED) {
+                runOnUiThread(() -> {
+                    if (!isFinishing() && !isDestroyed()) {
+                        Snackbar.make(
+                                recyclerView,
+                                "Failed to refresh comic categories",
+                                Snackbar.LENGTH_LONG).show();
                     }
-
-                    // Update UI with fresh data
-                    runOnUiThread(() -> setupRecyclerWithJson(json));
-                } else {
-                    Log.e(TAG, "Response not successful, code=" + response.code());
-                }
+                });
             }
         });
     }
 
-    private void setupRecyclerWithJson(String json) {
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        parseExecutor.shutdownNow();
+    }
+
+    private void scheduleCategoryLoad() {
         try {
-            Gson gson = new Gson();
-            PhotoData comicData = gson.fromJson(json, PhotoData.class);
+            parseExecutor.execute(this::loadCategoriesFromCache);
+        } catch (RejectedExecutionException e) {
+            Log.d(TAG, "Activity destroyed, skipping category reload");
+        }
+    }
+
+    // ✅ Shared compiled catalog: the folder screens open the same copy, and a refreshed file is recompiled
+    private void loadCategoriesFromCache() {
+        try {
+            CompiledCatalog catalog = CatalogRepository.getInstance(this).getCatalog(cacheFile);
 
             List<PhotoCategory> categories = new ArrayList<>();
-            if (comicData != null && comicData.categories != null) {
-                categories.addAll(comicData.categories);
+            for (int i = 0; i < catalog.getCategoryCount(); i++) {
+                PhotoCategory category = new PhotoCategory();
+                category.name = catalog.getName(catalog.getChild(catalog.getRoot(), i));
+                categories.add(category);
             }
-
-            PhotoCategoryAdapter adapter = new PhotoCategoryAdapter(categories, category -> {
-                Log.d(TAG, "Category clicked: " + category.name);
-                Intent intent = new Intent(ComicCategoryActivity.this, ComicFolderActivity.class);
-                intent.putExtra("category_name", category.name);
-                intent.putExtra("json_path", cacheFile.getAbsolutePath());
-                Log.d(TAG, "🧭 Click category -> ComicFolderActivity | category_name=" + category.name + " | json_path=" + cacheFile.getAbsolutePath());
-                startActivity(intent);
-            });
-
-            recyclerView.setAdapter(adapter);
+            Log.d(TAG, "Loaded " + categories.size() + " categories from cache");
+            runOnUiThread(() -> setupRecycler(categories));
         } catch (Exception e) {
             Log.e(TAG, "Error parsing JSON", e);
         }
     }
 
-    // ✅ Utility: stream file safely
-    private String readFileAsString(File file) throws Exception {
-        StringBuilder sb = new StringBuilder();
-        try (FileInputStream fis = new FileInputStream(file);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(fis))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line);
-            }
+    private void setupRecycler(List<PhotoCategory> categories) {
+        if (isFinishing() || isDestroyed()) {
+            return;
         }
-        return sb.toString();
+        PhotoCategoryAdapter adapter = new PhotoCategoryAdapter(categories, category -> {
+            Log.d(TAG, "Category clicked: " + category.name);
+            Intent intent = new Intent(ComicCategoryActivity.this, ComicFolderActivity.class);
+            intent.putExtra("category_name", category.name);
+            intent.putExtra("folder_path", CompiledCatalog.buildPath(category.name));
+            intent.putExtra("json_path", cacheFile.getAbsolutePath());
+            Log.d(TAG, "🧭 Click category -> ComicFolderActivity | category_name=" + category.name + " | json_path=" + cacheFile.getAbsolutePath());
+            startActivity(intent);
+        });
+
+        recyclerView.setAdapter(adapter);
     }
-}
\ No newline at end of file
+}
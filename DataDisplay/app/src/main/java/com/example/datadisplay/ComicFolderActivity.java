@@ -9,19 +9,15 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.datadisplay.adapters.PhotoFolderAdapter;
+import com.example.datadisplay.managers.CatalogRepository;
 import com.example.datadisplay.managers.OfflineDownloadManager;
 import com.example.datadisplay.managers.OfflineResourceManager;
-import com.example.datadisplay.models.PhotoCategory;
-import com.example.datadisplay.models.PhotoData;
 import com.example.datadisplay.models.PhotoFolder;
+import com.example.datadisplay.utils.CompiledCatalog;
 import com.example.datadisplay.utils.NetworkHelper;
 import com.google.android.material.snackbar.Snackbar;
-import com.google.gson.Gson;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -30,6 +26,8 @@ public class ComicFolderActivity extends AppCompatActivity implements PhotoFolde
     private static final String TAG = "ComicFolderActivity";
 
     private List<PhotoFolder> folderList;
+    private final List<Integer> folderNodes = new ArrayList<>();
+    private CompiledCatalog catalog;
     private String jsonPath;
     private String categoryName;
     private RecyclerView recyclerView;
@@ -51,38 +49,40 @@ public class ComicFolderActivity extends AppCompatActivity implements PhotoFolde
 
         String folderName = getIntent().getStringExtra("folder_name");
         categoryName = getIntent().getStringExtra("category_name");
+        String folderPath = getIntent().getStringExtra("folder_path");
         jsonPath = getIntent().getStringExtra("json_path");
 
-        Log.d(TAG, "onCreate: folderName=" + folderName + ", categoryName=" + categoryName + ", jsonPath=" + jsonPath);
+        Log.d(TAG, "onCreate: folderName=" + folderName + ", categoryName=" + categoryName + ", folderPath=" + folderPath + ", jsonPath=" + jsonPath);
 
         folderList = new ArrayList<>();
 
-        PhotoData comicData = loadComicData(jsonPath);
-        if (comicData != null && comicData.categories != null) {
-            for (PhotoCategory category : comicData.categories) {
-                if (category.name.equals(categoryName) && category.folders != null) {
-                    if (folderName == null) {
-                        // First entry point → load top-level folders
-                        folderList = category.folders;
-                        Log.d(TAG, "Loaded top-level category: " + category.name + " with " + folderList.size() + " folders");
-                    } else {
-                        PhotoFolder folder = findFolderByName(category.folders, folderName);
-                        if (folder != null && folder.folders != null && !folder.folders.isEmpty()) {
-                            folderList = folder.folders;
-                            Log.d(TAG, "Loaded subfolder: " + folder.name + " with " + folderList.size() + " children");
-                        } else if (folder != null && folder.images != null && !folder.images.isEmpty()) {
-                            Intent intent = new Intent(this, ComicListActivity.class);
-                            intent.putExtra("category_name", categoryName);
-                            intent.putExtra("folder_name", folder.name);
-                            intent.putExtra("json_path", jsonPath);
-                            Log.d(TAG, "🧭 Auto route leaf folder -> ComicListActivity | category_name=" + categoryName + " | folder_name=" + folder.name + " | json_path=" + jsonPath);
-                            startActivity(intent);
-                            finish();
-                            return;
-                        }
-                    }
-                    break;
-                }
+        catalog = loadComicCatalog(jsonPath);
+        int current = catalog != null
+                ? catalog.resolveFolder(folderPath, categoryName, folderName)
+                : CompiledCatalog.NO_NODE;
+        if (current != CompiledCatalog.NO_NODE && folderName == null) {
+            // First entry point → load top-level folders
+            Log.d(TAG, "Loaded top-level category: " + categoryName + " with " + catalog.getChildCount(current) + " folders");
+        } else if (current != CompiledCatalog.NO_NODE && catalog.getChildCount(current) > 0) {
+            Log.d(TAG, "Loaded subfolder: " + folderName + " with " + catalog.getChildCount(current) + " children");
+        } else if (current != CompiledCatalog.NO_NODE && catalog.getImageCount(current) > 0) {
+            Intent intent = new Intent(this, ComicListActivity.class);
+            intent.putExtra("category_name", categoryName);
+            intent.putExtra("folder_name", folderName);
+            intent.putExtra("folder_path", catalog.getPath(current));
+            intent.putExtra("json_path", jsonPath);
+            Log.d(TAG, "🧭 Auto route leaf folder -> ComicListActivity | category_name=" + categoryName + " | folder_name=" + folderName + " | json_path=" + jsonPath);
+            startActivity(intent);
+            finish();
+            return;
+        } else {
+            current = CompiledCatalog.NO_NODE;
+        }
+
+        if (current != CompiledCatalog.NO_NODE) {
+            for (int child : catalog.getChildren(current)) {
+                folderNodes.add(child);
+                folderList.add(catalog.toFolderStub(child));
             }
         }
 
@@ -93,16 +93,17 @@ public class ComicFolderActivity extends AppCompatActivity implements PhotoFolde
 
     private void setupLongPressDownload(PhotoFolderAdapter adapter) {
         adapter.setOnLongClickListener(folderName -> {
-            PhotoFolder folder = findFolderInList(folderName);
-            if (folder != null) {
-                downloadFolderTree(folder);
+            int node = findNodeInList(folderName);
+            if (node != CompiledCatalog.NO_NODE) {
+                // Long-press downloads need the whole subtree, so materialize it on demand
+                downloadFolderTree(catalog.toPhotoFolder(node), catalog.getPath(node));
                 return true;
             }
             return false;
         });
     }
 
-    private void downloadFolderTree(PhotoFolder folder) {
+    private void downloadFolderTree(PhotoFolder folder, String folderPath) {
         if (!NetworkHelper.isWiFiConnected(this)) {
             Snackbar.make(recyclerView, "WiFi connection required for batch downloads", Snackbar.LENGTH_LONG).show();
             return;
@@ -119,37 +120,39 @@ public class ComicFolderActivity extends AppCompatActivity implements PhotoFolde
         Log.d(TAG, "Comic pages to download: " + totalImages);
         Log.d(TAG, "Download location: " + downloadDir.getAbsolutePath());
 
-        List<Long> downloadIds = new ArrayList<>();
-        enqueueFolderDownloadsRecursive(folder, downloadIds);
+        int queued = enqueueFolderDownloadsRecursive(folder, folderPath);
 
-        if (!downloadIds.isEmpty()) {
+        if (queued > 0) {
             Snackbar.make(recyclerView,
-                    "Downloading " + downloadIds.size() + " pages from " + folder.name,
+                    "Queued " + queued + " pages from " + folder.name,
                     Snackbar.LENGTH_LONG).show();
         } else {
             Snackbar.make(recyclerView, "Failed to start downloads", Snackbar.LENGTH_SHORT).show();
         }
     }
 
-    private void enqueueFolderDownloadsRecursive(PhotoFolder folder, List<Long> downloadIds) {
+    private int enqueueFolderDownloadsRecursive(PhotoFolder folder, String folderPath) {
         if (folder == null) {
-            return;
+            return 0;
         }
 
+        int queued = 0;
         if (folder.images != null && !folder.images.isEmpty()) {
-            downloadIds.addAll(downloadManager.downloadFolder(
+            queued += downloadManager.downloadFolder(
                     folder.name,
+                    folderPath,
                     folder.images,
                     OfflineResourceManager.ResourceType.COMIC,
                     true
-            ));
+            );
         }
 
         if (folder.folders != null) {
             for (PhotoFolder child : folder.folders) {
-                enqueueFolderDownloadsRecursive(child, downloadIds);
+                queued += enqueueFolderDownloadsRecursive(child, CompiledCatalog.childPath(folderPath, child.name));
             }
         }
+        return queued;
     }
 
     private int countImagesRecursive(PhotoFolder folder) {
@@ -166,84 +169,58 @@ public class ComicFolderActivity extends AppCompatActivity implements PhotoFolde
         return total;
     }
 
-    private PhotoFolder findFolderInList(String folderName) {
-        for (PhotoFolder folder : folderList) {
-            if (folder.name.equals(folderName)) {
-                return folder;
+    private int findNodeInList(String folderName) {
+        for (int i = 0; i < folderList.size(); i++) {
+            if (folderList.get(i).name.equals(folderName)) {
+                return folderNodes.get(i);
             }
         }
-        return null;
+        return CompiledCatalog.NO_NODE;
     }
 
     @Override
     public void onFolderClick(String folderName) {
         Log.d(TAG, "Clicked folder: " + folderName);
 
-        PhotoData comicData = loadComicData(jsonPath);
-        if (comicData != null && comicData.categories != null) {
-            for (PhotoCategory category : comicData.categories) {
-                if (category.name.equals(categoryName) && category.folders != null) {
-                    PhotoFolder folder = findFolderByName(category.folders, folderName);
-                    if (folder == null) {
-                        return;
-                    }
-
-                    if (folder.folders != null && !folder.folders.isEmpty()) {
-                        // ✅ Has subfolders → open ComicFolderActivity again
-                        Intent intent = new Intent(this, ComicFolderActivity.class);
-                        intent.putExtra("category_name", categoryName);
-                        intent.putExtra("folder_name", folder.name);
-                        intent.putExtra("json_path", jsonPath);
-                        Log.d(TAG, "🧭 Click folder -> ComicFolderActivity | category_name=" + categoryName + " | folder_name=" + folder.name + " | json_path=" + jsonPath);
-                        startActivity(intent);
-                    } else {
-                        // ✅ No subfolders → open ComicListActivity
-                        Intent intent = new Intent(this, ComicListActivity.class);
-                        intent.putExtra("category_name", categoryName);
-                        intent.putExtra("folder_name", folder.name);
-                        intent.putExtra("json_path", jsonPath);
-                        Log.d(TAG, "🧭 Click folder -> ComicListActivity | category_name=" + categoryName + " | folder_name=" + folder.name + " | json_path=" + jsonPath);
-                        startActivity(intent);
-                    }
-                    return;
-                }
-            }
-        }
-    }
-
-    private PhotoFolder findFolderByName(List<PhotoFolder> folders, String targetName) {
-        if (folders == null) {
-            return null;
+        int folder = findNodeInList(folderName);
+        if (folder == CompiledCatalog.NO_NODE) {
+            return;
         }
 
-        for (PhotoFolder folder : folders) {
-            if (targetName.equals(folder.name)) {
-                return folder;
-            }
-
-            PhotoFolder found = findFolderByName(folder.folders, targetName);
-            if (found != null) {
-                return found;
-            }
+        if (catalog.getChildCount(folder) > 0) {
+            // ✅ Has subfolders → open ComicFolderActivity again
+            Intent intent = new Intent(this, ComicFolderActivity.class);
+            intent.putExtra("category_name", categoryName);
+            intent.putExtra("folder_name", folderName);
+            intent.putExtra("folder_path", catalog.getPath(folder));
+            intent.putExtra("json_path", jsonPath);
+            Log.d(TAG, "🧭 Click folder -> ComicFolderActivity | category_name=" + categoryName + " | folder_name=" + folderName + " | json_path=" + jsonPath);
+            startActivity(intent);
+        } else {
+            // ✅ No subfolders → open ComicListActivity
+            Intent intent = new Intent(this, ComicListActivity.class);
+            intent.putExtra("category_name", categoryName);
+            intent.putExtra("folder_name", folderName);
+            intent.putExtra("folder_path", catalog.getPath(folder));
+            intent.putExtra("json_path", jsonPath);
+            Log.d(TAG, "🧭 Click folder -> ComicListActivity | category_name=" + categoryName + " | folder_name=" + folderName + " | json_path=" + jsonPath);
+            startActivity(intent);
         }
-
-        return null;
     }
 
-    // ✅ Utility: safely load JSON into PhotoData
-    private PhotoData loadComicData(String path) {
+    // ✅ Utility: open the compiled catalog (compiled from the JSON on first use)
+    private CompiledCatalog loadComicCatalog(String path) {
         if (path == null) return null;
         File file = new File(path);
         if (!file.exists()) {
             Log.w(TAG, "JSON file not found: " + path);
             return null;
         }
-        try (FileInputStream fis = new FileInputStream(file);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(fis))) {
-            return new Gson().fromJson(reader, PhotoData.class);
+        try {
+            return CatalogRepository.getInstance(this).getCatalog(file);
         } catch (Exception e) {
-            Log.e(TAG, "Error reading JSON file: " + path, e);
+            Log.e(TAG, "Error reading catalog: " + path, e);
             return null;
         }
     }
-}
\ No newline at end of file
+}
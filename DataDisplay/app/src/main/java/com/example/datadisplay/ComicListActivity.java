@@ -8,27 +8,28 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 import com.example.datadisplay.adapters.ComicGridAdapter;
-import com.example.datadisplay.models.PhotoCategory;
-import com.example.datadisplay.models.PhotoData;
-import com.example.datadisplay.models.PhotoFolder;
-import com.google.gson.Gson;
+import com.example.datadisplay.managers.CatalogRepository;
+import com.example.datadisplay.managers.DownloadScheduler;
+import com.example.datadisplay.managers.ImagePrefetchScheduler;
+import com.example.datadisplay.managers.ThumbnailCache;
+import com.example.datadisplay.utils.CompactUrlList;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.Executors;
 
 public class ComicListActivity extends AppCompatActivity implements ComicGridAdapter.OnItemClickListener {
 
     private static final String TAG = "ComicListActivity";
+    private static final int SPAN_COUNT = 3;
 
-    private final List<String> imageUrls = new ArrayList<>();
+    private CompactUrlList imageUrls = CompactUrlList.EMPTY;
     private ComicGridAdapter adapter;
+    private ImagePrefetchScheduler prefetchScheduler;
+    private String folderName;
+    private String categoryName;
+    private String folderPath;
+    private String jsonPath;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -36,40 +37,36 @@ public class ComicListActivity extends AppCompatActivity implements ComicGridAda
         setContentView(R.layout.activity_comic_list);
 
         RecyclerView recyclerView = findViewById(R.id.photoRecyclerView);
-        recyclerView.setLayoutManager(new GridLayoutManager(this, 3));
+        GridLayoutManager layoutManager = new GridLayoutManager(this, SPAN_COUNT);
+        recyclerView.setLayoutManager(layoutManager);
         recyclerView.setHasFixedSize(true);
 
-        adapter = new ComicGridAdapter(this, imageUrls, this);
+        // Cells are a third of the screen wide with a portrait page aspect
+        int cellWidth = getResources().getDisplayMetrics().widthPixels / SPAN_COUNT;
+        int cellHeight = cellWidth * 3 / 2;
+        ImagePrefetchScheduler.RequestFactory cellRequests =
+                ThumbnailCache.getInstance(this).forCell(cellWidth, cellHeight);
+
+        adapter = new ComicGridAdapter(this, imageUrls, this, cellRequests);
         recyclerView.setAdapter(adapter);
 
-        String folderName = getIntent().getStringExtra("folder_name");
-        String categoryName = getIntent().getStringExtra("category_name");
-        String jsonPath   = getIntent().getStringExtra("json_path");
+        // Prefetch only around the viewport instead of the whole folder
+        prefetchScheduler = new ImagePrefetchScheduler(recyclerView, layoutManager, cellRequests);
+
+        folderName = getIntent().getStringExtra("folder_name");
+        categoryName = getIntent().getStringExtra("category_name");
+        folderPath = getIntent().getStringExtra("folder_path");
+        jsonPath   = getIntent().getStringExtra("json_path");
 
-        Log.d(TAG, "🧭 onCreate route entry | category_name=" + categoryName + " | folder_name=" + folderName + " | json_path=" + jsonPath);
+        Log.d(TAG, "🧭 onCreate route entry | category_name=" + categoryName + " | folder_name=" + folderName + " | folder_path=" + folderPath + " | json_path=" + jsonPath);
 
-        // Load JSON + prefetch in background
+        // Load JSON in background
         Executors.newSingleThreadExecutor().execute(() -> {
             try {
-                if (jsonPath != null && folderName != null) {
-                    PhotoData comicData = loadComicData(jsonPath);
-
-                    if (comicData != null && comicData.categories != null) {
-                        for (PhotoCategory category : comicData.categories) {
-                            PhotoFolder folder = findFolderByName(category.folders, folderName);
-                            if (folder != null && folder.images != null) {
-                                synchronized (imageUrls) {
-                                    imageUrls.clear();
-                                    imageUrls.addAll(folder.images);
-                                }
-                                Log.d(TAG, "Loaded folder: " + folder.name + " with " + folder.images.size() + " images");
-
-                                // 🔥 Prefetch all images into Glide cache
-                                prefetchImages(folder.images);
-                                break;
-                            }
-                        }
-                    }
+                if (jsonPath != null && (folderPath != null || folderName != null)) {
+                    CompactUrlList images = loadFolderImages(jsonPath, folderPath, categoryName, folderName);
+                    runOnUiThread(() -> imageUrls = images);
+                    Log.d(TAG, "Loaded folder: " + folderName + " with " + images.size() + " images");
                 }
             } catch (Exception e) {
                 Log.e(TAG, "Error loading images from JSON", e);
@@ -77,7 +74,8 @@ public class ComicListActivity extends AppCompatActivity implements ComicGridAda
 
             runOnUiThread(() -> {
                 Log.d(TAG, "Total images: " + imageUrls.size());
-                adapter.notifyDataSetChanged();
+                adapter.setImageUrls(imageUrls);
+                prefetchScheduler.setUrls(imageUrls);
             });
         });
     }
@@ -85,46 +83,48 @@ public class ComicListActivity extends AppCompatActivity implements ComicGridAda
     @Override
     public void onItemClick(String imageUrl, int position) {
         Intent intent = new Intent(this, PhotoActivity.class);
-        intent.putStringArrayListExtra("images", new ArrayList<>(imageUrls));
+        // Hand off the folder by catalog handle instead of parceling every URL
+        intent.putExtra("json_path", jsonPath);
+        intent.putExtra("folder_path", folderPath);
+        intent.putExtra("category_name", categoryName);
+        intent.putExtra("folder_name", folderName);
         intent.putExtra("position", position);
         Log.d(TAG, "🧭 Click comic image -> PhotoActivity | position=" + position + " | url=" + imageUrl);
         startActivity(intent);
     }
 
-    // ✅ Recursive lookup for nested folders
-    private PhotoFolder findFolderByName(List<PhotoFolder> folders, String targetName) {
-        if (folders == null) return null;
-        for (PhotoFolder f : folders) {
-            if (targetName.equals(f.name)) return f;
-            PhotoFolder found = findFolderByName(f.folders, targetName);
-            if (found != null) return found;
-        }
-        return null;
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Offline downloads of the folder on screen jump the queue
+        DownloadScheduler.getInstance(this).setViewingGroup(folderPath);
     }
 
-    // ✅ Prefetch images into Glide disk cache
-    private void prefetchImages(List<String> urls) {
-        for (String url : urls) {
-            Glide.with(this)
-                    .downloadOnly()
-                    .load(url)
-                    .preload();  // enqueue into Glide’s cache
-        }
+    @Override
+    protected void onPause() {
+        super.onPause();
+        DownloadScheduler.getInstance(this).clearViewingGroup(folderPath);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        prefetchScheduler.logMetrics();
+        prefetchScheduler.cancelAll();
     }
 
-    // ✅ Utility: safely load JSON into PhotoData
-    private PhotoData loadComicData(String path) {
+    // ✅ Utility: resolve the folder's images through the shared catalog (compiled from the JSON on first use)
+    private CompactUrlList loadFolderImages(String path, String folderPath, String categoryName, String folderName) {
         File file = new File(path);
         if (!file.exists()) {
             Log.w(TAG, "JSON file not found: " + path);
-            return null;
+            return CompactUrlList.EMPTY;
         }
-        try (FileInputStream fis = new FileInputStream(file);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(fis))) {
-            return new Gson().fromJson(reader, PhotoData.class);
+        try {
+            return CatalogRepository.getInstance(this).getFolderImages(file, folderPath, categoryName, folderName);
         } catch (Exception e) {
-            Log.e(TAG, "Error reading JSON file: " + path, e);
-            return null;
+            Log.e(TAG, "Error reading catalog: " + path, e);
+            return CompactUrlList.EMPTY;
         }
     }
-}
\ No newline at end of file
+}
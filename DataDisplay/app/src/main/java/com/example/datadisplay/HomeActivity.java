@@ -9,7 +9,6 @@ import android.content.IntentFilter;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
 import android.content.res.ColorStateList;
-import android.database.Cursor;
 import android.graphics.Typeface;
 import android.net.Uri;
 import android.os.Build;
@@ -17,20 +16,13 @@ import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
 import android.text.Editable;
-import android.text.Spannable;
-import android.text.SpannableString;
 import android.text.TextWatcher;
-import android.text.style.ForegroundColorSpan;
-import android.text.style.StyleSpan;
 import android.util.Log;
-import android.view.MotionEvent;
 import android.view.Menu;
 import android.view.View;
-import android.view.ViewParent;
 import android.view.inputmethod.InputMethodManager;
 import android.widget.EditText;
 import android.widget.GridLayout;
-import android.widget.HorizontalScrollView;
 import android.widget.ImageButton;
 import android.widget.LinearLayout;
 import android.widget.Button;
@@ -43,8 +35,18 @@ import androidx.appcompat.widget.Toolbar;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 import androidx.drawerlayout.widget.DrawerLayout;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.datadisplay.adapters.SearchResultAdapter;
+import com.example.datadisplay.managers.CatalogSyncManager;
+import com.example.datadisplay.managers.DownloadTracker;
 import com.example.datadisplay.managers.OfflineDownloadManager;
+import com.example.datadisplay.managers.SearchIndexManager;
+import com.example.datadisplay.managers.SearchScheduler;
+import com.example.datadisplay.utils.CatalogCompiler;
+import com.example.datadisplay.utils.CatalogStreams;
+import com.example.datadisplay.utils.CompiledCatalog;
 import com.example.datadisplay.utils.DataUrlManager;
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.navigation.NavigationView;
@@ -55,28 +57,37 @@ import org.json.JSONObject;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import android.util.JsonReader;
 
 public class HomeActivity extends AppCompatActivity {
 
     private static final String TAG = "HomeActivity";
-    private static final int MAX_RENDERED_SEARCH_RESULTS = 50;
+    private static final long SEARCH_DEBOUNCE_MS = 150;
     private static final String SEARCH_DIAG_BUILD = "2026-03-06-r4";
     private static final String SEARCH_FILTER_ALL = "all";
     private static final String SEARCH_FILTER_MP3 = "mp3";
     private static final String SEARCH_FILTER_BOOK = "book";
     private static final String SEARCH_FILTER_COMIC = "comic";
     private static final String SEARCH_FILTER_PHOTO = "photo";
+    private static final String[] SEARCH_CATALOG_FILES = {
+            "mp3_data.json", "data.json", "comic_data.json", "photo_data.json"
+    };
+    private static final String[] SEARCH_CATALOG_ICONS = {"🎵", "📚", "🎭", "📸"};
 
     private DrawerLayout drawerLayout;
     private NavigationView navigationView;
@@ -85,7 +96,13 @@ public class HomeActivity extends AppCompatActivity {
 
     private EditText searchBox;
     private LinearLayout searchResultsContainer;
-    private LinearLayout dashboardContainer;
+    private View dashboardScroll;
+    private TextView searchResultHeader;
+    private TextView searchNoResultsText;
+    private LinearLayout searchFilterRow;
+    private RecyclerView searchResultsRecyclerView;
+    private SearchResultAdapter searchResultAdapter;
+    private final Map<String, Button> searchFilterButtons = new LinkedHashMap<>();
     private GridLayout quickAccessGrid;
 
     // Dashboard stats
@@ -98,9 +115,8 @@ public class HomeActivity extends AppCompatActivity {
     // Download management
     private DownloadManager downloadManager;
     private BroadcastReceiver downloadCompleteReceiver;
-    private final java.util.HashMap<String, Long> downloadQueue = new java.util.HashMap<>();
+    private DownloadTracker downloadTracker;
     private final java.util.HashSet<String> downloadingFiles = new java.util.HashSet<>();
-    private Handler downloadProgressHandler = null;
     
     // Pending navigation after download
     private String pendingNavigationFile = null;
@@ -109,13 +125,15 @@ public class HomeActivity extends AppCompatActivity {
 
     private DataUrlManager dataUrlManager;
     private static OfflineDownloadManager offlineDownloadManager;
+    private SearchIndexManager searchIndexManager;
+    private final SearchScheduler searchScheduler = new SearchScheduler(SEARCH_DEBOUNCE_MS);
+    private final ExecutorService searchCatalogExecutor = Executors.newFixedThreadPool(SEARCH_CATALOG_FILES.length);
 
     private final Map<String, Class<?>> searchActivityMap = new HashMap<>();
-    private volatile int latestSearchRequestId = 0;
     private volatile String latestNormalizedSearchQuery = "";
     private final List<Article> latestSearchResults = new ArrayList<>();
+    private volatile SearchSnapshot lastCompletedSearch = null;
     private String activeSearchFilter = SEARCH_FILTER_ALL;
-    private int currentSearchRenderLimit = MAX_RENDERED_SEARCH_RESULTS;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -177,13 +195,13 @@ public class HomeActivity extends AppCompatActivity {
                     if (offlineDownloadManager != null && downloadId != -1) {
                         offlineDownloadManager.onDownloadComplete(downloadId);
                     }
-                    onDownloadComplete(intent);
                 }
             };
             registerReceiver(downloadCompleteReceiver, 
                 new IntentFilter(DownloadManager.ACTION_DOWNLOAD_COMPLETE),
                 Context.RECEIVER_NOT_EXPORTED);
             Log.d(TAG, "✓ BroadcastReceiver registered");
+            downloadTracker = new DownloadTracker(this, this::onDownloadFinished);
 
             // Download JSON files BEFORE initializing views
             Log.d(TAG, "🌐 Starting JSON file downloads...");
@@ -191,6 +209,12 @@ public class HomeActivity extends AppCompatActivity {
             ensureFile("data.json", dataUrlManager.getBookDownloadUrl());
             ensureFile("comic_data.json", dataUrlManager.getComicDownloadUrl());
             ensureFile("photo_data.json", dataUrlManager.getPhotoDownloadUrl());
+
+            // Build (or load) the search index in the background
+            searchIndexManager = SearchIndexManager.getInstance(this);
+            searchIndexManager.warmUp(SEARCH_CATALOG_FILES);
+            // Compile the browsing catalogs to their binary form in the background
+            precompileCatalogs(SEARCH_CATALOG_FILES);
             // Copy quiz files from assets (offline preferred)
             try {
                 copyFileFromAssets("index.html", new File(getExternalFilesDir("Downloads"), "index.html"));
@@ -217,9 +241,6 @@ public class HomeActivity extends AppCompatActivity {
             setupSearchFunctionality();
             setupQuickAccessCards();
             
-            // Start periodic download progress checking
-            startDownloadProgressCheck();
-            
             // Refresh statistics every 2 seconds to catch file loads
             Handler refreshHandler = new Handler(Looper.getMainLooper());
             refreshHandler.postDelayed(() -> {
@@ -235,68 +256,6 @@ public class HomeActivity extends AppCompatActivity {
         }
     }
     
-    /**
-     * 啟動定期檢查下載進度
-     */
-    private void startDownloadProgressCheck() {
-        downloadProgressHandler = new Handler(Looper.getMainLooper());
-        downloadProgressHandler.postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                checkDownloadProgress();
-                // Schedule next check after 3 seconds
-                downloadProgressHandler.postDelayed(this, 3000);
-            }
-        }, 3000);
-        Log.d(TAG, "📊 Download progress checking started");
-    }
-    
-    /**
-     * 檢查所有下載的進度和狀態
-     */
-    private void checkDownloadProgress() {
-        if (downloadQueue.isEmpty()) {
-            return;
-        }
-        
-        try {
-            DownloadManager.Query query = new DownloadManager.Query();
-            Cursor cursor = downloadManager.query(query);
-            
-            if (cursor != null) {
-                int statusIndex = cursor.getColumnIndex(DownloadManager.COLUMN_STATUS);
-                int idIndex = cursor.getColumnIndex(DownloadManager.COLUMN_ID);
-                int reasonIndex = cursor.getColumnIndex(DownloadManager.COLUMN_REASON);
-                
-                while (cursor.moveToNext()) {
-                    long downloadId = cursor.getLong(idIndex);
-                    int status = cursor.getInt(statusIndex);
-                    
-                    // Check if this is one of our downloads
-                    for (java.util.Map.Entry<String, Long> entry : downloadQueue.entrySet()) {
-                        if (entry.getValue() == downloadId) {
-                            if (status == DownloadManager.STATUS_SUCCESSFUL) {
-                                Log.d(TAG, "✅ Download completed: " + entry.getKey());
-                                // Trigger onDownloadComplete manually
-                                Intent intent = new Intent(DownloadManager.ACTION_DOWNLOAD_COMPLETE);
-                                intent.putExtra(DownloadManager.EXTRA_DOWNLOAD_ID, downloadId);
-                                onDownloadComplete(intent);
-                            } else if (status == DownloadManager.STATUS_FAILED) {
-                                int reason = cursor.getInt(reasonIndex);
-                                Log.e(TAG, "❌ Download failed for " + entry.getKey() + " (reason: " + reason + ")");
-                                downloadingFiles.remove(entry.getKey());
-                            }
-                            break;
-                        }
-                    }
-                }
-                cursor.close();
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error checking download progress: " + e.getMessage(), e);
-        }
-    }
-    
     /**
      * 從 assets 複製文件到應用數據目錄
      */
@@ -318,13 +277,15 @@ public class HomeActivity extends AppCompatActivity {
         try (java.io.InputStream inputStream = getAssets().open(filename);
              java.io.FileOutputStream outputStream = new java.io.FileOutputStream(destinationFile)) {
             
-            byte[] buffer = new byte[8192]; // Larger buffer for better performance
-            int length;
-            long totalWritten = 0;
-            
-            while ((length = inputStream.read(buffer)) > 0) {
-                outputStream.write(buffer, 0, length);
-                totalWritten += length;
+            if (CatalogStreams.isCatalog(destinationFile)) {
+                // 目錄檔以 gzip 壓縮存放，讀取端會自動辨識
+                CatalogStreams.copyCompressed(inputStream, outputStream);
+            } else {
+                byte[] buffer = new byte[8192]; // Larger buffer for better performance
+                int length;
+                while ((length = inputStream.read(buffer)) > 0) {
+                    outputStream.write(buffer, 0, length);
+                }
             }
             
             outputStream.flush();
@@ -349,10 +310,11 @@ public class HomeActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        // Stop download progress checking
-        if (downloadProgressHandler != null) {
-            downloadProgressHandler.removeCallbacksAndMessages(null);
-            downloadProgressHandler = null;
+        searchScheduler.shutdown();
+        searchCatalogExecutor.shutdownNow();
+        Log.d(TAG, "🔍 Search metrics | " + searchScheduler.getMetricsSummary());
+        if (downloadTracker != null) {
+            downloadTracker.release();
         }
         if (downloadCompleteReceiver != null) {
             unregisterReceiver(downloadCompleteReceiver);
@@ -400,6 +362,7 @@ public class HomeActivity extends AppCompatActivity {
             // Check if file already exists and has content
             if (destinationFile.exists() && destinationFile.length() > 0) {
                 Log.d(TAG, "✅ File already exists: " + filename + " (" + (destinationFile.length() / 1024) + " KB)");
+                revalidateFile(filename, url, destinationFile);
                 return;
             }
             
@@ -440,105 +403,98 @@ public class HomeActivity extends AppCompatActivity {
             Log.d(TAG, "✓ Download enqueued with ID: " + downloadId + " for " + filename);
             
             // Track download
-            downloadQueue.put(filename, downloadId);
             downloadingFiles.add(filename);
+            downloadTracker.track(downloadId, filename);
         } catch (Exception e) {
             Log.e(TAG, "❌ Error in ensureFile(" + filename + "): " + e.getMessage(), e);
         }
     }
     
     /**
-     * 下載完成處理
+     * 以條件式請求 (ETag / If-Modified-Since) 檢查已存在的文件是否有更新；未變更時只花一個 304
+     */
+    private void revalidateFile(String filename, String url, File file) {
+        if (!isNotEmpty(url) || downloadingFiles.contains(filename)) {
+            return;
+        }
+        CatalogSyncManager.getInstance(this).syncAsync(file, url, (target, result) -> {
+            if (result == CatalogSyncManager.Result.UPDATED) {
+                runOnUiThread(() -> onFileUpdated(filename));
+            }
+        });
+    }
+
+    /**
+     * 文件被新版本取代後，重新整理統計、搜索索引與編譯目錄
      */
-    private void onDownloadComplete(Intent intent) {
+    private void onFileUpdated(String filename) {
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
+        Log.d(TAG, "🔄 " + filename + " updated on server, refreshing");
+        loadStatistics();
+        lastCompletedSearch = null;
+        if (searchIndexManager != null) {
+            searchIndexManager.warmUp(filename);
+        }
+        precompileCatalogs(filename);
+    }
+
+    /**
+     * 下載完成處理（由 DownloadTracker 在主執行緒回呼）
+     */
+    private void onDownloadFinished(long downloadId, String completedFile, boolean successful, int reason) {
+        downloadingFiles.remove(completedFile);
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
+        if (!successful) {
+            Log.e(TAG, "❌ Download FAILED for " + completedFile + " (ID: " + downloadId + ", reason: " + reason + ")");
+            return;
+        }
+        Log.d(TAG, "✅ Download SUCCESSFUL: " + completedFile + " (ID: " + downloadId + ")");
+
         try {
-            long downloadId = intent.getLongExtra(DownloadManager.EXTRA_DOWNLOAD_ID, -1);
-            if (downloadId == -1) {
-                Log.e(TAG, "❌ Invalid download ID received");
-                return;
+            // Reload statistics after download
+            loadStatistics();
+            lastCompletedSearch = null;
+            if (searchIndexManager != null) {
+                searchIndexManager.warmUp(completedFile);
             }
-            
-            Log.d(TAG, "🔍 Querying download status for ID: " + downloadId);
-            DownloadManager.Query query = new DownloadManager.Query();
-            query.setFilterById(downloadId);
-            
-            Cursor cursor = null;
-            String completedFile = null;
-            
-            try {
-                cursor = downloadManager.query(query);
-                if (cursor != null && cursor.moveToFirst()) {
-                    int statusIndex = cursor.getColumnIndex(DownloadManager.COLUMN_STATUS);
-                    int status = cursor.getInt(statusIndex);
-                    
-                    Log.d(TAG, "📊 Download status: " + status);
-                    
-                    if (status == DownloadManager.STATUS_SUCCESSFUL) {
-                        int uriIndex = cursor.getColumnIndex(DownloadManager.COLUMN_LOCAL_URI);
-                        String localUri = cursor.getString(uriIndex);
-                        Log.d(TAG, "✅ Download SUCCESSFUL: " + localUri);
-                        
-                        // Find which file completed
-                        for (java.util.Map.Entry<String, Long> entry : downloadQueue.entrySet()) {
-                            if (entry.getValue() == downloadId) {
-                                completedFile = entry.getKey();
-                                downloadingFiles.remove(completedFile);
-                                Log.d(TAG, "✓ Matched to file: " + completedFile);
-                                break;
-                            }
-                        }
-                        
-                        // Reload statistics after download
-                        loadStatistics();
-                        
-                        // Auto-navigate if pending
-                        if (completedFile != null && completedFile.equals(pendingNavigationFile) 
-                            && pendingNavigationActivity != null) {
-                            File file = new File(getExternalFilesDir("Downloads"), completedFile);
-                            if (file.exists()) {
-                                Log.d(TAG, "🚀 Auto-navigating to " + pendingNavigationActivity.getSimpleName());
-                                Intent navIntent = new Intent(this, pendingNavigationActivity);
-                                navIntent.putExtra("json_path", file.getAbsolutePath());
-                                logNavigationDirection(pendingNavigationActivity.getSimpleName(),
-                                        "download-complete:auto-category", null, navIntent);
-                                startActivity(navIntent);
-                                
-                                // Clear pending navigation
-                                pendingNavigationFile = null;
-                                pendingNavigationActivity = null;
-                                
-                                Toast.makeText(this, "數據已就緒,正在打開...", Toast.LENGTH_SHORT).show();
-                            }
-                        }
+            precompileCatalogs(completedFile);
+
+            // Auto-navigate if pending
+            if (completedFile.equals(pendingNavigationFile) && pendingNavigationActivity != null) {
+                File file = new File(getExternalFilesDir("Downloads"), completedFile);
+                if (file.exists()) {
+                    Log.d(TAG, "🚀 Auto-navigating to " + pendingNavigationActivity.getSimpleName());
+                    Intent navIntent = new Intent(this, pendingNavigationActivity);
+                    navIntent.putExtra("json_path", file.getAbsolutePath());
+                    logNavigationDirection(pendingNavigationActivity.getSimpleName(),
+                            "download-complete:auto-category", null, navIntent);
+                    startActivity(navIntent);
+
+                    // Clear pending navigation
+                    pendingNavigationFile = null;
+                    pendingNavigationActivity = null;
 
-                        if (completedFile != null
-                                && pendingSearchResult != null
-                                && pendingSearchResult.filename != null
-                                && completedFile.equals(pendingSearchResult.filename)) {
-                            File file = new File(getExternalFilesDir("Downloads"), completedFile);
-                            if (file.exists()) {
-                                Log.d(TAG, "🚀 Auto-navigating search result for: " + completedFile);
-                                navigateToSearchResult(pendingSearchResult);
-                                pendingSearchResult = null;
-                                Toast.makeText(this, "搜尋結果數據已就緒,正在打開...", Toast.LENGTH_SHORT).show();
-                            }
-                        }
-                    } else if (status == DownloadManager.STATUS_FAILED) {
-                        Log.e(TAG, "❌ Download FAILED with status code: " + status);
-                        int reasonIndex = cursor.getColumnIndex(DownloadManager.COLUMN_REASON);
-                        int reason = cursor.getInt(reasonIndex);
-                        Log.e(TAG, "   Failure reason: " + reason);
-                    } else {
-                        Log.d(TAG, "⏳ Download still in progress, status: " + status);
-                    }
+                    Toast.makeText(this, "數據已就緒,正在打開...", Toast.LENGTH_SHORT).show();
                 }
-            } finally {
-                if (cursor != null) {
-                    cursor.close();
+            }
+
+            if (pendingSearchResult != null
+                    && pendingSearchResult.filename != null
+                    && completedFile.equals(pendingSearchResult.filename)) {
+                File file = new File(getExternalFilesDir("Downloads"), completedFile);
+                if (file.exists()) {
+                    Log.d(TAG, "🚀 Auto-navigating search result for: " + completedFile);
+                    navigateToSearchResult(pendingSearchResult);
+                    pendingSearchResult = null;
+                    Toast.makeText(this, "搜尋結果數據已就緒,正在打開...", Toast.LENGTH_SHORT).show();
                 }
             }
         } catch (Exception e) {
-            Log.e(TAG, "❌ Error in onDownloadComplete(): " + e.getMessage(), e);
+            Log.e(TAG, "❌ Error in onDownloadFinished(): " + e.getMessage(), e);
         }
     }
 
@@ -550,7 +506,11 @@ public class HomeActivity extends AppCompatActivity {
 
         searchBox = findViewById(R.id.searchBox);
         searchResultsContainer = findViewById(R.id.searchResultsContainer);
-        dashboardContainer = findViewById(R.id.dashboardContainer);
+        dashboardScroll = findViewById(R.id.dashboardScroll);
+        searchResultHeader = findViewById(R.id.searchResultHeader);
+        searchNoResultsText = findViewById(R.id.searchNoResultsText);
+        searchFilterRow = findViewById(R.id.searchFilterRow);
+        searchResultsRecyclerView = findViewById(R.id.searchResultsRecyclerView);
         quickAccessGrid = findViewById(R.id.quickAccessGrid);
         statsText = findViewById(R.id.statsText);
     }
@@ -669,8 +629,7 @@ public class HomeActivity extends AppCompatActivity {
             
             Log.d(TAG, "📋 Counting items in " + filename + " (size: " + (fileSize / 1024) + " KB)");
 
-            try (JsonReader reader = new JsonReader(
-                    new InputStreamReader(new FileInputStream(jsonFile), StandardCharsets.UTF_8))) {
+            try (JsonReader reader = new JsonReader(CatalogStreams.openReader(jsonFile))) {
                 
                 if ("BEGIN_ARRAY".equals(reader.peek().toString())) {
                     // data.json 格式：根是 ARRAY，每個元素就是一項
@@ -799,6 +758,7 @@ public class HomeActivity extends AppCompatActivity {
      * 設置搜索功能（跨所有類別搜索）
      */
     private void setupSearchFunctionality() {
+        setupSearchResultsList();
         searchBox.addTextChangedListener(new TextWatcher() {
             @Override
             public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
@@ -812,12 +772,10 @@ public class HomeActivity extends AppCompatActivity {
                     performGlobalSearch(normalizedQuery);
                 } else {
                     latestNormalizedSearchQuery = "";
-                    latestSearchRequestId++;
+                    searchScheduler.cancelAll();
                     latestSearchResults.clear();
                     activeSearchFilter = SEARCH_FILTER_ALL;
-                    currentSearchRenderLimit = MAX_RENDERED_SEARCH_RESULTS;
-                    searchResultsContainer.removeAllViews();
-                    dashboardContainer.setVisibility(View.VISIBLE);
+                    hideSearchResults();
                 }
             }
 
@@ -833,13 +791,11 @@ public class HomeActivity extends AppCompatActivity {
         String normalizedQuery = normalizeSearchQuery(query);
         if (!isNotEmpty(normalizedQuery)) {
             latestNormalizedSearchQuery = "";
-            latestSearchRequestId++;
+            searchScheduler.cancelAll();
             runOnUiThread(() -> {
                 latestSearchResults.clear();
                 activeSearchFilter = SEARCH_FILTER_ALL;
-                currentSearchRenderLimit = MAX_RENDERED_SEARCH_RESULTS;
-                searchResultsContainer.removeAllViews();
-                dashboardContainer.setVisibility(View.VISIBLE);
+                hideSearchResults();
             });
             return;
         }
@@ -849,52 +805,189 @@ public class HomeActivity extends AppCompatActivity {
         }
 
         latestNormalizedSearchQuery = normalizedQuery;
-        final int requestId = ++latestSearchRequestId;
         final String finalQuery = normalizedQuery;
-        Log.e(TAG, "SEARCH_REQUEST_START | id=" + requestId + " | query=\"" + finalQuery + "\"");
 
-        new Thread(() -> {
-            List<Article> results = new ArrayList<>();
-
-            // 搜索 MP3
-            results.addAll(searchInJson("mp3_data.json", finalQuery, "🎵"));
+        // 防抖 + 單一工作線程：新的關鍵字會取消仍在排隊或執行中的舊搜索
+        int scheduledId = searchScheduler.submit(requestId -> {
+            Log.e(TAG, "SEARCH_REQUEST_START | id=" + requestId + " | query=\"" + finalQuery + "\"");
+            String lowerQuery = finalQuery.toLowerCase();
+            SearchSnapshot previousSearch = lastCompletedSearch;
+
+            if (previousSearch != null && lowerQuery.contains(previousSearch.lowerQuery)) {
+                // 新關鍵字包含上一次的關鍵字 → 只需在上一次的結果中篩選；沒有推送過部分結果，所以重設篩選器
+                List<Article> results = refineSearchResults(previousSearch.results, lowerQuery);
+                Log.d(TAG, "🔍 Refined search \"" + previousSearch.lowerQuery + "\" -> \"" + lowerQuery
+                        + "\": " + previousSearch.results.size() + " -> " + results.size() + " results");
+                lastCompletedSearch = new SearchSnapshot(lowerQuery, results);
+                searchScheduler.throwIfCancelled(requestId);
+                applySearchResults(requestId, finalQuery, results, true);
+                return;
+            }
 
-            // 搜索 Books
-            results.addAll(searchInJson("data.json", finalQuery, "📚"));
+            CatalogSearch search = searchAllCatalogs(finalQuery, requestId);
+            // 有目錄搜索失敗時結果不完整，不能作為之後遞增篩選的基礎
+            lastCompletedSearch = search.complete ? new SearchSnapshot(lowerQuery, search.results) : null;
+            searchScheduler.throwIfCancelled(requestId);
+            // 第一批部分結果已重設過篩選器；最終結果保留使用者在串流途中的選擇
+            applySearchResults(requestId, finalQuery, search.results, SEARCH_CATALOG_FILES.length == 1);
+        });
+        Log.d(TAG, "🔍 Search scheduled id=" + scheduledId + " | " + searchScheduler.getMetricsSummary());
+    }
 
-            // 搜索 Comics
-            results.addAll(searchInJson("comic_data.json", finalQuery, "🎭"));
+    /**
+     * 四個目錄並行搜索；每完成一個目錄就按固定順序（MP3 → 書籍 → 漫畫 → 圖片）合併並推送部分結果
+     */
+    private CatalogSearch searchAllCatalogs(String query, int requestId) {
+        boolean complete = true;
+        int catalogCount = SEARCH_CATALOG_FILES.length;
+        List<List<Article>> catalogResults = new ArrayList<>(catalogCount);
+        for (int i = 0; i < catalogCount; i++) {
+            catalogResults.add(null);
+        }
+
+        ExecutorCompletionService<Integer> completionService = new ExecutorCompletionService<>(searchCatalogExecutor);
+        List<Future<Integer>> futures = new ArrayList<>(catalogCount);
+        for (int i = 0; i < catalogCount; i++) {
+            final int catalogIndex = i;
+            futures.add(completionService.submit(() -> {
+                List<Article> found = searchCatalog(SEARCH_CATALOG_FILES[catalogIndex], query,
+                        SEARCH_CATALOG_ICONS[catalogIndex], requestId);
+                synchronized (catalogResults) {
+                    catalogResults.set(catalogIndex, found);
+                }
+                return catalogIndex;
+            }));
+        }
 
-            // 搜索 Photos
-            results.addAll(searchInJson("photo_data.json", finalQuery, "📸"));
+        try {
+            for (int finished = 1; finished <= catalogCount; finished++) {
+                Future<Integer> done = completionService.take();
+                try {
+                    done.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof CancellationException) {
+                        throw (CancellationException) e.getCause();
+                    }
+                    Log.e(TAG, "❌ Catalog search failed", e.getCause());
+                    complete = false;
+                }
+                searchScheduler.throwIfCancelled(requestId);
 
-            if (requestId != latestSearchRequestId) {
-                Log.d(TAG, "🧹 Drop stale search result id=" + requestId + " latest=" + latestSearchRequestId
-                        + " query=\"" + finalQuery + "\"");
-                return;
+                if (finished < catalogCount) {
+                    List<Article> partial = mergeCatalogResults(catalogResults);
+                    Log.d(TAG, "🔍 Catalog search " + finished + "/" + catalogCount
+                            + " finished, streaming " + partial.size() + " results");
+                    applySearchResults(requestId, query, partial, finished == 1);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Search " + requestId + " interrupted");
+        } finally {
+            for (Future<Integer> future : futures) {
+                future.cancel(true);
             }
+        }
+        return new CatalogSearch(mergeCatalogResults(catalogResults), complete);
+    }
 
-            runOnUiThread(() -> {
-                if (requestId != latestSearchRequestId) {
-                    Log.d(TAG, "🧹 Drop stale search result on UI id=" + requestId + " latest=" + latestSearchRequestId
-                            + " query=\"" + finalQuery + "\"");
-                    return;
+    private List<Article> mergeCatalogResults(List<List<Article>> catalogResults) {
+        List<Article> merged = new ArrayList<>();
+        synchronized (catalogResults) {
+            for (List<Article> found : catalogResults) {
+                if (found != null) {
+                    merged.addAll(found);
                 }
-                Log.e(TAG, "SEARCH_REQUEST_APPLY | id=" + requestId + " | query=\"" + finalQuery
-                        + "\" | results=" + results.size());
-                latestSearchResults.clear();
-                latestSearchResults.addAll(results);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 將（部分或最終）搜索結果推送到 UI；只有第一批結果會重設篩選器，避免串流途中覆蓋使用者的選擇
+     */
+    private void applySearchResults(int requestId, String query, List<Article> results, boolean resetFilter) {
+        runOnUiThread(() -> {
+            if (!searchScheduler.isCurrent(requestId)) {
+                Log.d(TAG, "🧹 Drop stale search result on UI id=" + requestId
+                        + " query=\"" + query + "\"");
+                return;
+            }
+            Log.e(TAG, "SEARCH_REQUEST_APPLY | id=" + requestId + " | query=\"" + query
+                    + "\" | results=" + results.size());
+            latestSearchResults.clear();
+            latestSearchResults.addAll(results);
+            if (resetFilter) {
                 activeSearchFilter = SEARCH_FILTER_ALL;
-                currentSearchRenderLimit = MAX_RENDERED_SEARCH_RESULTS;
-                displaySearchResults(getFilteredSearchResults());
-            });
-        }).start();
+            }
+            displaySearchResults(getFilteredSearchResults());
+        });
+    }
+
+    /**
+     * 在上一次的完整結果中篩選仍然符合新關鍵字的項目（保持原有順序）
+     */
+    private List<Article> refineSearchResults(List<Article> previousResults, String lowerQuery) {
+        List<Article> refined = new ArrayList<>();
+        for (Article article : previousResults) {
+            String matchText = getSearchMatchText(article);
+            if (isNotEmpty(matchText) && matchText.toLowerCase().contains(lowerQuery)) {
+                refined.add(article);
+            }
+        }
+        return refined;
+    }
+
+    /**
+     * 取得搜索時用來比對的欄位（與 searchInJson 的比對欄位一致）
+     */
+    private String getSearchMatchText(Article article) {
+        if ("category".equals(article.type)) {
+            return article.category;
+        }
+        if ("folder".equals(article.type)) {
+            return article.folder;
+        }
+        return article.itemName;
+    }
+
+    /**
+     * 在背景將已下載的 JSON 目錄編譯成二進位格式，讓瀏覽頁面首次開啟時不必再解析 JSON
+     */
+    private void precompileCatalogs(String... filenames) {
+        File downloadsDir = getExternalFilesDir("Downloads");
+        File[] sources = new File[filenames.length];
+        for (int i = 0; i < filenames.length; i++) {
+            sources[i] = new File(downloadsDir, filenames[i]);
+        }
+        CatalogCompiler.precompileAsync(this, sources);
+    }
+
+    /**
+     * 優先使用搜索索引；索引尚未建立或已過期時退回串流掃描
+     */
+    private List<Article> searchCatalog(String filename, String query, String icon, int requestId) {
+        searchScheduler.throwIfCancelled(requestId);
+        List<Article> indexedResults = searchIndexManager != null
+                ? searchIndexManager.search(filename, query, icon)
+                : null;
+        if (indexedResults == null) {
+            Log.d(TAG, "🔍 Search index not ready for " + filename + ", scanning JSON");
+            return searchInJson(filename, query, icon, requestId);
+        }
+
+        for (Article article : indexedResults) {
+            article.activityName = resolveActivityName(article);
+        }
+        Log.d(TAG, "🔍 Indexed search in " + filename + " for \"" + query + "\": found " + indexedResults.size() + " results");
+        return indexedResults;
     }
 
     /**
      * 在 JSON 文件中搜索（支援 ARRAY、folders/files、images 等多種格式）
+     * 每讀完一筆記錄都會檢查 requestId，有更新的搜索時立即中止
      */
-    private List<Article> searchInJson(String filename, String query, String icon) {
+    private List<Article> searchInJson(String filename, String query, String icon, int requestId) {
         List<Article> results = new ArrayList<>();
         String lowerQuery = query.toLowerCase();
         int fileCount = 0;
@@ -906,8 +999,7 @@ public class HomeActivity extends AppCompatActivity {
                 return results;
             }
 
-            try (JsonReader reader = new JsonReader(
-                    new InputStreamReader(new FileInputStream(jsonFile), StandardCharsets.UTF_8))) {
+            try (JsonReader reader = new JsonReader(CatalogStreams.openReader(jsonFile))) {
                 
                 if ("BEGIN_ARRAY".equals(reader.peek().toString())) {
                     // data.json：ARRAY 格式，每個元素就是一項
@@ -915,6 +1007,7 @@ public class HomeActivity extends AppCompatActivity {
                     reader.beginArray();
                     
                     while (reader.hasNext()) {
+                        searchScheduler.throwIfCancelled(requestId);
                         reader.beginObject();
                         String itemName = "";
                         String bookAuthor = "";
@@ -970,6 +1063,7 @@ public class HomeActivity extends AppCompatActivity {
                         if ("categories".equals(key)) {
                             reader.beginArray();
                             while (reader.hasNext()) {
+                                searchScheduler.throwIfCancelled(requestId);
                                 reader.beginObject();
                                 String categoryName = "";
                                 List<Article> categoryScopedResults = new ArrayList<>();
@@ -994,8 +1088,8 @@ public class HomeActivity extends AppCompatActivity {
                                             categoryScopedResults.add(article);
                                         }
                                     } else if ("folders".equals(catKey)) {
-                                        categoryMatchedFileCount += searchFolders(
-                                                reader, lowerQuery, icon, filename, categoryName, categoryScopedResults);
+                                        categoryMatchedFileCount += searchFolders(reader, lowerQuery, icon,
+                                                filename, categoryName, categoryScopedResults, requestId);
                                     } else if ("images".equals(catKey)) {
                                         // 分類下直接有 images（photo_data 可能用此格式）
                                         categoryMatchedFileCount += searchImageArray(
@@ -1033,6 +1127,8 @@ public class HomeActivity extends AppCompatActivity {
             }
             
             Log.d(TAG, "🔍 Search in " + filename + " for \"" + query + "\": found " + results.size() + " results (" + fileCount + " files)");
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
             Log.e(TAG, "❌ Error searching " + filename, e);
         }
@@ -1044,11 +1140,12 @@ public class HomeActivity extends AppCompatActivity {
      */
     private int searchFolders(JsonReader reader, String lowerQuery, String icon, String filename,
                              String categoryName,
-                             List<Article> results) throws IOException {
+                             List<Article> results, int requestId) throws IOException {
         int count = 0;
         reader.beginArray();
         
         while (reader.hasNext()) {
+            searchScheduler.throwIfCancelled(requestId);
             reader.beginObject();
             String folderName = "";
             boolean folderMatched = false;
@@ -1061,7 +1158,7 @@ public class HomeActivity extends AppCompatActivity {
                     folderName = readReaderStringSafely(reader);
                     folderMatched = isNotEmpty(folderName) && folderName.toLowerCase().contains(lowerQuery);
                 } else if ("files".equals(folderKey)) {
-                    count += searchFileArray(reader, lowerQuery, matchedFileTitles);
+                    count += searchFileArray(reader, lowerQuery, matchedFileTitles, requestId);
                 } else if ("images".equals(folderKey)) {
                     count += searchImageArray(reader, lowerQuery, icon, folderName, results);
                 } else {
@@ -1105,11 +1202,12 @@ public class HomeActivity extends AppCompatActivity {
      * 搜索 files 陣列
      */
     private int searchFileArray(JsonReader reader, String lowerQuery,
-                               List<String> matchedTitles) throws IOException {
+                               List<String> matchedTitles, int requestId) throws IOException {
         int count = 0;
         reader.beginArray();
         
         while (reader.hasNext()) {
+            searchScheduler.throwIfCancelled(requestId);
             reader.beginObject();
             String title = "";
             
@@ -1153,175 +1251,74 @@ public class HomeActivity extends AppCompatActivity {
     }
 
     /**
-     * 顯示搜索結果
+     * 建立搜索結果列表（RecyclerView 只會為可見的項目建立視圖）與篩選按鈕
+     */
+    private void setupSearchResultsList() {
+        searchResultAdapter = new SearchResultAdapter((result, displayIndex, totalCount) -> {
+            hideKeyboardAndClearSearchFocus();
+            Log.e(TAG, "SEARCH_CLICK_DETECTED | index=" + displayIndex + "/" + totalCount
+                    + " | title=" + result.title);
+            logSearchTitleResultClick(result, displayIndex, totalCount);
+            handleSearchResultClick(result);
+        });
+        searchResultsRecyclerView.setLayoutManager(new LinearLayoutManager(this));
+        searchResultsRecyclerView.setAdapter(searchResultAdapter);
+        searchResultsRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+                if (newState == RecyclerView.SCROLL_STATE_DRAGGING) {
+                    hideKeyboardAndClearSearchFocus();
+                }
+            }
+        });
+
+        for (String filterKey : new String[]{SEARCH_FILTER_ALL, SEARCH_FILTER_MP3, SEARCH_FILTER_BOOK,
+                SEARCH_FILTER_COMIC, SEARCH_FILTER_PHOTO}) {
+            addSearchFilterButton(searchFilterRow, filterKey);
+        }
+    }
+
+    /**
+     * 隱藏搜索結果並回到儀表板
+     */
+    private void hideSearchResults() {
+        searchResultAdapter.submitResults(Collections.emptyList(), "");
+        searchResultsContainer.setVisibility(View.GONE);
+        dashboardScroll.setVisibility(View.VISIBLE);
+    }
+
+    /**
+     * 顯示搜索結果（交給 ListAdapter 做差異比對，只更新有變化的項目）
      */
     private void displaySearchResults(List<Article> results) {
-        searchResultsContainer.removeAllViews();
-        dashboardContainer.setVisibility(View.GONE);
+        dashboardScroll.setVisibility(View.GONE);
+        searchResultsContainer.setVisibility(View.VISIBLE);
 
         int totalResults = latestSearchResults.size();
         int filteredResults = results.size();
-        int renderCount = Math.min(filteredResults, currentSearchRenderLimit);
-        boolean isTruncated = filteredResults > currentSearchRenderLimit;
 
         Log.e(TAG, "SEARCH_UI_RENDER | build=" + SEARCH_DIAG_BUILD
                 + " | filter=" + activeSearchFilter
-                + " | renderCount=" + renderCount
                 + " | filtered=" + filteredResults
                 + " | total=" + totalResults
                 + " | query=\"" + latestNormalizedSearchQuery + "\"");
-        Log.d(TAG, "📊 Displaying " + renderCount + " search results (filtered=" + filteredResults + ", total=" + totalResults + ")");
+        Log.d(TAG, "📊 Displaying " + filteredResults + " search results (total=" + totalResults + ")");
 
-        boolean shouldShowSearchControls = isNotEmpty(latestNormalizedSearchQuery);
-        if (!shouldShowSearchControls && !latestSearchResults.isEmpty()) {
-            shouldShowSearchControls = true;
-            Log.w(TAG, "SEARCH_FILTER_UI_RECOVER | query empty but results exist, force-show controls");
-        }
+        searchResultHeader.setText(buildSearchResultHeader(totalResults, filteredResults));
+        updateSearchFilterButtons();
+        searchNoResultsText.setVisibility(results.isEmpty() ? View.VISIBLE : View.GONE);
 
-        if (shouldShowSearchControls) {
-            TextView resultCountHeader = new TextView(this);
-            resultCountHeader.setText(buildSearchResultHeader(totalResults, filteredResults, renderCount, isTruncated));
-            resultCountHeader.setPadding(16, 16, 16, 8);
-            resultCountHeader.setTextColor(getResources().getColor(android.R.color.black));
-            resultCountHeader.setTextSize(14);
-            searchResultsContainer.addView(resultCountHeader);
-
-            addSearchFilterButtons();
-        }
-
-        if (results.isEmpty()) {
-            TextView noResults = new TextView(this);
-            noResults.setText("❌ 未找到結果");
-            noResults.setPadding(16, 16, 16, 16);
-            noResults.setTextColor(getResources().getColor(android.R.color.darker_gray));
-            searchResultsContainer.addView(noResults);
-            return;
+        boolean filterChanged = !activeSearchFilter.equals(searchResultsRecyclerView.getTag());
+        searchResultsRecyclerView.setTag(activeSearchFilter);
+        searchResultAdapter.submitResults(results, latestNormalizedSearchQuery);
+        if (filterChanged) {
+            searchResultsRecyclerView.scrollToPosition(0);
         }
-
-        for (int i = 0; i < renderCount; i++) {
-            Article result = results.get(i);
-            final int displayIndex = i + 1;
-            final int totalCount = filteredResults;
-            MaterialCardView card = new MaterialCardView(this);
-            card.setCardElevation(4);
-            card.setCardBackgroundColor(getResources().getColor(android.R.color.white));
-
-            LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
-                    LinearLayout.LayoutParams.MATCH_PARENT,
-                    LinearLayout.LayoutParams.WRAP_CONTENT
-            );
-            params.setMargins(8, 8, 8, 8);
-            card.setLayoutParams(params);
-
-            LinearLayout cardContent = new LinearLayout(this);
-            cardContent.setOrientation(LinearLayout.VERTICAL);
-            cardContent.setPadding(16, 12, 16, 12);
-
-            TextView textView = new TextView(this);
-            textView.setText(buildHighlightedSearchTitle(result.title));
-            textView.setTextSize(14);
-            cardContent.addView(textView);
-
-            TextView typeView = new TextView(this);
-            typeView.setText("類型: " + result.type);
-            typeView.setTextSize(12);
-            typeView.setTextColor(getResources().getColor(android.R.color.darker_gray));
-            typeView.setPadding(0, 8, 0, 0);
-            cardContent.addView(typeView);
-
-            card.addView(cardContent);
-            card.setClickable(true);
-            card.setFocusable(true);
-            card.setOnTouchListener((v, event) -> {
-                int action = event.getActionMasked();
-                if (action == MotionEvent.ACTION_DOWN) {
-                    hideKeyboardAndClearSearchFocus();
-                    ViewParent parent = v.getParent();
-                    if (parent != null) {
-                        parent.requestDisallowInterceptTouchEvent(true);
-                    }
-                } else if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
-                    ViewParent parent = v.getParent();
-                    if (parent != null) {
-                        parent.requestDisallowInterceptTouchEvent(false);
-                    }
-                }
-
-                if (action == MotionEvent.ACTION_DOWN
-                        || action == MotionEvent.ACTION_UP
-                        || action == MotionEvent.ACTION_CANCEL) {
-                    Log.e(TAG, "SEARCH_TOUCH_" + motionActionToText(action)
-                            + " | index=" + displayIndex + "/" + totalCount
-                            + " | title=" + result.title);
-                }
-                return false;
-            });
-            card.setOnClickListener(v -> {
-                Log.e(TAG, "SEARCH_CLICK_DETECTED | index=" + displayIndex + "/" + totalCount
-                        + " | title=" + result.title);
-                logSearchTitleResultClick(result, displayIndex, totalCount);
-                handleSearchResultClick(result);
-            });
-            searchResultsContainer.addView(card);
-        }
-
-        if (isTruncated) {
-            final int nextRenderLimit = Math.min(filteredResults, currentSearchRenderLimit + MAX_RENDERED_SEARCH_RESULTS);
-            Button loadMoreButton = new Button(this);
-            loadMoreButton.setAllCaps(false);
-            loadMoreButton.setText("載入更多（" + renderCount + "/" + filteredResults + "）");
-
-            LinearLayout.LayoutParams buttonParams = new LinearLayout.LayoutParams(
-                    LinearLayout.LayoutParams.MATCH_PARENT,
-                    LinearLayout.LayoutParams.WRAP_CONTENT
-            );
-            buttonParams.setMargins(16, 8, 16, 16);
-            loadMoreButton.setLayoutParams(buttonParams);
-            loadMoreButton.setOnClickListener(v -> {
-                currentSearchRenderLimit = nextRenderLimit;
-                Log.e(TAG, "SEARCH_LOAD_MORE | nextRenderLimit=" + currentSearchRenderLimit
-                        + " | filtered=" + filteredResults
-                        + " | filter=" + activeSearchFilter);
-                displaySearchResults(getFilteredSearchResults());
-            });
-            searchResultsContainer.addView(loadMoreButton);
-        }
-    }
-
-    private void addSearchFilterButtons() {
-        TextView filterLabel = new TextView(this);
-        filterLabel.setText("篩選：");
-        filterLabel.setTextSize(13);
-        filterLabel.setTypeface(null, Typeface.BOLD);
-        filterLabel.setTextColor(getResources().getColor(android.R.color.black));
-        filterLabel.setPadding(16, 0, 16, 8);
-        searchResultsContainer.addView(filterLabel);
-
-        HorizontalScrollView filterScroll = new HorizontalScrollView(this);
-        filterScroll.setHorizontalScrollBarEnabled(false);
-
-        LinearLayout filterRow = new LinearLayout(this);
-        filterRow.setOrientation(LinearLayout.HORIZONTAL);
-        filterRow.setPadding(16, 0, 16, 8);
-        filterRow.setBackgroundColor(getResources().getColor(android.R.color.transparent));
-
-        addSearchFilterButton(filterRow, SEARCH_FILTER_ALL);
-        addSearchFilterButton(filterRow, SEARCH_FILTER_MP3);
-        addSearchFilterButton(filterRow, SEARCH_FILTER_BOOK);
-        addSearchFilterButton(filterRow, SEARCH_FILTER_COMIC);
-        addSearchFilterButton(filterRow, SEARCH_FILTER_PHOTO);
-
-        filterScroll.addView(filterRow);
-        Log.e(TAG, "SEARCH_FILTER_UI_SHOWN | filter=" + activeSearchFilter
-                + " | total=" + latestSearchResults.size());
-        searchResultsContainer.addView(filterScroll);
     }
 
     private void addSearchFilterButton(LinearLayout parent, String filterKey) {
-        int matchedCount = countSearchResultsByFilter(filterKey);
         Button filterButton = new Button(this);
         filterButton.setAllCaps(false);
-        filterButton.setText(getSearchFilterLabel(filterKey) + " (" + matchedCount + ")");
 
         LinearLayout.LayoutParams buttonParams = new LinearLayout.LayoutParams(
                 LinearLayout.LayoutParams.WRAP_CONTENT,
@@ -1330,22 +1327,32 @@ public class HomeActivity extends AppCompatActivity {
         buttonParams.setMargins(0, 0, 12, 0);
         filterButton.setLayoutParams(buttonParams);
 
-        boolean isActiveFilter = filterKey.equals(activeSearchFilter);
-        applySearchFilterButtonStyle(filterButton, isActiveFilter);
         filterButton.setOnClickListener(v -> {
             if (filterKey.equals(activeSearchFilter)) {
                 return;
             }
             activeSearchFilter = filterKey;
-            currentSearchRenderLimit = MAX_RENDERED_SEARCH_RESULTS;
             List<Article> filteredResults = getFilteredSearchResults();
             Log.e(TAG, "SEARCH_FILTER_APPLY | filter=" + filterKey + " | count=" + filteredResults.size());
             displaySearchResults(filteredResults);
         });
 
+        searchFilterButtons.put(filterKey, filterButton);
         parent.addView(filterButton);
     }
 
+    /**
+     * 就地更新篩選按鈕的數量與選取狀態，不重建視圖
+     */
+    private void updateSearchFilterButtons() {
+        for (Map.Entry<String, Button> entry : searchFilterButtons.entrySet()) {
+            String filterKey = entry.getKey();
+            Button filterButton = entry.getValue();
+            filterButton.setText(getSearchFilterLabel(filterKey) + " (" + countSearchResultsByFilter(filterKey) + ")");
+            applySearchFilterButtonStyle(filterButton, filterKey.equals(activeSearchFilter));
+        }
+    }
+
     private void applySearchFilterButtonStyle(Button button, boolean isActive) {
         int activeBackground = ContextCompat.getColor(this, android.R.color.holo_orange_dark);
         int activeTextColor = ContextCompat.getColor(this, android.R.color.white);
@@ -1363,55 +1370,6 @@ public class HomeActivity extends AppCompatActivity {
         }
     }
 
-    private CharSequence buildHighlightedSearchTitle(String title) {
-        String safeTitle = title == null ? "" : title;
-        if (!isNotEmpty(safeTitle) || !isNotEmpty(latestNormalizedSearchQuery)) {
-            return safeTitle;
-        }
-
-        String lowerTitle = safeTitle.toLowerCase(Locale.ROOT);
-        String[] queryKeywords = latestNormalizedSearchQuery.toLowerCase(Locale.ROOT).split("\\s+");
-        if (queryKeywords.length == 0) {
-            return safeTitle;
-        }
-
-        SpannableString highlightedTitle = new SpannableString(safeTitle);
-        int highlightColor = ContextCompat.getColor(this, android.R.color.holo_blue_dark);
-        boolean hasMatch = false;
-
-        for (String lowerQuery : queryKeywords) {
-            if (!isNotEmpty(lowerQuery)) {
-                continue;
-            }
-
-            int searchStart = 0;
-            while (searchStart < lowerTitle.length()) {
-                int matchedIndex = lowerTitle.indexOf(lowerQuery, searchStart);
-                if (matchedIndex < 0) {
-                    break;
-                }
-
-                int matchedEnd = matchedIndex + lowerQuery.length();
-                highlightedTitle.setSpan(new ForegroundColorSpan(highlightColor),
-                        matchedIndex,
-                        matchedEnd,
-                        Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
-                highlightedTitle.setSpan(new StyleSpan(Typeface.BOLD),
-                        matchedIndex,
-                        matchedEnd,
-                        Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
-                hasMatch = true;
-                searchStart = matchedEnd;
-            }
-        }
-
-        if (!hasMatch) {
-            return safeTitle;
-        }
-
-        return highlightedTitle;
-    }
-
     private void hideKeyboardAndClearSearchFocus() {
         if (searchBox != null) {
             searchBox.clearFocus();
@@ -1495,7 +1453,7 @@ public class HomeActivity extends AppCompatActivity {
         }
     }
 
-    private String buildSearchResultHeader(int totalResults, int filteredResults, int renderCount, boolean isTruncated) {
+    private String buildSearchResultHeader(int totalResults, int filteredResults) {
         StringBuilder headerBuilder = new StringBuilder();
         headerBuilder.append("🔍 找到 ").append(totalResults).append(" 個結果");
 
@@ -1504,10 +1462,6 @@ public class HomeActivity extends AppCompatActivity {
                     .append("：").append(filteredResults).append(" 筆）");
         }
 
-        if (isTruncated) {
-            headerBuilder.append("（顯示前 ").append(renderCount).append(" 筆）");
-        }
-
         return headerBuilder.toString();
     }
 
@@ -1613,19 +1567,6 @@ public class HomeActivity extends AppCompatActivity {
         return (getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
     }
 
-    private String motionActionToText(int action) {
-        if (action == MotionEvent.ACTION_DOWN) {
-            return "DOWN";
-        }
-        if (action == MotionEvent.ACTION_UP) {
-            return "UP";
-        }
-        if (action == MotionEvent.ACTION_CANCEL) {
-            return "CANCEL";
-        }
-        return "OTHER_" + action;
-    }
-
     /**
      * 根據搜索結果精準導航
      */
@@ -1708,8 +1649,7 @@ public class HomeActivity extends AppCompatActivity {
      * 依書名直接開啟書籍詳情
      */
     private boolean openBookDetailByName(File jsonFile, String targetBookName) {
-        try (JsonReader reader = new JsonReader(
-                new InputStreamReader(new FileInputStream(jsonFile), StandardCharsets.UTF_8))) {
+        try (JsonReader reader = new JsonReader(CatalogStreams.openReader(jsonFile))) {
 
             reader.beginArray();
             while (reader.hasNext()) {
@@ -1775,8 +1715,7 @@ public class HomeActivity extends AppCompatActivity {
 
         try {
             StringBuilder jsonBuilder = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(new FileInputStream(jsonFile), StandardCharsets.UTF_8))) {
+            try (BufferedReader reader = new BufferedReader(CatalogStreams.openReader(jsonFile))) {
                 String line;
                 while ((line = reader.readLine()) != null) {
                     jsonBuilder.append(line);
@@ -2002,10 +1941,14 @@ public class HomeActivity extends AppCompatActivity {
         } else if (targetActivity == ComicListActivity.class || targetActivity == PhotoListActivity.class) {
             intent.putExtra("category_name", article.category);
             intent.putExtra("folder_name", article.folder);
+            intent.putExtra("folder_path", CompiledCatalog.buildPath(article.category, article.folder));
         } else if (targetActivity == ComicFolderActivity.class || targetActivity == PhotoFolderActivity.class) {
             intent.putExtra("category_name", article.category);
             if (isNotEmpty(article.folder)) {
                 intent.putExtra("folder_name", article.folder);
+                intent.putExtra("folder_path", CompiledCatalog.buildPath(article.category, article.folder));
+            } else {
+                intent.putExtra("folder_path", CompiledCatalog.buildPath(article.category));
             }
         }
 
@@ -2035,6 +1978,14 @@ public class HomeActivity extends AppCompatActivity {
         String token = reader.peek().toString();
 
         if ("BEGIN_ARRAY".equals(token)) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                String tag = readReaderStringSafely(reader);
+                if (isNotEmpty(tag)) {
+                    tags.add(tag);
+                }
+            }
+            reader.endArray();
         } else {
             String tag = readReaderStringSafely(reader);
             if (isNotEmpty(tag)) {
@@ -2254,4 +2205,29 @@ public class HomeActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * 全目錄搜索的合併結果；complete 表示每個目錄都搜索成功
+     */
+    private static final class CatalogSearch {
+        final List<Article> results;
+        final boolean complete;
+
+        CatalogSearch(List<Article> results, boolean complete) {
+            this.results = results;
+            this.complete = complete;
+        }
+    }
+
+    /**
+     * 一次已完成搜索的關鍵字與完整結果，用於遞增篩選
+     */
+    private static final class SearchSnapshot {
+        final String lowerQuery;
+        final List<Article> results;
+
+        SearchSnapshot(String lowerQuery, List<Article> results) {
+            this.lowerQuery = lowerQuery;
+            this.results = new ArrayList<>(results);
+        }
+    }
 }
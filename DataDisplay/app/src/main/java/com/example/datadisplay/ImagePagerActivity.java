@@ -1,38 +1,106 @@
 package com.example.datadisplay;
 
 import android.os.Bundle;
+import android.util.Log;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.IntentCompat;
 import androidx.viewpager2.widget.ViewPager2;
 
 import com.example.datadisplay.adapters.ImagePagerAdapter;
+import com.example.datadisplay.managers.CatalogRepository;
+import com.example.datadisplay.managers.DownloadScheduler;
+import com.example.datadisplay.utils.CompactUrlList;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executors;
 
 public class ImagePagerActivity extends AppCompatActivity {
 
+    private static final String TAG = "ImagePagerActivity";
+
     private ViewPager2 viewPager;
     private List<String> imageUrls;
     private int startPosition;
+    private String currentUrl;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_image_pager);
 
+        viewPager = findViewById(R.id.viewPager);
+        // Preload adjacent pages for smoother swiping
+        viewPager.setOffscreenPageLimit(2);
+
         // Get extras from intent
-        imageUrls = getIntent().getStringArrayListExtra("image_urls");
         startPosition = getIntent().getIntExtra("start_position", 0);
+        String jsonPath = getIntent().getStringExtra("json_path");
+
+        if (jsonPath != null) {
+            // Catalog screens hand off a folder handle; the URL list comes from CatalogRepository
+            String folderPath = getIntent().getStringExtra("folder_path");
+            String categoryName = getIntent().getStringExtra("category_name");
+            String folderName = getIntent().getStringExtra("folder_name");
+            Executors.newSingleThreadExecutor().execute(() -> {
+                List<String> images;
+                try {
+                    images = CatalogRepository.getInstance(this)
+                            .getFolderImages(new File(jsonPath), folderPath, categoryName, folderName);
+                } catch (Exception e) {
+                    Log.e(TAG, "Error loading images for " + folderPath, e);
+                    images = CompactUrlList.EMPTY;
+                }
+                List<String> loaded = images;
+                runOnUiThread(() -> showImages(loaded));
+            });
+        } else {
+            CompactUrlList compactUrls = IntentCompat.getParcelableExtra(getIntent(), "image_urls", CompactUrlList.class);
+            List<String> images = compactUrls != null ? compactUrls : getIntent().getStringArrayListExtra("image_urls");
+            showImages(images != null ? images : new ArrayList<>());
+        }
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Offline downloads of the folder on screen jump the queue
+        DownloadScheduler.getInstance(this).setViewingGroup(getIntent().getStringExtra("folder_path"));
+        if (currentUrl != null) {
+            DownloadScheduler.getInstance(this).setViewingUrl(currentUrl);
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        DownloadScheduler.getInstance(this).clearViewingGroup(getIntent().getStringExtra("folder_path"));
+        DownloadScheduler.getInstance(this).clearViewingUrl(currentUrl);
+    }
+
+    private void showImages(List<String> images) {
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
+        imageUrls = images;
 
         // Set up ViewPager2 with adapter
-        viewPager = findViewById(R.id.viewPager);
         ImagePagerAdapter adapter = new ImagePagerAdapter(this, imageUrls);
         viewPager.setAdapter(adapter);
+        viewPager.registerOnPageChangeCallback(new ViewPager2.OnPageChangeCallback() {
+            @Override
+            public void onPageSelected(int position) {
+                // A queued offline download of the image on screen goes next
+                currentUrl = imageUrls.get(position);
+                DownloadScheduler.getInstance(ImagePagerActivity.this).setViewingUrl(currentUrl);
+            }
+        });
 
         // Jump to the tapped image
-        viewPager.setCurrentItem(startPosition, false);
-
-        // Preload adjacent pages for smoother swiping
-        viewPager.setOffscreenPageLimit(2);
+        if (startPosition >= 0 && startPosition < imageUrls.size()) {
+            viewPager.setCurrentItem(startPosition, false);
+        }
     }
 }
@@ -1,57 +1,76 @@
 package com.example.datadisplay;
 
-import android.graphics.drawable.Drawable;
 import android.net.Uri;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
-import com.bumptech.glide.request.target.CustomTarget;
-import com.bumptech.glide.request.transition.Transition;
 import com.davemorrissey.labs.subscaleview.ImageSource;
 import com.davemorrissey.labs.subscaleview.SubsamplingScaleImageView;
+import com.example.datadisplay.managers.CatalogRepository;
+import com.example.datadisplay.managers.ComicPagePrefetcher;
+import com.example.datadisplay.managers.DownloadScheduler;
+import com.example.datadisplay.managers.ImageLoader;
+import com.example.datadisplay.utils.CompactUrlList;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.Executors;
 
 public class PhotoActivity extends AppCompatActivity {
 
-    private static final int PREFETCH_AHEAD = 3;   // how many pages ahead
-    private static final int PREFETCH_BEHIND = 2;  // how many pages behind
+    private static final String TAG = "PhotoActivity";
 
-    private ArrayList<String> images;
+    private List<String> images;
     private RecyclerView recyclerView;
     private LinearLayoutManager layoutManager;
 
-    // Track which URLs are currently prefetched
-    private final Set<String> prefetched = new HashSet<>();
+    private ComicPagePrefetcher pagePrefetcher;
+    private int startPosition;
+    private String currentUrl;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_photo);
 
-        images = getIntent().getStringArrayListExtra("images");
-        if (images == null) images = new ArrayList<>();
-
         recyclerView = findViewById(R.id.photoRecyclerView);
         layoutManager = new LinearLayoutManager(this, LinearLayoutManager.VERTICAL, false);
         recyclerView.setLayoutManager(layoutManager);
-        recyclerView.setAdapter(new ComicScrollAdapter(images));
 
-        if (!images.isEmpty()) {
-            prefetchWindow(0);
+        // Windowed prefetch around the page being read, budgeted on metered networks
+        pagePrefetcher = new ComicPagePrefetcher(this);
+        startPosition = getIntent().getIntExtra("position", 0);
+
+        String jsonPath = getIntent().getStringExtra("json_path");
+        if (jsonPath != null) {
+            // Comic list hands off a folder handle; the page list comes from CatalogRepository
+            String folderPath = getIntent().getStringExtra("folder_path");
+            String categoryName = getIntent().getStringExtra("category_name");
+            String folderName = getIntent().getStringExtra("folder_name");
+            Executors.newSingleThreadExecutor().execute(() -> {
+                List<String> pages;
+                try {
+                    pages = CatalogRepository.getInstance(this)
+                            .getFolderImages(new File(jsonPath), folderPath, categoryName, folderName);
+                } catch (Exception e) {
+                    Log.e(TAG, "Error loading pages for " + folderPath, e);
+                    pages = CompactUrlList.EMPTY;
+                }
+                List<String> loaded = pages;
+                runOnUiThread(() -> showImages(loaded));
+            });
+        } else {
+            List<String> extraImages = getIntent().getStringArrayListExtra("images");
+            showImages(extraImages != null ? extraImages : new ArrayList<>());
         }
 
         recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
@@ -60,37 +79,60 @@ public class PhotoActivity extends AppCompatActivity {
                 super.onScrolled(rv, dx, dy);
                 int firstVisible = layoutManager.findFirstVisibleItemPosition();
                 if (firstVisible >= 0) {
-                    prefetchWindow(firstVisible);
+                    onPageChanged(firstVisible);
                 }
             }
         });
     }
 
-    private void prefetchWindow(int currentIndex) {
-        if (images.isEmpty() || currentIndex < 0 || currentIndex >= images.size()) return;
+    private void showImages(List<String> pages) {
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
+        images = pages;
+        recyclerView.setAdapter(new ComicScrollAdapter(images));
+        pagePrefetcher.setPages(images);
 
-        int start = Math.max(0, currentIndex - PREFETCH_BEHIND);
-        int end   = Math.min(images.size() - 1, currentIndex + PREFETCH_AHEAD);
+        if (!images.isEmpty()) {
+            // Open on the tapped page so it is the first download, not page 0
+            int page = Math.max(0, Math.min(startPosition, images.size() - 1));
+            layoutManager.scrollToPosition(page);
+            onPageChanged(page);
+        }
+    }
 
-        // Build the new window set
-        Set<String> newWindow = new HashSet<>();
-        for (int i = start; i <= end; i++) {
-            newWindow.add(images.get(i));
+    private void onPageChanged(int page) {
+        pagePrefetcher.onPageChanged(page);
+        String url = images.get(page);
+        if (!url.equals(currentUrl)) {
+            currentUrl = url;
+            // A queued offline download of the page being read goes next
+            DownloadScheduler.getInstance(this).setViewingUrl(url);
         }
+    }
 
-        // Prefetch only new items
-        for (String url : newWindow) {
-            if (!prefetched.contains(url)) {
-                Glide.with(this)
-                        .downloadOnly()
-                        .load(url)
-                        .preload();
-            }
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Offline downloads of the folder on screen jump the queue
+        DownloadScheduler.getInstance(this).setViewingGroup(getIntent().getStringExtra("folder_path"));
+        if (currentUrl != null) {
+            DownloadScheduler.getInstance(this).setViewingUrl(currentUrl);
         }
+    }
 
-        // Update tracking set
-        prefetched.clear();
-        prefetched.addAll(newWindow);
+    @Override
+    protected void onPause() {
+        super.onPause();
+        DownloadScheduler.getInstance(this).clearViewingGroup(getIntent().getStringExtra("folder_path"));
+        DownloadScheduler.getInstance(this).clearViewingUrl(currentUrl);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        pagePrefetcher.logMetrics();
+        pagePrefetcher.cancelAll();
     }
 
     static class ComicScrollAdapter extends RecyclerView.Adapter<ComicScrollAdapter.PageViewHolder> {
@@ -112,29 +154,22 @@ public class PhotoActivity extends AppCompatActivity {
         public void onBindViewHolder(@NonNull PageViewHolder holder, int position) {
             String url = images.get(position);
 
-            Glide.with(holder.imageView.getContext())
-                    .downloadOnly()
-                    .load(url)
-                    .into(new CustomTarget<File>() {
-                        @Override
-                        public void onResourceReady(@NonNull File resource, @Nullable Transition<? super File> transition) {
-                            holder.imageView.setImage(ImageSource.uri(Uri.fromFile(resource)));
-
-                            // Fit width, maintain aspect ratio
-                            holder.imageView.setMinimumScaleType(SubsamplingScaleImageView.SCALE_TYPE_CENTER_INSIDE);
-                            holder.imageView.setDoubleTapZoomStyle(SubsamplingScaleImageView.ZOOM_FOCUS_CENTER);
-
-                            // Force initial scale to fit width
-                            holder.imageView.post(() -> {
-                                float viewWidth = holder.imageView.getWidth();
-                                float sWidth = holder.imageView.getSWidth();
-                                float scale = viewWidth / sWidth;
-                                holder.imageView.setScaleAndCenter(scale, holder.imageView.getCenter());
-                            });
-                        }
-
-                        @Override public void onLoadCleared(@Nullable Drawable placeholder) {}
-                    });
+            ImageLoader.cancel(holder.imageView, holder.request);
+            holder.request = ImageLoader.loadFile(holder.imageView, url, resource -> {
+                holder.imageView.setImage(ImageSource.uri(Uri.fromFile(resource)));
+
+                // Fit width, maintain aspect ratio
+                holder.imageView.setMinimumScaleType(SubsamplingScaleImageView.SCALE_TYPE_CENTER_INSIDE);
+                holder.imageView.setDoubleTapZoomStyle(SubsamplingScaleImageView.ZOOM_FOCUS_CENTER);
+
+                // Force initial scale to fit width
+                holder.imageView.post(() -> {
+                    float viewWidth = holder.imageView.getWidth();
+                    float sWidth = holder.imageView.getSWidth();
+                    float scale = viewWidth / sWidth;
+                    holder.imageView.setScaleAndCenter(scale, holder.imageView.getCenter());
+                });
+            });
         }
 
         @Override
@@ -144,6 +179,7 @@ public class PhotoActivity extends AppCompatActivity {
 
         static class PageViewHolder extends RecyclerView.ViewHolder {
             SubsamplingScaleImageView imageView;
+            ImageLoader.FileRequest request;
             PageViewHolder(View itemView) {
                 super(itemView);
                 imageView = itemView.findViewById(R.id.fullscreenImageView);
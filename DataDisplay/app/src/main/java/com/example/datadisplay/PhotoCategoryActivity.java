@@ -9,15 +9,12 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.datadisplay.adapters.PhotoCategoryAdapter;
+import com.example.datadisplay.managers.CatalogRepository;
 import com.example.datadisplay.models.PhotoCategory;
-import com.example.datadisplay.models.PhotoData;
+import com.example.datadisplay.utils.CompiledCatalog;
 import com.google.android.material.snackbar.Snackbar;
-import com.google.gson.Gson;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executors;
@@ -48,33 +45,29 @@ public class PhotoCategoryActivity extends AppCompatActivity {
     }
 
     private void loadCategories() {
-        PhotoData cached = PhotoDataCache.getInstance().getData();
-        if (cached != null) {
-            setupRecycler(cached);
-            return;
-        }
-
         Executors.newSingleThreadExecutor().execute(() -> {
-            PhotoData photoData = null;
-            try (FileInputStream fis = new FileInputStream(cacheFile);
-                 BufferedReader reader = new BufferedReader(new InputStreamReader(fis))) {
-                photoData = new Gson().fromJson(reader, PhotoData.class);
-                PhotoDataCache.getInstance().setData(photoData);
+            CompiledCatalog catalog = null;
+            try {
+                catalog = CatalogRepository.getInstance(this).getCatalog(cacheFile);
             } catch (Exception e) {
                 e.printStackTrace();
                 runOnUiThread(() ->
                         Snackbar.make(recyclerView, "Failed to load cached photo data", Snackbar.LENGTH_LONG).show());
             }
 
-            PhotoData finalData = photoData;
-            runOnUiThread(() -> setupRecycler(finalData));
+            CompiledCatalog finalCatalog = catalog;
+            runOnUiThread(() -> setupRecycler(finalCatalog));
         });
     }
 
-    private void setupRecycler(PhotoData photoData) {
+    private void setupRecycler(CompiledCatalog catalog) {
         List<PhotoCategory> categories = new ArrayList<>();
-        if (photoData != null && photoData.categories != null) {
-            categories.addAll(photoData.categories);
+        if (catalog != null && catalog.getCategoryCount() > 0) {
+            for (int i = 0; i < catalog.getCategoryCount(); i++) {
+                PhotoCategory category = new PhotoCategory();
+                category.name = catalog.getName(catalog.getChild(catalog.getRoot(), i));
+                categories.add(category);
+            }
         } else {
             Snackbar.make(recyclerView, "No categories found", Snackbar.LENGTH_LONG).show();
         }
@@ -82,6 +75,7 @@ public class PhotoCategoryActivity extends AppCompatActivity {
         PhotoCategoryAdapter adapter = new PhotoCategoryAdapter(categories, category -> {
             Intent intent = new Intent(PhotoCategoryActivity.this, PhotoFolderActivity.class);
             intent.putExtra("category_name", category.name);
+            intent.putExtra("folder_path", CompiledCatalog.buildPath(category.name));
             intent.putExtra("json_path", cacheFile.getAbsolutePath());
             Log.d(TAG, "🧭 Click category -> PhotoFolderActivity | category_name=" + category.name + " | json_path=" + cacheFile.getAbsolutePath());
             startActivity(intent);
@@ -9,19 +9,15 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.datadisplay.adapters.PhotoFolderAdapter;
+import com.example.datadisplay.managers.CatalogRepository;
 import com.example.datadisplay.managers.OfflineDownloadManager;
 import com.example.datadisplay.managers.OfflineResourceManager;
-import com.example.datadisplay.models.PhotoCategory;
-import com.example.datadisplay.models.PhotoData;
 import com.example.datadisplay.models.PhotoFolder;
+import com.example.datadisplay.utils.CompiledCatalog;
 import com.example.datadisplay.utils.NetworkHelper;
 import com.google.android.material.snackbar.Snackbar;
-import com.google.gson.Gson;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executors;
@@ -31,6 +27,8 @@ public class PhotoFolderActivity extends AppCompatActivity implements PhotoFolde
     private static final String TAG = "PhotoFolderActivity";
 
     private List<PhotoFolder> folderList = new ArrayList<>();
+    private final List<Integer> folderNodes = new ArrayList<>();
+    private CompiledCatalog catalog;
     private String categoryName;
     private String jsonPath;
     private RecyclerView recyclerView;
@@ -51,65 +49,63 @@ public class PhotoFolderActivity extends AppCompatActivity implements PhotoFolde
         categoryName = getIntent().getStringExtra("category_name");
         jsonPath = getIntent().getStringExtra("json_path");
         String folderName = getIntent().getStringExtra("folder_name");
+        String folderPath = getIntent().getStringExtra("folder_path");
 
-        Log.d(TAG, "🧭 onCreate route entry | category_name=" + categoryName + " | folder_name=" + folderName + " | json_path=" + jsonPath);
+        Log.d(TAG, "🧭 onCreate route entry | category_name=" + categoryName + " | folder_name=" + folderName + " | folder_path=" + folderPath + " | json_path=" + jsonPath);
 
-        loadFolders(jsonPath, categoryName, folderName);
+        loadFolders(jsonPath, categoryName, folderName, folderPath);
     }
 
-    private void loadFolders(String jsonPath, String categoryName, String folderName) {
-        PhotoData cached = PhotoDataCache.getInstance().getData();
-        if (cached != null) {
-            setupRecycler(cached, categoryName, folderName);
-            return;
-        }
-
+    private void loadFolders(String jsonPath, String categoryName, String folderName, String folderPath) {
         Executors.newSingleThreadExecutor().execute(() -> {
-            PhotoData photoData = null;
-            try (FileInputStream fis = new FileInputStream(new File(jsonPath));
-                 BufferedReader reader = new BufferedReader(new InputStreamReader(fis))) {
-                photoData = new Gson().fromJson(reader, PhotoData.class);
-                PhotoDataCache.getInstance().setData(photoData);
+            CompiledCatalog loaded = null;
+            int current = CompiledCatalog.NO_NODE;
+            try {
+                loaded = CatalogRepository.getInstance(this).getCatalog(new File(jsonPath));
+                if (loaded != null) {
+                    current = loaded.resolveFolder(folderPath, categoryName, folderName);
+                    // The first path lookup builds the O(nodes) path index; keep it off the main thread
+                    loaded.getPath(current);
+                }
             } catch (Exception e) {
                 Log.e(TAG, "Error loading folders", e);
                 runOnUiThread(() ->
                         Snackbar.make(recyclerView, "Failed to load folders", Snackbar.LENGTH_LONG).show());
             }
 
-            PhotoData finalData = photoData;
-            runOnUiThread(() -> setupRecycler(finalData, categoryName, folderName));
+            CompiledCatalog finalCatalog = loaded;
+            int finalCurrent = current;
+            runOnUiThread(() -> setupRecycler(finalCatalog, finalCurrent, categoryName, folderName));
         });
     }
 
-    private void setupRecycler(PhotoData photoData, String categoryName, String folderName) {
+    private void setupRecycler(CompiledCatalog loaded, int current, String categoryName, String folderName) {
+        catalog = loaded;
         folderList.clear();
-        if (photoData != null && photoData.categories != null) {
-            for (PhotoCategory category : photoData.categories) {
-                if (category.name.equals(categoryName)) {
-                    if (folderName == null) {
-                        folderList.addAll(category.folders != null ? category.folders : new ArrayList<>());
-                    } else {
-                        PhotoFolder current = findFolderByName(category.folders, folderName);
-                        if (current == null) {
-                            Snackbar.make(recyclerView, "Folder not found: " + folderName, Snackbar.LENGTH_LONG).show();
-                        } else if (current.folders != null && !current.folders.isEmpty()) {
-                            folderList.addAll(current.folders);
-                            Log.d(TAG, "Loaded subfolder: " + current.name + " with " + folderList.size() + " children");
-                        } else if (current.images != null && !current.images.isEmpty()) {
-                            Intent intent = new Intent(this, PhotoListActivity.class);
-                            intent.putExtra("category_name", categoryName);
-                            intent.putExtra("folder_name", current.name);
-                            intent.putExtra("json_path", jsonPath);
-                            Log.d(TAG, "🧭 Auto route leaf folder -> PhotoListActivity | category_name=" + categoryName + " | folder_name=" + current.name + " | json_path=" + jsonPath);
-                            startActivity(intent);
-                            finish();
-                            return;
-                        } else {
-                            Snackbar.make(recyclerView, "This folder is empty", Snackbar.LENGTH_LONG).show();
-                        }
-                    }
-                    break;
+        folderNodes.clear();
+        if (catalog != null) {
+            if (current == CompiledCatalog.NO_NODE) {
+                Snackbar.make(recyclerView, "Folder not found: " + (folderName != null ? folderName : categoryName), Snackbar.LENGTH_LONG).show();
+            } else if (folderName == null || catalog.getChildCount(current) > 0) {
+                for (int child : catalog.getChildren(current)) {
+                    folderNodes.add(child);
+                    folderList.add(catalog.toFolderStub(child));
                 }
+                if (folderName != null) {
+                    Log.d(TAG, "Loaded subfolder: " + catalog.getName(current) + " with " + folderList.size() + " children");
+                }
+            } else if (catalog.getImageCount(current) > 0) {
+                Intent intent = new Intent(this, PhotoListActivity.class);
+                intent.putExtra("category_name", categoryName);
+                intent.putExtra("folder_name", catalog.getName(current));
+                intent.putExtra("folder_path", catalog.getPath(current));
+                intent.putExtra("json_path", jsonPath);
+                Log.d(TAG, "🧭 Auto route leaf folder -> PhotoListActivity | category_name=" + categoryName + " | folder_name=" + catalog.getName(current) + " | json_path=" + jsonPath);
+                startActivity(intent);
+                finish();
+                return;
+            } else {
+                Snackbar.make(recyclerView, "This folder is empty", Snackbar.LENGTH_LONG).show();
             }
         }
 
@@ -120,16 +116,17 @@ public class PhotoFolderActivity extends AppCompatActivity implements PhotoFolde
 
     private void setupLongPressDownload(PhotoFolderAdapter adapter) {
         adapter.setOnLongClickListener(folderName -> {
-            PhotoFolder folder = findFolderInList(folderName);
-            if (folder != null) {
-                downloadFolderTree(folder);
+            int node = findNodeInList(folderName);
+            if (node != CompiledCatalog.NO_NODE) {
+                // Long-press downloads need the whole subtree, so materialize it on demand
+                downloadFolderTree(catalog.toPhotoFolder(node), catalog.getPath(node));
                 return true;
             }
             return false;
         });
     }
 
-    private void downloadFolderTree(PhotoFolder folder) {
+    private void downloadFolderTree(PhotoFolder folder, String folderPath) {
         if (!NetworkHelper.isWiFiConnected(this)) {
             Snackbar.make(recyclerView, "WiFi connection required for batch downloads", Snackbar.LENGTH_LONG).show();
             return;
@@ -146,34 +143,34 @@ public class PhotoFolderActivity extends AppCompatActivity implements PhotoFolde
         Log.d(TAG, "Images to download: " + totalImages);
         Log.d(TAG, "Download location: " + downloadDir.getAbsolutePath());
 
-        List<Long> downloadIds = new ArrayList<>();
-        enqueueFolderDownloadsRecursive(folder, OfflineResourceManager.ResourceType.PHOTO, downloadIds);
+        int queued = enqueueFolderDownloadsRecursive(folder, folderPath, OfflineResourceManager.ResourceType.PHOTO);
 
-        if (!downloadIds.isEmpty()) {
+        if (queued > 0) {
             Snackbar.make(recyclerView,
-                    "Downloading " + downloadIds.size() + " images from " + folder.name,
+                    "Queued " + queued + " images from " + folder.name,
                     Snackbar.LENGTH_LONG).show();
         } else {
             Snackbar.make(recyclerView, "Failed to start downloads", Snackbar.LENGTH_SHORT).show();
         }
     }
 
-    private void enqueueFolderDownloadsRecursive(PhotoFolder folder,
-                                                 OfflineResourceManager.ResourceType type,
-                                                 List<Long> downloadIds) {
+    private int enqueueFolderDownloadsRecursive(PhotoFolder folder, String folderPath,
+                                                OfflineResourceManager.ResourceType type) {
         if (folder == null) {
-            return;
+            return 0;
         }
 
+        int queued = 0;
         if (folder.images != null && !folder.images.isEmpty()) {
-            downloadIds.addAll(downloadManager.downloadFolder(folder.name, folder.images, type, true));
+            queued += downloadManager.downloadFolder(folder.name, folderPath, folder.images, type, true);
         }
 
         if (folder.folders != null) {
             for (PhotoFolder child : folder.folders) {
-                enqueueFolderDownloadsRecursive(child, type, downloadIds);
+                queued += enqueueFolderDownloadsRecursive(child, CompiledCatalog.childPath(folderPath, child.name), type);
             }
         }
+        return queued;
     }
 
     private int countImagesRecursive(PhotoFolder folder) {
@@ -190,60 +187,46 @@ public class PhotoFolderActivity extends AppCompatActivity implements PhotoFolde
         return total;
     }
 
-    private PhotoFolder findFolderInList(String folderName) {
-        for (PhotoFolder folder : folderList) {
-            if (folder.name.equals(folderName)) {
-                return folder;
+    private int findNodeInList(String folderName) {
+        for (int i = 0; i < folderList.size(); i++) {
+            if (folderList.get(i).name.equals(folderName)) {
+                return folderNodes.get(i);
             }
         }
-        return null;
+        return CompiledCatalog.NO_NODE;
     }
 
     @Override
     public void onFolderClick(String folderName) {
-        PhotoData photoData = PhotoDataCache.getInstance().getData();
-        if (photoData == null) {
+        if (catalog == null) {
             Snackbar.make(recyclerView, "Data not loaded", Snackbar.LENGTH_LONG).show();
             return;
         }
 
-        for (PhotoCategory category : photoData.categories) {
-            if (categoryName.equals(category.name)) {
-                PhotoFolder clicked = findFolderByName(category.folders, folderName);
-                if (clicked == null) {
-                    Snackbar.make(recyclerView, "Folder not found: " + folderName, Snackbar.LENGTH_LONG).show();
-                    return;
-                }
-
-                if (clicked.folders != null && !clicked.folders.isEmpty()) {
-                    Intent intent = new Intent(this, PhotoFolderActivity.class);
-                    intent.putExtra("category_name", categoryName);
-                    intent.putExtra("folder_name", clicked.name);
-                    intent.putExtra("json_path", jsonPath);
-                    Log.d(TAG, "🧭 Click folder -> PhotoFolderActivity | category_name=" + categoryName + " | folder_name=" + clicked.name + " | json_path=" + jsonPath);
-                    startActivity(intent);
-                } else if (clicked.images != null && !clicked.images.isEmpty()) {
-                    Intent intent = new Intent(this, PhotoListActivity.class);
-                    intent.putExtra("category_name", categoryName);
-                    intent.putExtra("folder_name", clicked.name);
-                    intent.putExtra("json_path", jsonPath);
-                    Log.d(TAG, "🧭 Click folder -> PhotoListActivity | category_name=" + categoryName + " | folder_name=" + clicked.name + " | json_path=" + jsonPath);
-                    startActivity(intent);
-                } else {
-                    Snackbar.make(recyclerView, "This folder is empty", Snackbar.LENGTH_LONG).show();
-                }
-                return;
-            }
+        int clicked = findNodeInList(folderName);
+        if (clicked == CompiledCatalog.NO_NODE) {
+            Snackbar.make(recyclerView, "Folder not found: " + folderName, Snackbar.LENGTH_LONG).show();
+            return;
         }
-    }
 
-    private PhotoFolder findFolderByName(List<PhotoFolder> folders, String targetName) {
-        if (folders == null) return null;
-        for (PhotoFolder f : folders) {
-            if (targetName.equals(f.name)) return f;
-            PhotoFolder found = findFolderByName(f.folders, targetName);
-            if (found != null) return found;
+        if (catalog.getChildCount(clicked) > 0) {
+            Intent intent = new Intent(this, PhotoFolderActivity.class);
+            intent.putExtra("category_name", categoryName);
+            intent.putExtra("folder_name", folderName);
+            intent.putExtra("folder_path", catalog.getPath(clicked));
+            intent.putExtra("json_path", jsonPath);
+            Log.d(TAG, "🧭 Click folder -> PhotoFolderActivity | category_name=" + categoryName + " | folder_name=" + folderName + " | json_path=" + jsonPath);
+            startActivity(intent);
+        } else if (catalog.getImageCount(clicked) > 0) {
+            Intent intent = new Intent(this, PhotoListActivity.class);
+            intent.putExtra("category_name", categoryName);
+            intent.putExtra("folder_name", folderName);
+            intent.putExtra("folder_path", catalog.getPath(clicked));
+            intent.putExtra("json_path", jsonPath);
+            Log.d(TAG, "🧭 Click folder -> PhotoListActivity | category_name=" + categoryName + " | folder_name=" + folderName + " | json_path=" + jsonPath);
+            startActivity(intent);
+        } else {
+            Snackbar.make(recyclerView, "This folder is empty", Snackbar.LENGTH_LONG).show();
         }
-        return null;
     }
-}
\ No newline at end of file
+}
@@ -9,18 +9,15 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 import com.example.datadisplay.adapters.PhotoGridAdapter;
-import com.example.datadisplay.models.PhotoCategory;
-import com.example.datadisplay.models.PhotoData;
-import com.example.datadisplay.models.PhotoFolder;
+import com.example.datadisplay.managers.CatalogRepository;
+import com.example.datadisplay.managers.DownloadScheduler;
+import com.example.datadisplay.managers.ImagePrefetchScheduler;
+import com.example.datadisplay.managers.ThumbnailCache;
+import com.example.datadisplay.utils.CompactUrlList;
 import com.google.android.material.snackbar.Snackbar;
-import com.google.gson.Gson;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executors;
@@ -30,16 +27,20 @@ public class PhotoListActivity extends AppCompatActivity implements PhotoGridAda
     private static final String TAG = "PhotoListActivity";
 
     private static final int CHUNK_SIZE = 50;       // load 50 images at a time
-    private static final int PREFETCH_AHEAD = 10;   // prefetch 10 ahead
+    private static final int SPAN_COUNT = 3;
+    private static final int CELL_HEIGHT_DP = 120;
 
-    private final List<String> allImages = new ArrayList<>();
+    private volatile CompactUrlList allImages = CompactUrlList.EMPTY;
     private final List<String> visibleImages = new ArrayList<>();
 
     private PhotoGridAdapter adapter;
     private RecyclerView recyclerView;
     private GridLayoutManager layoutManager;
+    private ImagePrefetchScheduler prefetchScheduler;
 
     private String folderName;
+    private String categoryName;
+    private String folderPath;
     private String jsonPath;
 
     private boolean isLoadingChunk = false;
@@ -51,19 +52,29 @@ public class PhotoListActivity extends AppCompatActivity implements PhotoGridAda
         setContentView(R.layout.activity_photo_list);
 
         recyclerView = findViewById(R.id.photoRecyclerView);
-        layoutManager = new GridLayoutManager(this, 3);
+        layoutManager = new GridLayoutManager(this, SPAN_COUNT);
         recyclerView.setLayoutManager(layoutManager);
 
-        adapter = new PhotoGridAdapter(this, visibleImages, this);
+        // Cells are a third of the screen wide and 120dp tall (item_photo)
+        int cellWidth = getResources().getDisplayMetrics().widthPixels / SPAN_COUNT;
+        int cellHeight = Math.round(CELL_HEIGHT_DP * getResources().getDisplayMetrics().density);
+        ImagePrefetchScheduler.RequestFactory cellRequests =
+                ThumbnailCache.getInstance(this).forCell(cellWidth, cellHeight);
+
+        adapter = new PhotoGridAdapter(this, visibleImages, this, cellRequests);
         recyclerView.setAdapter(adapter);
 
+        // Viewport-aware prefetch with the same cell-sized requests
+        prefetchScheduler = new ImagePrefetchScheduler(recyclerView, layoutManager, cellRequests);
+
         folderName = getIntent().getStringExtra("folder_name");
-        String categoryName = getIntent().getStringExtra("category_name");
+        categoryName = getIntent().getStringExtra("category_name");
+        folderPath = getIntent().getStringExtra("folder_path");
         jsonPath   = getIntent().getStringExtra("json_path");
 
-        Log.d(TAG, "🧭 onCreate route entry | category_name=" + categoryName + " | folder_name=" + folderName + " | json_path=" + jsonPath);
+        Log.d(TAG, "🧭 onCreate route entry | category_name=" + categoryName + " | folder_name=" + folderName + " | folder_path=" + folderPath + " | json_path=" + jsonPath);
 
-        loadImagesFromJson(jsonPath, folderName);
+        loadImagesFromJson(jsonPath, categoryName, folderName, folderPath);
 
         // Infinite scroll listener for chunked loading
         recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
@@ -77,43 +88,27 @@ public class PhotoListActivity extends AppCompatActivity implements PhotoGridAda
                 if (!isLoadingChunk && lastVisible >= visibleImages.size() - 10) {
                     loadNextChunk();
                 }
-
-                // Prefetch ahead
-                int prefetchEnd = Math.min(allImages.size() - 1, lastVisible + PREFETCH_AHEAD);
-                for (int i = lastVisible + 1; i <= prefetchEnd; i++) {
-                    Glide.with(PhotoListActivity.this)
-                            .load(allImages.get(i))
-                            .preload();
-                }
             }
         });
     }
 
-    private void loadImagesFromJson(String jsonPath, String folderName) {
+    private void loadImagesFromJson(String jsonPath, String categoryName, String folderName, String folderPath) {
         Executors.newSingleThreadExecutor().execute(() -> {
-            try (FileInputStream fis = new FileInputStream(new File(jsonPath));
-                 BufferedReader reader = new BufferedReader(new InputStreamReader(fis))) {
-
-                PhotoData photoData = new Gson().fromJson(reader, PhotoData.class);
-
-                if (photoData != null && photoData.categories != null) {
-                    for (PhotoCategory category : photoData.categories) {
-                        PhotoFolder folder = findFolderByName(category.folders, folderName);
-                        if (folder != null && folder.images != null) {
-                            allImages.clear();
-                            allImages.addAll(folder.images);
-                            Log.d(TAG, "Loaded folder: " + folder.name + " with " + folder.images.size() + " images");
-                            break;
-                        }
-                    }
-                }
+            try {
+                CompactUrlList images = CatalogRepository.getInstance(this)
+                        .getFolderImages(new File(jsonPath), folderPath, categoryName, folderName);
+                allImages = images;
+                Log.d(TAG, "Loaded folder: " + folderName + " with " + images.size() + " images");
             } catch (Exception e) {
                 Log.e(TAG, "Error loading images from JSON", e);
                 runOnUiThread(() ->
                         Snackbar.make(recyclerView, "Failed to load images", Snackbar.LENGTH_LONG).show());
             }
 
-            runOnUiThread(this::loadNextChunk);
+            runOnUiThread(() -> {
+                prefetchScheduler.setUrls(allImages);
+                loadNextChunk();
+            });
         });
     }
 
@@ -135,19 +130,33 @@ public class PhotoListActivity extends AppCompatActivity implements PhotoGridAda
     @Override
     public void onItemClick(int position) {
         Intent intent = new Intent(PhotoListActivity.this, ImagePagerActivity.class);
-        intent.putStringArrayListExtra("image_urls", new ArrayList<>(allImages));
+        // Hand off the folder by catalog handle; the pager fetches the shared list from CatalogRepository
+        intent.putExtra("json_path", jsonPath);
+        intent.putExtra("folder_path", folderPath);
+        intent.putExtra("category_name", categoryName);
+        intent.putExtra("folder_name", folderName);
         intent.putExtra("start_position", position);
         Log.d(TAG, "🧭 Click image -> ImagePagerActivity | position=" + position + " | total_images=" + allImages.size());
         startActivity(intent);
     }
 
-    private PhotoFolder findFolderByName(List<PhotoFolder> folders, String targetName) {
-        if (folders == null) return null;
-        for (PhotoFolder f : folders) {
-            if (targetName.equals(f.name)) return f;
-            PhotoFolder found = findFolderByName(f.folders, targetName);
-            if (found != null) return found;
-        }
-        return null;
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Offline downloads of the folder on screen jump the queue
+        DownloadScheduler.getInstance(this).setViewingGroup(folderPath);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        DownloadScheduler.getInstance(this).clearViewingGroup(folderPath);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        prefetchScheduler.logMetrics();
+        prefetchScheduler.cancelAll();
     }
-}
\ No newline at end of file
+}
@@ -10,6 +10,7 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.datadisplay.adapters.RadioCategoryAdapter;
+import com.example.datadisplay.utils.CatalogStreams;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -20,7 +21,6 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
@@ -45,7 +45,7 @@ public class RadioCategoryActivity extends AppCompatActivity implements RadioCat
         String json = null;
 
         if (jsonPath != null) {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(jsonPath), StandardCharsets.UTF_8))) {
+            try (BufferedReader reader = new BufferedReader(CatalogStreams.openReader(new File(jsonPath)))) {
                 StringBuilder sb = new StringBuilder();
                 String line;
                 while ((line = reader.readLine()) != null) {
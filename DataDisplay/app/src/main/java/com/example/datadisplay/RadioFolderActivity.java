@@ -10,14 +10,14 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.datadisplay.adapters.RadioFolderAdapter;
+import com.example.datadisplay.utils.CatalogStreams;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.File;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -45,7 +45,15 @@ public class RadioFolderActivity extends AppCompatActivity implements RadioFolde
 
         if (jsonPath != null) {
             try {
-                String json = new String(Files.readAllBytes(new File(jsonPath).toPath()), StandardCharsets.UTF_8);
+                StringBuilder sb = new StringBuilder();
+                try (Reader reader = CatalogStreams.openReader(new File(jsonPath))) {
+                    char[] buffer = new char[8192];
+                    int read;
+                    while ((read = reader.read(buffer)) != -1) {
+                        sb.append(buffer, 0, read);
+                    }
+                }
+                String json = sb.toString();
                 JSONObject jsonData = new JSONObject(json);
                 JSONArray categories = jsonData.getJSONArray("categories");
 
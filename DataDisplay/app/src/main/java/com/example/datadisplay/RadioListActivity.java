@@ -10,19 +10,17 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.datadisplay.adapters.RadioFileAdapter;
+import com.example.datadisplay.managers.CatalogRepository;
 import com.example.datadisplay.managers.OfflineDownloadManager;
 import com.example.datadisplay.managers.OfflineResourceManager;
 import com.example.datadisplay.managers.OfflineResourceManager.ResourceType;
+import com.example.datadisplay.utils.CompiledCatalog;
 import com.example.datadisplay.utils.NetworkHelper;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-
 import java.io.File;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executors;
 
 public class RadioListActivity extends AppCompatActivity {
 
@@ -54,60 +52,9 @@ public class RadioListActivity extends AppCompatActivity {
         downloadManager = new OfflineDownloadManager(this);
         resourceManager = new OfflineResourceManager(this);
 
-        if (jsonPath != null) {
-            try {
-                String json = new String(Files.readAllBytes(new File(jsonPath).toPath()), StandardCharsets.UTF_8);
-                JSONObject jsonData = new JSONObject(json);
-                JSONArray categories = jsonData.getJSONArray("categories");
-                
-                Log.d(TAG, "Looking for category: " + categoryName + ", folder: " + folderName);
-
-                for (int i = 0; i < categories.length(); i++) {
-                    JSONObject cat = categories.getJSONObject(i);
-                    String currentCategoryName = cat.getString("name");
-                    Log.d(TAG, "Checking category: " + currentCategoryName);
-                    
-                    if (currentCategoryName.equals(categoryName)) {
-                        JSONArray folders = cat.getJSONArray("folders");
-                        Log.d(TAG, "Found category, folders count: " + folders.length());
-                        
-                        for (int j = 0; j < folders.length(); j++) {
-                            JSONObject folder = folders.getJSONObject(j);
-                            String currentFolderName = folder.getString("name");
-                            Log.d(TAG, "Checking folder: " + currentFolderName);
-                            
-                            if (currentFolderName.equals(folderName)) {
-                                JSONArray files = folder.getJSONArray("files");
-                                Log.d(TAG, "Found folder, files count: " + files.length());
-                                
-                                for (int k = 0; k < files.length(); k++) {
-                                    JSONObject fileObj = files.getJSONObject(k);
-                                    String title = fileObj.getString("title");
-                                    String path = fileObj.getString("path");
-                                    titles.add(title);
-                                    urls.add(path);
-                                    Log.d(TAG, "Loaded: " + title + " → " + path);
-                                }
-                                break;
-                            }
-                        }
-                        break;
-                    }
-                }
-                
-                Log.d(TAG, "Total files loaded: " + titles.size());
-                if (titles.isEmpty()) {
-                    Log.w(TAG, "WARNING: No files loaded! Category: " + categoryName + ", Folder: " + folderName);
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error loading files", e);
-                e.printStackTrace();
-                Toast.makeText(this, "Error loading files: " + e.getMessage(), Toast.LENGTH_LONG).show();
-            }
-        }
-
         RadioFileAdapter adapter = new RadioFileAdapter(this, titles);
         listView.setAdapter(adapter);
+        loadFiles(adapter);
 
         listView.setOnItemClickListener((parent, view, position, id) -> {
             if (position >= 0 && position < titles.size() && position < urls.size()) {
@@ -132,6 +79,66 @@ public class RadioListActivity extends AppCompatActivity {
         });
     }
 
+    private void loadFiles(RadioFileAdapter adapter) {
+        if (jsonPath == null) {
+            return;
+        }
+        Executors.newSingleThreadExecutor().execute(() -> {
+            List<String> loadedTitles = new ArrayList<>();
+            List<String> loadedUrls = new ArrayList<>();
+            try {
+                CompiledCatalog catalog = CatalogRepository.getInstance(this).getCatalog(new File(jsonPath));
+
+                Log.d(TAG, "Looking for category: " + categoryName + ", folder: " + folderName);
+
+                int folder = catalog.findPath(categoryName, folderName);
+                if (folder != CompiledCatalog.NO_NODE) {
+                    List<String> folderTitles = catalog.getFileTitles(folder);
+                    List<String> folderUrls = catalog.getFilePaths(folder);
+                    for (int i = 0; i < folderTitles.size(); i++) {
+                        String url = folderUrls.get(i);
+                        loadedTitles.add(displayTitle(folderTitles.get(i), url));
+                        loadedUrls.add(url);
+                    }
+                    Log.d(TAG, "Found folder, files count: " + loadedTitles.size());
+                }
+
+                Log.d(TAG, "Total files loaded: " + loadedTitles.size());
+                if (loadedTitles.isEmpty()) {
+                    Log.w(TAG, "WARNING: No files loaded! Category: " + categoryName + ", Folder: " + folderName);
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading files", e);
+                runOnUiThread(() ->
+                        Toast.makeText(this, "Error loading files: " + e.getMessage(), Toast.LENGTH_LONG).show());
+            }
+
+            runOnUiThread(() -> {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
+                titles.clear();
+                titles.addAll(loadedTitles);
+                urls.clear();
+                urls.addAll(loadedUrls);
+                adapter.notifyDataSetChanged();
+            });
+        });
+    }
+
+    // Entries without a name show their file name, or the whole URL when it has none (e.g. Drive links)
+    private static String displayTitle(String title, String url) {
+        if (title != null && !title.trim().isEmpty()) {
+            return title;
+        }
+        if (url == null) {
+            return "Unknown";
+        }
+        String path = url.contains("?") ? url.substring(0, url.indexOf('?')) : url;
+        String filename = path.substring(path.lastIndexOf('/') + 1);
+        return filename.contains(".") ? filename : url;
+    }
+
     private void downloadAudioFile(String url, String title) {
         if (resourceManager.isAvailableOffline(url)) {
             Toast.makeText(this, "Already downloaded: " + title, Toast.LENGTH_SHORT).show();
@@ -148,9 +155,7 @@ public class RadioListActivity extends AppCompatActivity {
         Log.d(TAG, "URL: " + url);
         Log.d(TAG, "Download location: " + downloadDir.getAbsolutePath());
 
-        long downloadId = downloadManager.downloadResource(url, title, ResourceType.AUDIO, true);
-
-        if (downloadId != -1) {
+        if (downloadManager.downloadResource(url, title, ResourceType.AUDIO, true)) {
             Toast.makeText(this, "Download started: " + title, Toast.LENGTH_SHORT).show();
         } else {
             Toast.makeText(this, "Failed to start download", Toast.LENGTH_SHORT).show();
@@ -22,6 +22,8 @@ import android.support.v4.media.MediaMetadataCompat;
 import android.support.v4.media.session.MediaSessionCompat;
 import android.support.v4.media.session.PlaybackStateCompat;
 
+import com.example.datadisplay.managers.HttpClientManager;
+
 import java.util.List;
 import java.util.Random;
 
@@ -42,6 +44,9 @@ public class RadioPlaybackService extends Service {
 
     private String currentTitle;
 
+    // Incremented per playTrack call so a slow redirect resolution cannot start a stale track
+    private int playRequest = 0;
+
     public static final String ACTION_PLAY = "ACTION_PLAY";
     public static final String ACTION_PAUSE = "ACTION_PAUSE";
     public static final String ACTION_SHUFFLE = "ACTION_SHUFFLE";
@@ -388,6 +393,18 @@ public class RadioPlaybackService extends Service {
 
 
     private void playTrack(String url) {
+        // Drive links redirect; resolve once through the shared client (cached per link) so
+        // MediaPlayer starts on the direct URL and replays skip the redirect hop
+        int request = ++playRequest;
+        HttpClientManager.getInstance(this).resolveDirectUrlAsync(url, resolved ->
+                progressHandler.post(() -> {
+                    if (request == playRequest) {
+                        startTrack(url, resolved);
+                    }
+                }));
+    }
+
+    private void startTrack(String url, String dataSourceUrl) {
         try {
             if (mediaPlayer != null) {
                 mediaPlayer.reset();
@@ -395,7 +412,7 @@ public class RadioPlaybackService extends Service {
                 mediaPlayer = new MediaPlayer();
             }
 
-            mediaPlayer.setDataSource(url);
+            mediaPlayer.setDataSource(dataSourceUrl);
             mediaPlayer.setOnPreparedListener(mp -> {
                 mp.start();
                 broadcastStatus(true);
@@ -518,6 +535,7 @@ public class RadioPlaybackService extends Service {
 
     @Override
     public void onDestroy() {
+        playRequest++;
         if (mediaPlayer != null) {
             mediaPlayer.release();
             mediaPlayer = null;
@@ -13,12 +13,13 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 import com.bumptech.glide.request.target.CustomTarget;
 import com.bumptech.glide.request.transition.Transition;
 import com.davemorrissey.labs.subscaleview.ImageSource;
 import com.davemorrissey.labs.subscaleview.SubsamplingScaleImageView;
 import com.example.datadisplay.R;
+import com.example.datadisplay.managers.ImageLoader;
+import com.example.datadisplay.managers.ImagePrefetchScheduler;
 
 import java.io.File;
 import java.util.List;
@@ -31,13 +32,24 @@ public class ComicGridAdapter extends RecyclerView.Adapter<ComicGridAdapter.Comi
     }
 
     private final Context context;
-    private final List<String> imageUrls;
+    private List<String> imageUrls;
     private final OnItemClickListener listener;
+    private final ImagePrefetchScheduler.RequestFactory cellRequests;
 
-    public ComicGridAdapter(Context context, List<String> imageUrls, OnItemClickListener listener) {
+    /**
+     * @param cellRequests cell-sized thumbnail requests, shared with the grid's prefetch scheduler
+     */
+    public ComicGridAdapter(Context context, List<String> imageUrls, OnItemClickListener listener,
+                            ImagePrefetchScheduler.RequestFactory cellRequests) {
         this.context = context;
         this.imageUrls = imageUrls;
         this.listener = listener;
+        this.cellRequests = cellRequests;
+    }
+
+    public void setImageUrls(List<String> imageUrls) {
+        this.imageUrls = imageUrls;
+        notifyDataSetChanged();
     }
 
     @NonNull
@@ -52,11 +64,9 @@ public class ComicGridAdapter extends RecyclerView.Adapter<ComicGridAdapter.Comi
     public void onBindViewHolder(@NonNull ComicViewHolder holder, int position) {
         String imageUrl = imageUrls.get(position);
 
-        Glide.with(context)
-                .load(imageUrl)
-                .placeholder(R.drawable.outline_error_24) // optional
-                .error(R.drawable.outline_error_24)       // optional
-                .into(holder.imageView);
+        // Thumbnail tier: decoded at cell size, never the full original
+        ImageLoader.loadCell(holder.imageView, cellRequests, imageUrl,
+                R.drawable.outline_error_24, R.drawable.outline_error_24);
 
         holder.itemView.setOnClickListener(v -> {
             if (listener != null) {
@@ -2,6 +2,7 @@ package com.example.datadisplay.adapters;
 
 import android.app.Activity;
 import android.content.Context;
+import android.net.Uri;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -9,16 +10,30 @@ import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
-import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.davemorrissey.labs.subscaleview.ImageSource;
+import com.davemorrissey.labs.subscaleview.SubsamplingScaleImageView;
 import com.example.datadisplay.R;
-import com.github.chrisbanes.photoview.OnViewTapListener;
-import com.github.chrisbanes.photoview.PhotoView;
+import com.example.datadisplay.managers.ImageLoader;
 
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
+/**
+ * Full-screen pager that renders pages through SubsamplingScaleImageView.
+ * <p>
+ * Each page is fetched as a file via the shared disk cache and decoded with a region decoder, so
+ * only the tiles visible at the current zoom are in memory; a 1080×20000 webtoon page costs
+ * about one screen of pixels instead of a full bitmap.
+ */
 public class ImagePagerAdapter extends RecyclerView.Adapter<ImagePagerAdapter.ViewHolder> {
 
+    // Pages this many times taller than wide are webtoon strips and open fitted to width
+    private static final float TALL_PAGE_RATIO = 2.5f;
+    // Tiles decode in parallel rather than on SSIV's default serial executor; shared by all pagers
+    private static final Executor TILE_EXECUTOR = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors() - 1));
+
     private final List<String> imageUrls;
     private final Context context;
 
@@ -38,37 +53,58 @@ public class ImagePagerAdapter extends RecyclerView.Adapter<ImagePagerAdapter.Vi
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         String url = imageUrls.get(position);
+        SubsamplingScaleImageView imageView = holder.imageView;
+        // A rebind without a recycle still has the previous page's download running
+        ImageLoader.cancel(imageView, holder.request);
+        holder.request = null;
+        imageView.recycle();
+        imageView.setMinimumScaleType(SubsamplingScaleImageView.SCALE_TYPE_CENTER_INSIDE);
 
-        // Load with Glide: quick thumbnail first, then full image
-        Glide.with(context)
-                .load(url)
-                .thumbnail(0.25f) // low-res preview for instant feel
-                .diskCacheStrategy(DiskCacheStrategy.ALL) // cache original + resized
-                .into(holder.photoView);
+        // Download (or reuse) the original file, then let SSIV tile it
+        holder.request = ImageLoader.loadFile(imageView, url,
+                file -> imageView.setImage(ImageSource.uri(Uri.fromFile(file)).tilingEnabled()));
 
         // Tap anywhere on the view to exit
-        holder.photoView.setOnViewTapListener(new OnViewTapListener() {
-            @Override
-            public void onViewTap(View view, float x, float y) {
-                if (context instanceof Activity) {
-                    ((Activity) context).finish();
-                }
+        imageView.setOnClickListener(v -> {
+            if (context instanceof Activity) {
+                ((Activity) context).finish();
             }
         });
     }
 
+    @Override
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        super.onViewRecycled(holder);
+        // Release the page's tiles and cancel its download when it leaves the pager
+        ImageLoader.cancel(holder.imageView, holder.request);
+        holder.request = null;
+        holder.imageView.recycle();
+    }
+
     @Override
     public int getItemCount() {
         return imageUrls.size();
     }
 
     public static class ViewHolder extends RecyclerView.ViewHolder {
-        PhotoView photoView;
+        SubsamplingScaleImageView imageView;
+        ImageLoader.FileRequest request;
 
         public ViewHolder(@NonNull View itemView) {
             super(itemView);
-            // Ensure item_full_screen_image.xml contains a PhotoView with this ID
-            photoView = itemView.findViewById(R.id.fullScreenImage);
+            imageView = itemView.findViewById(R.id.fullScreenImage);
+            imageView.setExecutor(TILE_EXECUTOR);
+            imageView.setDoubleTapZoomStyle(SubsamplingScaleImageView.ZOOM_FOCUS_CENTER);
+            imageView.setOnImageEventListener(new SubsamplingScaleImageView.DefaultOnImageEventListener() {
+                @Override
+                public void onReady() {
+                    // Fit tall strips to width instead of shrinking them into a sliver
+                    if (imageView.getSHeight() > imageView.getSWidth() * TALL_PAGE_RATIO) {
+                        imageView.setMinimumScaleType(SubsamplingScaleImageView.SCALE_TYPE_START);
+                        imageView.resetScaleAndCenter();
+                    }
+                }
+            });
         }
     }
 }
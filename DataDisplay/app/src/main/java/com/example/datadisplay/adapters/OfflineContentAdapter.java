@@ -11,8 +11,8 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 import com.example.datadisplay.R;
+import com.example.datadisplay.managers.ImageLoader;
 import com.example.datadisplay.managers.OfflineResourceManager;
 import com.example.datadisplay.managers.OfflineResourceManager.ResourceType;
 
@@ -74,11 +74,7 @@ public class OfflineContentAdapter extends RecyclerView.Adapter<OfflineContentAd
             if (item.type == ResourceType.AUDIO) {
                 holder.thumbnail.setImageResource(R.drawable.ic_mp3);
             } else {
-                Glide.with(context)
-                        .load(file)
-                        .placeholder(R.drawable.ic_photos)
-                        .centerCrop()
-                        .into(holder.thumbnail);
+                ImageLoader.loadThumbnail(holder.thumbnail, file, R.drawable.ic_photos);
             }
         }
 
@@ -6,8 +6,8 @@ import android.view.ViewGroup;
 import android.widget.ImageView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
-import com.bumptech.glide.Glide;
 import com.example.datadisplay.R;
+import com.example.datadisplay.managers.ImageLoader;
 
 import java.util.List;
 
@@ -28,9 +28,7 @@ public class PhotoAdapter extends RecyclerView.Adapter<PhotoAdapter.PhotoViewHol
 
     @Override
     public void onBindViewHolder(@NonNull PhotoViewHolder holder, int position) {
-        Glide.with(holder.imageView.getContext())
-                .load(imageUrls.get(position))
-                .into(holder.imageView);
+        ImageLoader.load(holder.imageView, imageUrls.get(position));
     }
 
     @Override
@@ -9,9 +9,9 @@ import android.widget.ImageView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
-import com.bumptech.glide.load.engine.DiskCacheStrategy;
 import com.example.datadisplay.R;
+import com.example.datadisplay.managers.ImageLoader;
+import com.example.datadisplay.managers.ImagePrefetchScheduler;
 
 import java.util.List;
 
@@ -20,15 +20,21 @@ public class PhotoGridAdapter extends RecyclerView.Adapter<PhotoGridAdapter.Phot
     private final Context context;
     private final List<String> imageUrls;
     private final OnItemClickListener listener;
+    private final ImagePrefetchScheduler.RequestFactory cellRequests;
 
     public interface OnItemClickListener {
         void onItemClick(int position);
     }
 
-    public PhotoGridAdapter(Context context, List<String> imageUrls, OnItemClickListener listener) {
+    /**
+     * @param cellRequests cell-sized thumbnail requests, shared with the grid's prefetch scheduler
+     */
+    public PhotoGridAdapter(Context context, List<String> imageUrls, OnItemClickListener listener,
+                            ImagePrefetchScheduler.RequestFactory cellRequests) {
         this.context = context;
         this.imageUrls = imageUrls;
         this.listener = listener;
+        this.cellRequests = cellRequests;
     }
 
     @NonNull
@@ -43,21 +49,9 @@ public class PhotoGridAdapter extends RecyclerView.Adapter<PhotoGridAdapter.Phot
     public void onBindViewHolder(@NonNull PhotoViewHolder holder, int position) {
         String imageUrl = imageUrls.get(position);
 
-        // Load thumbnail quickly, then swap in full image
-        Glide.with(context)
-                .load(imageUrl)
-                .thumbnail(0.25f) // load a 25% size first for instant feel
-                .placeholder(R.drawable.outline_error_24)
-                .error(R.drawable.outline_error_24)
-                .centerCrop()
-                .diskCacheStrategy(DiskCacheStrategy.ALL) // cache both original & resized
-                .into(holder.imageView);
-
-        // Preload the image into cache for smoother full-screen viewing
-        Glide.with(context)
-                .load(imageUrl)
-                .diskCacheStrategy(DiskCacheStrategy.ALL)
-                .preload();
+        // Thumbnail tier: decoded at cell size, never the full original
+        ImageLoader.loadCell(holder.imageView, cellRequests, imageUrl,
+                R.drawable.outline_error_24, R.drawable.outline_error_24);
 
         // Handle click
         holder.itemView.setOnClickListener(v -> {
@@ -6,8 +6,8 @@ import android.view.ViewGroup;
 import android.widget.ImageView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
-import com.bumptech.glide.Glide;
 import com.example.datadisplay.R;
+import com.example.datadisplay.managers.ImageLoader;
 import java.util.List;
 
 public class PhotoPagerAdapter extends RecyclerView.Adapter<PhotoPagerAdapter.PhotoViewHolder> {
@@ -27,9 +27,7 @@ public class PhotoPagerAdapter extends RecyclerView.Adapter<PhotoPagerAdapter.Ph
 
     @Override
     public void onBindViewHolder(@NonNull PhotoViewHolder holder, int position) {
-        Glide.with(holder.imageView.getContext())
-                .load(imageUrls.get(position))
-                .into(holder.imageView);
+        ImageLoader.load(holder.imageView, imageUrls.get(position));
     }
 
     @Override
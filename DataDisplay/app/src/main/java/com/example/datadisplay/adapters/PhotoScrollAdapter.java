@@ -6,8 +6,8 @@ import android.view.ViewGroup;
 import android.widget.ImageView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
-import com.bumptech.glide.Glide;
 import com.example.datadisplay.R;
+import com.example.datadisplay.managers.ImageLoader;
 import java.util.List;
 
 public class PhotoScrollAdapter extends RecyclerView.Adapter<PhotoScrollAdapter.PhotoViewHolder> {
@@ -27,10 +27,7 @@ public class PhotoScrollAdapter extends RecyclerView.Adapter<PhotoScrollAdapter.
 
     @Override
     public void onBindViewHolder(@NonNull PhotoViewHolder holder, int position) {
-        Glide.with(holder.imageView.getContext())
-                .load(imageUrls.get(position))
-                .fitCenter()
-                .into(holder.imageView);
+        ImageLoader.loadFit(holder.imageView, imageUrls.get(position));
     }
 
     @Override
@@ -0,0 +1,155 @@
+package com.example.datadisplay.adapters;
+
+import android.graphics.Typeface;
+import android.text.Spannable;
+import android.text.SpannableString;
+import android.text.style.ForegroundColorSpan;
+import android.text.style.StyleSpan;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.datadisplay.Article;
+import com.example.datadisplay.R;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Recycled list of global search hits. Updates are diffed on a background thread so
+ * filter toggles and streamed partial results only touch the rows that changed.
+ */
+public class SearchResultAdapter extends ListAdapter<Article, SearchResultAdapter.ResultViewHolder> {
+
+    private static final Object PAYLOAD_HIGHLIGHT = new Object();
+
+    private final OnResultClickListener listener;
+    private String highlightQuery = "";
+
+    public interface OnResultClickListener {
+        void onResultClick(Article result, int displayIndex, int totalCount);
+    }
+
+    public SearchResultAdapter(OnResultClickListener listener) {
+        super(DIFF_CALLBACK);
+        this.listener = listener;
+    }
+
+    /**
+     * Submits a new result list; rows that survive the diff are re-highlighted when the query changed.
+     */
+    public void submitResults(List<Article> results, String query) {
+        String safeQuery = query == null ? "" : query;
+        boolean queryChanged = !safeQuery.equals(highlightQuery);
+        highlightQuery = safeQuery;
+        submitList(results, () -> {
+            if (queryChanged) {
+                notifyItemRangeChanged(0, getItemCount(), PAYLOAD_HIGHLIGHT);
+            }
+        });
+    }
+
+    @NonNull
+    @Override
+    public ResultViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_search_result, parent, false);
+        return new ResultViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ResultViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(PAYLOAD_HIGHLIGHT)) {
+            holder.titleText.setText(buildHighlightedTitle(holder, getItem(position).title));
+            return;
+        }
+        super.onBindViewHolder(holder, position, payloads);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ResultViewHolder holder, int position) {
+        Article result = getItem(position);
+        holder.titleText.setText(buildHighlightedTitle(holder, result.title));
+        holder.typeText.setText("類型: " + result.type);
+
+        holder.itemView.setOnClickListener(v -> {
+            int adapterPosition = holder.getBindingAdapterPosition();
+            if (adapterPosition == RecyclerView.NO_POSITION || listener == null) {
+                return;
+            }
+            listener.onResultClick(getItem(adapterPosition), adapterPosition + 1, getItemCount());
+        });
+    }
+
+    private CharSequence buildHighlightedTitle(ResultViewHolder holder, String title) {
+        String safeTitle = title == null ? "" : title;
+        if (safeTitle.isEmpty() || highlightQuery.trim().isEmpty()) {
+            return safeTitle;
+        }
+
+        String lowerTitle = safeTitle.toLowerCase(Locale.ROOT);
+        String[] queryKeywords = highlightQuery.toLowerCase(Locale.ROOT).split("\\s+");
+        SpannableString highlightedTitle = new SpannableString(safeTitle);
+        int highlightColor = ContextCompat.getColor(holder.itemView.getContext(), android.R.color.holo_blue_dark);
+        boolean hasMatch = false;
+
+        for (String keyword : queryKeywords) {
+            if (keyword.isEmpty()) {
+                continue;
+            }
+
+            int searchStart = 0;
+            while (searchStart < lowerTitle.length()) {
+                int matchedIndex = lowerTitle.indexOf(keyword, searchStart);
+                if (matchedIndex < 0) {
+                    break;
+                }
+
+                int matchedEnd = matchedIndex + keyword.length();
+                highlightedTitle.setSpan(new ForegroundColorSpan(highlightColor),
+                        matchedIndex, matchedEnd, Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
+                highlightedTitle.setSpan(new StyleSpan(Typeface.BOLD),
+                        matchedIndex, matchedEnd, Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
+                hasMatch = true;
+                searchStart = matchedEnd;
+            }
+        }
+
+        return hasMatch ? highlightedTitle : safeTitle;
+    }
+
+    private static final DiffUtil.ItemCallback<Article> DIFF_CALLBACK = new DiffUtil.ItemCallback<Article>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Article oldItem, @NonNull Article newItem) {
+            return Objects.equals(oldItem.filename, newItem.filename)
+                    && Objects.equals(oldItem.type, newItem.type)
+                    && Objects.equals(oldItem.category, newItem.category)
+                    && Objects.equals(oldItem.folder, newItem.folder)
+                    && Objects.equals(oldItem.itemName, newItem.itemName);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Article oldItem, @NonNull Article newItem) {
+            return Objects.equals(oldItem.title, newItem.title);
+        }
+    };
+
+    static class ResultViewHolder extends RecyclerView.ViewHolder {
+        TextView titleText;
+        TextView typeText;
+
+        ResultViewHolder(View itemView) {
+            super(itemView);
+            titleText = itemView.findViewById(R.id.searchResultTitle);
+            typeText = itemView.findViewById(R.id.searchResultType);
+        }
+    }
+}
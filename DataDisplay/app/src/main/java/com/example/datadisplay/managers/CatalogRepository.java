@@ -0,0 +1,208 @@
+package com.example.datadisplay.managers;
+
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.util.Log;
+
+import com.example.datadisplay.utils.CatalogCompiler;
+import com.example.datadisplay.utils.CompactUrlList;
+import com.example.datadisplay.utils.CompiledCatalog;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide owner of opened catalogs, shared by every browsing screen.
+ * <p>
+ * Entries are keyed by absolute path and validated against the source file's size and mtime,
+ * so drilling category → folder → list opens each catalog once. The cache is an LRU bounded by
+ * the catalogs' mapped size (scaled from the device memory class) and shrinks on
+ * {@code onTrimMemory}.
+ */
+public class CatalogRepository implements ComponentCallbacks2 {
+
+    private static final String TAG = "CatalogRepository";
+    private static final int MEMORY_CLASS_DIVISOR = 8;
+
+    private static CatalogRepository instance;
+
+    private final Context appContext;
+    private final long maxCacheBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(8, 0.75f, true);
+    private long cachedBytes = 0;
+    private int hitCount = 0;
+    private int missCount = 0;
+
+    // Most recently resolved folder, shared by a list screen and the viewer it opens
+    private String lastImagesKey;
+    private CompiledCatalog lastImagesCatalog;
+    private CompactUrlList lastImages;
+
+    private CatalogRepository(Context context) {
+        this.appContext = context.getApplicationContext();
+        ActivityManager activityManager = (ActivityManager) appContext.getSystemService(Context.ACTIVITY_SERVICE);
+        int memoryClassMb = activityManager != null ? activityManager.getMemoryClass() : 64;
+        this.maxCacheBytes = (long) memoryClassMb * 1024 * 1024 / MEMORY_CLASS_DIVISOR;
+        appContext.registerComponentCallbacks(this);
+    }
+
+    public static synchronized CatalogRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new CatalogRepository(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the shared catalog for a JSON file, opening (and compiling) it on a miss.
+     * May block on first use after a download, so call from a background thread when possible.
+     */
+    public CompiledCatalog getCatalog(File source) throws IOException {
+        String key = source.getAbsolutePath();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.matches(source)) {
+                hitCount++;
+                return entry.catalog;
+            }
+            if (entry != null) {
+                remove(key);
+                Log.d(TAG, "♻️ Source changed, dropping cached " + source.getName());
+            }
+        }
+
+        CompiledCatalog catalog = CatalogCompiler.open(appContext, source);
+
+        synchronized (this) {
+            missCount++;
+            Entry existing = entries.get(key);
+            if (existing != null && existing.matches(source)) {
+                return existing.catalog;
+            }
+            if (existing != null) {
+                remove(key);
+            }
+            entries.put(key, new Entry(catalog, source.length(), source.lastModified()));
+            cachedBytes += catalog.getByteSize();
+            trimTo(maxCacheBytes);
+            Log.d(TAG, "📦 Cached " + source.getName() + " | " + getStatsSummary());
+        }
+        return catalog;
+    }
+
+    /**
+     * Resolves a folder's image list by catalog handle (source file plus folder path/names), so
+     * screens can hand off a folder without passing its URLs through Intent extras. The most
+     * recent result is kept, making the lookup from the next screen a cache hit.
+     */
+    public CompactUrlList getFolderImages(File source, String folderPath, String categoryName, String folderName)
+            throws IOException {
+        String key = source.getAbsolutePath() + '\n' + folderPath + '\n' + categoryName + '\n' + folderName;
+        CompiledCatalog catalog = getCatalog(source);
+        synchronized (this) {
+            if (key.equals(lastImagesKey) && catalog == lastImagesCatalog) {
+                return lastImages;
+            }
+        }
+
+        int folder = catalog.resolveFolder(folderPath, categoryName, folderName);
+        CompactUrlList images = folder != CompiledCatalog.NO_NODE
+                ? CompactUrlList.copyOf(catalog.getImages(folder))
+                : CompactUrlList.EMPTY;
+
+        synchronized (this) {
+            lastImagesKey = key;
+            lastImagesCatalog = catalog;
+            lastImages = images;
+        }
+        return images;
+    }
+
+    /**
+     * Returns the catalog only if it is already cached and up to date.
+     */
+    public synchronized CompiledCatalog peekCatalog(File source) {
+        Entry entry = entries.get(source.getAbsolutePath());
+        return entry != null && entry.matches(source) ? entry.catalog : null;
+    }
+
+    public synchronized void invalidate(File source) {
+        remove(source.getAbsolutePath());
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        cachedBytes = 0;
+        lastImagesKey = null;
+        lastImagesCatalog = null;
+        lastImages = null;
+    }
+
+    public synchronized String getStatsSummary() {
+        return "entries=" + entries.size()
+                + " | bytes=" + cachedBytes + "/" + maxCacheBytes
+                + " | hits=" + hitCount
+                + " | misses=" + missCount;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        synchronized (this) {
+            if (level >= TRIM_MEMORY_MODERATE) {
+                clear();
+            } else if (level >= TRIM_MEMORY_RUNNING_LOW || level == TRIM_MEMORY_UI_HIDDEN) {
+                trimTo(maxCacheBytes / 2);
+            }
+            Log.d(TAG, "🧹 onTrimMemory(" + level + ") | " + getStatsSummary());
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        onTrimMemory(TRIM_MEMORY_COMPLETE);
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+        // Catalogs do not depend on configuration
+    }
+
+    private void trimTo(long budget) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        // Always keep the most recently used catalog, even when it alone exceeds the budget
+        while (cachedBytes > budget && entries.size() > 1 && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            cachedBytes -= eldest.getValue().catalog.getByteSize();
+            iterator.remove();
+            Log.d(TAG, "🗑️ Evicted " + eldest.getKey());
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            cachedBytes -= removed.catalog.getByteSize();
+        }
+    }
+
+    private static class Entry {
+        final CompiledCatalog catalog;
+        final long sourceLength;
+        final long sourceModified;
+
+        Entry(CompiledCatalog catalog, long sourceLength, long sourceModified) {
+            this.catalog = catalog;
+            this.sourceLength = sourceLength;
+            this.sourceModified = sourceModified;
+        }
+
+        boolean matches(File source) {
+            return source.length() == sourceLength && source.lastModified() == sourceModified;
+        }
+    }
+}
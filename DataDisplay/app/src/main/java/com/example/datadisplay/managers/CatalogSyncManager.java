@@ -0,0 +1,310 @@
+package com.example.datadisplay.managers;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.datadisplay.models.CatalogDelta;
+import com.example.datadisplay.utils.CatalogPatcher;
+import com.example.datadisplay.utils.CatalogStreams;
+import com.google.gson.Gson;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Keeps downloaded catalog files fresh with conditional GETs.
+ * <p>
+ * The ETag / Last-Modified validators of each catalog URL are stored with the size of the file
+ * they describe. A refresh sends them back, so an unchanged catalog costs a 304 with no body; only
+ * a 200 rewrites the file, through a temp file and a rename so readers never see a partial
+ * catalog. Catalogs are stored gzip-compressed (see {@link CatalogStreams}). Syncs run one at a
+ * time on a background thread.
+ * <p>
+ * Catalogs that declare a {@code version} and {@code delta_url} are refreshed from their delta
+ * document instead: when it starts at the local version it is applied with {@link CatalogPatcher}
+ * and handed to the search index, so an update costs the size of the change. A delta that does
+ * not line up falls back to the full conditional GET.
+ */
+public class CatalogSyncManager {
+
+    private static final String TAG = "CatalogSyncManager";
+    private static final String PREF_NAME = "CatalogSync";
+    private static final String KEY_ETAG = "etag|";
+    private static final String KEY_LAST_MODIFIED = "last_modified|";
+    private static final String KEY_LENGTH = "length|";
+    private static final String KEY_VERSION = "version|";
+    private static final String KEY_DELTA_URL = "delta_url|";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public enum Result {
+        UPDATED,
+        NOT_MODIFIED,
+        FAILED
+    }
+
+    public interface Listener {
+        /**
+         * Called on the sync thread once the request finishes.
+         */
+        void onSyncFinished(File target, Result result);
+    }
+
+    private static CatalogSyncManager instance;
+
+    private final Context appContext;
+    private final SharedPreferences prefs;
+    private final OkHttpClient client;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private CatalogSyncManager(Context context) {
+        this.appContext = context.getApplicationContext();
+        this.prefs = appContext.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        this.client = HttpClientManager.getInstance(appContext).getClient();
+    }
+
+    public static synchronized CatalogSyncManager getInstance(Context context) {
+        if (instance == null) {
+            instance = new CatalogSyncManager(context);
+        }
+        return instance;
+    }
+
+    public void syncAsync(File target, String url, @Nullable Listener listener) {
+        executor.execute(() -> {
+            Result result = sync(target, url);
+            if (listener != null) {
+                listener.onSyncFinished(target, result);
+            }
+        });
+    }
+
+    /**
+     * Revalidates (or first downloads) {@code target} from {@code url}. Blocking.
+     */
+    public Result sync(File target, String url) {
+        if (url == null || url.isEmpty()) {
+            return Result.FAILED;
+        }
+        // Validators only describe the file they were stored with; a file replaced by another
+        // path (assets copy, DownloadManager) is fetched unconditionally once
+        boolean conditional = target.exists() && prefs.getLong(KEY_LENGTH + url, -1) == target.length();
+        if (conditional) {
+            Result deltaResult = syncDelta(target, url);
+            if (deltaResult != null) {
+                return deltaResult;
+            }
+        }
+        Request.Builder builder = newConditionalRequest(url, conditional);
+        if (CatalogStreams.isCatalog(target)) {
+            // Asking explicitly turns off OkHttp's transparent decompression, so a gzip body
+            // is stored on disk exactly as it arrived
+            builder.header("Accept-Encoding", "gzip");
+        }
+
+        long start = System.currentTimeMillis();
+        try (Response response = client.newCall(builder.build()).execute()) {
+            if (response.code() == 304) {
+                Log.d(TAG, "✅ " + target.getName() + " not modified (" + (System.currentTimeMillis() - start) + " ms)");
+                return Result.NOT_MODIFIED;
+            }
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                Log.w(TAG, "⚠️ Sync of " + target.getName() + " failed, code=" + response.code());
+                return Result.FAILED;
+            }
+            MediaType type = body.contentType();
+            if (type != null && "html".equalsIgnoreCase(type.subtype())) {
+                // Drive answers quota and permission problems with an HTML page; keep the old catalog
+                Log.w(TAG, "⚠️ Sync of " + target.getName() + " returned HTML, keeping local copy");
+                return Result.FAILED;
+            }
+
+            long length = writeAtomically(body.byteStream(), target);
+            CatalogPatcher.Header header = readHeader(target);
+            prefs.edit()
+                    .putString(KEY_ETAG + url, response.header("ETag"))
+                    .putString(KEY_LAST_MODIFIED + url, response.header("Last-Modified"))
+                    .putLong(KEY_LENGTH + url, length)
+                    .putLong(KEY_VERSION + url, header.version)
+                    .putString(KEY_DELTA_URL + url, header.deltaUrl)
+                    .apply();
+            Log.d(TAG, "📥 " + target.getName() + " updated, " + length + " bytes in "
+                    + (System.currentTimeMillis() - start) + " ms (conditional=" + conditional + ")");
+            return Result.UPDATED;
+        } catch (IOException e) {
+            Log.e(TAG, "❌ Sync of " + target.getName() + " failed", e);
+            return Result.FAILED;
+        }
+    }
+
+    /**
+     * Forgets the validators of a URL, forcing the next sync to download the full file.
+     */
+    public void forget(String url) {
+        prefs.edit()
+                .remove(KEY_ETAG + url)
+                .remove(KEY_LAST_MODIFIED + url)
+                .remove(KEY_LENGTH + url)
+                .remove(KEY_VERSION + url)
+                .remove(KEY_DELTA_URL + url)
+                .apply();
+    }
+
+    /**
+     * Refreshes a catalog from its delta document.
+     *
+     * @return the result, or null when the catalog has to be fetched in full
+     */
+    @Nullable
+    private Result syncDelta(File target, String url) {
+        String deltaUrl = prefs.getString(KEY_DELTA_URL + url, null);
+        long localVersion = prefs.getLong(KEY_VERSION + url, -1);
+        if (deltaUrl == null || deltaUrl.isEmpty() || localVersion < 0) {
+            return null;
+        }
+
+        long start = System.currentTimeMillis();
+        // The delta document has validators of its own: an unchanged delta means no new version
+        Request request = newConditionalRequest(deltaUrl, true).build();
+        CatalogDelta delta;
+        String deltaEtag;
+        String deltaLastModified;
+        try (Response response = client.newCall(request).execute()) {
+            if (response.code() == 304) {
+                Log.d(TAG, "✅ " + target.getName() + " delta not modified (v" + localVersion + ")");
+                return Result.NOT_MODIFIED;
+            }
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                Log.w(TAG, "⚠️ Delta for " + target.getName() + " unavailable, code=" + response.code());
+                return null;
+            }
+            try (Reader reader = new InputStreamReader(body.byteStream(), StandardCharsets.UTF_8)) {
+                delta = new Gson().fromJson(reader, CatalogDelta.class);
+            }
+            if (delta == null) {
+                return null;
+            }
+            // Stored only once the delta is known to be reflected locally; a delta that falls
+            // back to a full fetch must not answer 304 next time if that fetch fails
+            deltaEtag = response.header("ETag");
+            deltaLastModified = response.header("Last-Modified");
+        } catch (Exception e) {
+            Log.w(TAG, "⚠️ Delta fetch for " + target.getName() + " failed", e);
+            return null;
+        }
+
+        if (delta.version == localVersion) {
+            prefs.edit()
+                    .putString(KEY_ETAG + deltaUrl, deltaEtag)
+                    .putString(KEY_LAST_MODIFIED + deltaUrl, deltaLastModified)
+                    .apply();
+            return Result.NOT_MODIFIED;
+        }
+        if (delta.baseVersion != localVersion) {
+            Log.d(TAG, "🔀 Delta v" + delta.baseVersion + "->v" + delta.version + " does not start at local v"
+                    + localVersion + ", fetching " + target.getName() + " in full");
+            return null;
+        }
+
+        long previousLength = target.length();
+        long previousModified = target.lastModified();
+        File patched = new File(target.getParentFile(), target.getName() + ".patch");
+        try {
+            CatalogPatcher.apply(target, patched, delta);
+            if (!patched.renameTo(target)) {
+                throw new IOException("Cannot rename " + patched + " to " + target);
+            }
+        } catch (Exception e) {
+            patched.delete();
+            Log.w(TAG, "⚠️ Delta v" + delta.version + " does not apply to " + target.getName(), e);
+            return null;
+        }
+
+        // The catalog's own validators describe the server's full file, not this patched copy
+        prefs.edit()
+                .remove(KEY_ETAG + url)
+                .remove(KEY_LAST_MODIFIED + url)
+                .putLong(KEY_LENGTH + url, target.length())
+                .putLong(KEY_VERSION + url, delta.version)
+                .putString(KEY_ETAG + deltaUrl, deltaEtag)
+                .putString(KEY_LAST_MODIFIED + deltaUrl, deltaLastModified)
+                .apply();
+        SearchIndexManager.getInstance(appContext)
+                .applyDelta(target.getName(), delta, previousLength, previousModified);
+        int operationCount = delta.operations != null ? delta.operations.size() : 0;
+        Log.d(TAG, "🩹 " + target.getName() + " patched v" + localVersion + " -> v" + delta.version + " ("
+                + operationCount + " operations) in " + (System.currentTimeMillis() - start) + " ms");
+        return Result.UPDATED;
+    }
+
+    private Request.Builder newConditionalRequest(String url, boolean conditional) {
+        Request.Builder builder = new Request.Builder().url(url);
+        if (conditional) {
+            String etag = prefs.getString(KEY_ETAG + url, null);
+            String lastModified = prefs.getString(KEY_LAST_MODIFIED + url, null);
+            if (etag != null) {
+                builder.header("If-None-Match", etag);
+            }
+            if (lastModified != null) {
+                builder.header("If-Modified-Since", lastModified);
+            }
+        }
+        return builder;
+    }
+
+    private static CatalogPatcher.Header readHeader(File target) {
+        try {
+            return CatalogPatcher.readHeader(target);
+        } catch (Exception e) {
+            // Not an object catalog (e.g. the book list); deltas simply stay off
+            return new CatalogPatcher.Header();
+        }
+    }
+
+    private static long writeAtomically(InputStream in, File target) throws IOException {
+        File directory = target.getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File temp = new File(directory, target.getName() + ".sync");
+        long total = 0;
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            if (CatalogStreams.isCatalog(target)) {
+                total = CatalogStreams.copyCompressed(in, out);
+            } else {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    total += read;
+                }
+            }
+            out.getFD().sync();
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new IOException("Cannot rename " + temp + " to " + target);
+        }
+        return total;
+    }
+}
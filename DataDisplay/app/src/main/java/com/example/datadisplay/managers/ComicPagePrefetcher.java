@@ -0,0 +1,229 @@
+package com.example.datadisplay.managers;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+import com.example.datadisplay.utils.NetworkHelper;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reader-aware page prefetcher for the comic reader.
+ * <p>
+ * Keeps a small window of pages around the current page in Glide's disk cache, nearest page
+ * first and only a couple of downloads at a time so the visible page never competes with a
+ * long queue. Jumps drop the old window and reprioritize around the new page. On metered
+ * networks the look-ahead shrinks and stops once the configured byte budget is spent.
+ * All methods run on the main thread.
+ */
+public class ComicPagePrefetcher {
+
+    private static final String TAG = "ComicPagePrefetcher";
+
+    private static final String PREF_NAME = "PrefetchSettings";
+    private static final String KEY_METERED_BUDGET_MB = "metered_budget_mb";
+    private static final int DEFAULT_METERED_BUDGET_MB = 20;
+
+    private static final int PAGES_AHEAD = 3;
+    private static final int PAGES_BEHIND = 1;
+    private static final int METERED_PAGES_AHEAD = 1;
+    private static final int MAX_IN_FLIGHT = 2;
+
+    private final Context context;
+    private final RequestManager requestManager;
+    private final long meteredBudgetBytes;
+
+    private List<String> pages = new ArrayList<>();
+    private final List<Integer> pending = new ArrayList<>();
+    private final Map<Integer, Target<File>> inFlight = new HashMap<>();
+    private final Set<Integer> cached = new HashSet<>();
+    private int currentPage = -1;
+
+    private int issuedCount = 0;
+    private int wastedCount = 0;
+    private int jumpCount = 0;
+    private long downloadedBytes = 0;
+    private long meteredBytes = 0;
+
+    public ComicPagePrefetcher(Context context) {
+        this.context = context;
+        this.requestManager = Glide.with(context);
+        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        this.meteredBudgetBytes = (long) prefs.getInt(KEY_METERED_BUDGET_MB, DEFAULT_METERED_BUDGET_MB) * 1024 * 1024;
+    }
+
+    /**
+     * Sets the byte budget for prefetching on metered networks; 0 disables metered prefetch.
+     */
+    public static void setMeteredBudgetMb(Context context, int budgetMb) {
+        context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE)
+                .edit()
+                .putInt(KEY_METERED_BUDGET_MB, Math.max(0, budgetMb))
+                .apply();
+    }
+
+    public void setPages(List<String> pages) {
+        cancelAll();
+        cached.clear();
+        currentPage = -1;
+        this.pages = pages != null ? pages : new ArrayList<>();
+    }
+
+    /**
+     * Recomputes the window around the page the reader is on.
+     */
+    public void onPageChanged(int page) {
+        if (page < 0 || page >= pages.size() || page == currentPage) {
+            return;
+        }
+        if (currentPage >= 0 && Math.abs(page - currentPage) > PAGES_AHEAD) {
+            jumpCount++;
+            Log.d(TAG, "⏩ Jump " + currentPage + " -> " + page + ", reprioritizing");
+        }
+        int direction = page >= currentPage ? 1 : -1;
+        currentPage = page;
+
+        boolean metered = NetworkHelper.getCurrentNetworkType(context) == NetworkHelper.NetworkType.MOBILE;
+        int ahead = metered ? METERED_PAGES_AHEAD : PAGES_AHEAD;
+        if (metered && meteredBytes >= meteredBudgetBytes) {
+            ahead = 0;
+        }
+        int behind = metered ? 0 : PAGES_BEHIND;
+
+        int start = direction > 0 ? page - behind : page - ahead;
+        int end = direction > 0 ? page + ahead : page + behind;
+        start = Math.max(0, start);
+        end = Math.min(pages.size() - 1, end);
+
+        // Cancel downloads that are no longer near the reader
+        Iterator<Map.Entry<Integer, Target<File>>> iterator = inFlight.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Target<File>> entry = iterator.next();
+            if (entry.getKey() < start || entry.getKey() > end) {
+                wastedCount++;
+                requestManager.clear(entry.getValue());
+                iterator.remove();
+            }
+        }
+
+        // Nearest pages first, favouring the reading direction; the reader loads the current page itself
+        pending.clear();
+        for (int distance = 1; distance <= Math.max(ahead, behind); distance++) {
+            int forward = page + distance * direction;
+            int backward = page - distance * direction;
+            if (forward >= start && forward <= end) {
+                enqueue(forward);
+            }
+            if (backward >= start && backward <= end) {
+                enqueue(backward);
+            }
+        }
+        pump();
+    }
+
+    public void cancelAll() {
+        for (Target<File> target : inFlight.values()) {
+            requestManager.clear(target);
+        }
+        wastedCount += inFlight.size();
+        inFlight.clear();
+        pending.clear();
+    }
+
+    public String getMetricsSummary() {
+        return "issued=" + issuedCount
+                + " | wasted=" + wastedCount
+                + " | jumps=" + jumpCount
+                + " | bytes=" + downloadedBytes
+                + " | meteredBytes=" + meteredBytes + "/" + meteredBudgetBytes;
+    }
+
+    public void logMetrics() {
+        Log.d(TAG, "📊 Page prefetch metrics | " + getMetricsSummary());
+    }
+
+    private void enqueue(int page) {
+        if (!cached.contains(page) && !inFlight.containsKey(page) && !pending.contains(page)) {
+            pending.add(page);
+        }
+    }
+
+    private void pump() {
+        while (inFlight.size() < MAX_IN_FLIGHT && !pending.isEmpty()) {
+            issue(pending.remove(0));
+        }
+    }
+
+    private void issue(int page) {
+        boolean metered = NetworkHelper.getCurrentNetworkType(context) == NetworkHelper.NetworkType.MOBILE;
+        PageRequest request = new PageRequest(page);
+        request.target = requestManager
+                .downloadOnly()
+                .load(pages.get(page))
+                .listener(new RequestListener<File>() {
+                    @Override
+                    public boolean onLoadFailed(@Nullable GlideException e, Object model,
+                                                @NonNull Target<File> target, boolean isFirstResource) {
+                        finish(request);
+                        return false;
+                    }
+
+                    @Override
+                    public boolean onResourceReady(@NonNull File resource, @NonNull Object model,
+                                                   Target<File> target, @NonNull DataSource dataSource,
+                                                   boolean isFirstResource) {
+                        if (dataSource == DataSource.REMOTE) {
+                            downloadedBytes += resource.length();
+                            if (metered) {
+                                meteredBytes += resource.length();
+                            }
+                        }
+                        cached.add(page);
+                        finish(request);
+                        return false;
+                    }
+                })
+                .preload();
+        issuedCount++;
+        // A cache hit can complete synchronously inside preload()
+        if (!request.finished) {
+            inFlight.put(page, request.target);
+        }
+    }
+
+    private void finish(PageRequest request) {
+        request.finished = true;
+        // Ignore callbacks from requests that were already cancelled and replaced
+        if (request.target != null && inFlight.get(request.page) == request.target) {
+            inFlight.remove(request.page);
+        }
+        pump();
+    }
+
+    private static class PageRequest {
+        final int page;
+        Target<File> target;
+        boolean finished;
+
+        PageRequest(int page) {
+            this.page = page;
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package com.example.datadisplay.managers;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * App-side queue in front of the system DownloadManager.
+ * <p>
+ * Only {@link #getMaxInFlight()} downloads are handed to DownloadManager at a time; the rest wait
+ * here so a large folder cannot bury a download the user is waiting for. The next download is
+ * picked by priority (the page on screen, then the rest of its folder, then URLs marked with
+ * {@link OfflineResourceManager#markAsOfflinePriority}, then bulk), and folders of the same
+ * priority take turns. Slots are freed by a {@link DownloadTracker}, or by the owner for
+ * {@link HttpDownloadEngine} transfers. Downloads are started and listeners called outside the
+ * scheduler's lock. All state is shared by the process, since every screen creates its own
+ * {@link OfflineDownloadManager}.
+ */
+public class DownloadScheduler {
+
+    private static final String TAG = "DownloadScheduler";
+    private static final int DEFAULT_MAX_IN_FLIGHT = 3;
+
+    private static final int PRIORITY_VIEWING = 0;
+    private static final int PRIORITY_MARKED = 1;
+    private static final int PRIORITY_BULK = 2;
+
+    /**
+     * Hands a queued download to DownloadManager once it gets a slot.
+     */
+    public interface Task {
+        /**
+         * @return the DownloadManager id, or -1 when the download could not be started
+         */
+        long start();
+    }
+
+    public interface Listener {
+        void onQueueChanged(int queueDepth, int inFlight, long bytesPerSecond);
+
+        /**
+         * A queued download was dropped before it started.
+         */
+        void onDequeued(String url, String title);
+
+        /**
+         * A download got a slot but {@link Task#start()} could not hand it over.
+         */
+        void onStartFailed(String url, String title);
+    }
+
+    private static DownloadScheduler instance;
+
+    private final OfflineResourceManager resourceManager;
+    private final DownloadTracker tracker;
+    private final List<Listener> listeners = new ArrayList<>();
+    // Waiting downloads per folder, in the order folders take turns
+    private final LinkedHashMap<String, Group> groups = new LinkedHashMap<>();
+    // Group of every waiting URL
+    private final Map<String, Group> queuedUrls = new HashMap<>();
+    private final Map<Long, Item> inFlight = new HashMap<>();
+    // URLs that are in flight or being started, so another manager cannot queue them again
+    private final Set<String> activeUrls = new HashSet<>();
+    // Transfers that reported back before their start() returned
+    private final Set<Long> finishedEarly = new HashSet<>();
+
+    private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+    // Slots taken by downloads whose start() is running outside the lock
+    private int starting = 0;
+    private String viewingGroup;
+    private String viewingUrl;
+
+    // Throughput over the current busy period
+    private long busySince = 0;
+    private long completedBytes = 0;
+    private int completedCount = 0;
+
+    private DownloadScheduler(Context context) {
+        Context appContext = context.getApplicationContext();
+        this.resourceManager = new OfflineResourceManager(appContext);
+        this.tracker = new DownloadTracker(appContext, this::onFinished);
+    }
+
+    public static synchronized DownloadScheduler getInstance(Context context) {
+        if (instance == null) {
+            instance = new DownloadScheduler(context);
+        }
+        return instance;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        synchronized (this) {
+            this.maxInFlight = Math.max(1, maxInFlight);
+        }
+        pump();
+    }
+
+    public synchronized int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Queues a download. {@code group} is the folder it belongs to (null for single files).
+     *
+     * @return false when the same URL is already queued or downloading
+     */
+    public boolean enqueue(String url, String title, String group, File destination, Task task) {
+        synchronized (this) {
+            if (queuedUrls.containsKey(url) || activeUrls.contains(url)) {
+                return false;
+            }
+            String key = group != null ? group : "";
+            Group queue = groups.get(key);
+            if (queue == null) {
+                queue = new Group(key);
+                groups.put(key, queue);
+            }
+            queue.add(new Item(url, title, destination, task), resourceManager.isPriority(url));
+            queuedUrls.put(url, queue);
+            if (busySince == 0) {
+                busySince = SystemClock.elapsedRealtime();
+            }
+        }
+        pump();
+        notifyQueueChanged();
+        return true;
+    }
+
+    /**
+     * Moves the downloads of {@code group}, the canonical path of a folder, to the front while it
+     * is on screen.
+     */
+    public synchronized void setViewingGroup(String group) {
+        viewingGroup = group;
+    }
+
+    /**
+     * Clears the on-screen folder, unless another screen has claimed it since.
+     */
+    public synchronized void clearViewingGroup(String group) {
+        if (group != null && group.equals(viewingGroup)) {
+            viewingGroup = null;
+        }
+    }
+
+    /**
+     * Moves the download of {@code url} ahead of everything else while a viewer shows it.
+     */
+    public synchronized void setViewingUrl(String url) {
+        viewingUrl = url;
+    }
+
+    /**
+     * Clears the on-screen page, unless another page has been shown since.
+     */
+    public synchronized void clearViewingUrl(String url) {
+        if (url != null && url.equals(viewingUrl)) {
+            viewingUrl = null;
+        }
+    }
+
+    /**
+     * @return true while {@code url} is waiting, being started or downloading
+     */
+    public synchronized boolean isQueued(String url) {
+        return queuedUrls.containsKey(url) || activeUrls.contains(url);
+    }
+
+    public synchronized int getQueueDepth() {
+        return queuedUrls.size();
+    }
+
+    public synchronized int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Drops every download that has not started yet.
+     */
+    public void clearQueue() {
+        List<Item> dropped = new ArrayList<>();
+        List<Listener> targets;
+        synchronized (this) {
+            for (Group group : groups.values()) {
+                dropped.addAll(group.marked);
+                dropped.addAll(group.bulk);
+            }
+            groups.clear();
+            queuedUrls.clear();
+            targets = new ArrayList<>(listeners);
+        }
+        for (Item item : dropped) {
+            for (Listener listener : targets) {
+                listener.onDequeued(item.url, item.title);
+            }
+        }
+        notifyQueueChanged();
+    }
+
+    public synchronized void addListener(Listener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    public synchronized void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public synchronized long getBytesPerSecond() {
+        long elapsed = busySince > 0 ? SystemClock.elapsedRealtime() - busySince : 0;
+        return elapsed > 0 ? completedBytes * 1000 / elapsed : 0;
+    }
+
+    public synchronized String getMetricsSummary() {
+        return "queued=" + queuedUrls.size() + ", inFlight=" + inFlight.size() + "/" + maxInFlight
+                + ", completed=" + completedCount + ", " + (getBytesPerSecond() / 1024) + " KB/s";
+    }
+
+    /**
+     * Fills free slots. Items are claimed under the lock, but {@link Task#start()} runs outside
+     * it, since it makes a DownloadManager call and fires listener callbacks.
+     */
+    private void pump() {
+        while (true) {
+            List<Item> claimed = new ArrayList<>();
+            synchronized (this) {
+                while (inFlight.size() + starting < maxInFlight) {
+                    Item item = next();
+                    if (item == null) {
+                        break;
+                    }
+                    queuedUrls.remove(item.url);
+                    activeUrls.add(item.url);
+                    starting++;
+                    claimed.add(item);
+                }
+            }
+            if (claimed.isEmpty()) {
+                return;
+            }
+
+            List<Item> failed = new ArrayList<>();
+            boolean released = false;
+            for (Item item : claimed) {
+                long downloadId = item.task.start();
+                synchronized (this) {
+                    starting--;
+                    if (downloadId == -1) {
+                        activeUrls.remove(item.url);
+                        failed.add(item);
+                        released = true;
+                    } else if (finishedEarly.remove(downloadId)) {
+                        activeUrls.remove(item.url);
+                        released = true;
+                    } else {
+                        inFlight.put(downloadId, item);
+                        if (!HttpDownloadEngine.isTransferId(downloadId)) {
+                            tracker.track(downloadId, item.url);
+                        }
+                    }
+                }
+            }
+            if (!released) {
+                return;
+            }
+            List<Listener> targets;
+            synchronized (this) {
+                targets = new ArrayList<>(listeners);
+            }
+            for (Item item : failed) {
+                Log.w(TAG, "⚠️ Could not start " + item.url);
+                for (Listener listener : targets) {
+                    listener.onStartFailed(item.url, item.title);
+                }
+            }
+            // Slots given back while starting go to the next downloads
+        }
+    }
+
+    /**
+     * Picks the best waiting download: the page on screen, then lowest priority value first,
+     * folders rotating within a priority so one large folder does not starve the others.
+     */
+    private Item next() {
+        if (viewingUrl != null) {
+            Group group = queuedUrls.get(viewingUrl);
+            Item item = group != null ? group.remove(viewingUrl) : null;
+            if (item != null) {
+                if (group.isEmpty()) {
+                    groups.remove(group.key);
+                }
+                return item;
+            }
+        }
+
+        Group best = null;
+        int bestPriority = Integer.MAX_VALUE;
+        for (Group group : groups.values()) {
+            int priority = priorityOf(group);
+            if (priority < bestPriority) {
+                best = group;
+                bestPriority = priority;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        Item item = best.poll();
+        // Served folders go to the back of the rotation
+        groups.remove(best.key);
+        if (!best.isEmpty()) {
+            groups.put(best.key, best);
+        }
+        return item;
+    }
+
+    private int priorityOf(Group group) {
+        if (group.isEmpty()) {
+            return Integer.MAX_VALUE;
+        }
+        if (group.key.equals(viewingGroup)) {
+            return PRIORITY_VIEWING;
+        }
+        return group.marked.isEmpty() ? PRIORITY_BULK : PRIORITY_MARKED;
+    }
+
+    /**
+     * Frees the slot of an {@link HttpDownloadEngine} transfer, which DownloadTracker cannot see.
+     */
+    void onTransferFinished(long transferId, boolean successful) {
+        onFinished(transferId, null, successful, 0);
+    }
+
+    private void onFinished(long downloadId, String url, boolean successful, int reason) {
+        synchronized (this) {
+            Item item = inFlight.remove(downloadId);
+            if (item != null) {
+                activeUrls.remove(item.url);
+            }
+            if (item == null && starting > 0 && HttpDownloadEngine.isTransferId(downloadId)) {
+                finishedEarly.add(downloadId);
+            }
+            if (item != null && successful && item.destination != null) {
+                completedBytes += item.destination.length();
+                completedCount++;
+            }
+        }
+        pump();
+        notifyQueueChanged();
+        synchronized (this) {
+            if (inFlight.isEmpty() && queuedUrls.isEmpty() && starting == 0) {
+                Log.d(TAG, "📊 Queue drained | " + getMetricsSummary());
+                busySince = 0;
+                completedBytes = 0;
+                completedCount = 0;
+            }
+        }
+    }
+
+    private void notifyQueueChanged() {
+        List<Listener> targets;
+        int queueDepth;
+        int inFlightCount;
+        long bytesPerSecond;
+        synchronized (this) {
+            targets = new ArrayList<>(listeners);
+            queueDepth = queuedUrls.size();
+            inFlightCount = inFlight.size();
+            bytesPerSecond = getBytesPerSecond();
+        }
+        for (Listener listener : targets) {
+            listener.onQueueChanged(queueDepth, inFlightCount, bytesPerSecond);
+        }
+    }
+
+    private static class Item {
+        final String url;
+        final String title;
+        final File destination;
+        final Task task;
+
+        Item(String url, String title, File destination, Task task) {
+            this.url = url;
+            this.title = title;
+            this.destination = destination;
+            this.task = task;
+        }
+    }
+
+    private static class Group {
+        final String key;
+        final ArrayDeque<Item> marked = new ArrayDeque<>();
+        final ArrayDeque<Item> bulk = new ArrayDeque<>();
+
+        Group(String key) {
+            this.key = key;
+        }
+
+        void add(Item item, boolean isMarked) {
+            (isMarked ? marked : bulk).add(item);
+        }
+
+        Item poll() {
+            return !marked.isEmpty() ? marked.poll() : bulk.poll();
+        }
+
+        Item remove(String url) {
+            Item item = remove(marked, url);
+            return item != null ? item : remove(bulk, url);
+        }
+
+        private static Item remove(ArrayDeque<Item> items, String url) {
+            Iterator<Item> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                Item item = iterator.next();
+                if (item.url.equals(url)) {
+                    iterator.remove();
+                    return item;
+                }
+            }
+            return null;
+        }
+
+        boolean isEmpty() {
+            return marked.isEmpty() && bulk.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.datadisplay.managers;
+
+import android.app.DownloadManager;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.database.ContentObserver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Follows a set of DownloadManager downloads without polling.
+ * <p>
+ * While something is pending, a background thread listens to the
+ * {@link DownloadManager#ACTION_DOWNLOAD_COMPLETE} broadcast and to changes of the downloads
+ * provider, and answers each burst of events with one query filtered to our own ids. Once the
+ * last download finishes the observer, receiver and thread are all released, so an idle tracker
+ * does no work at all. Listener callbacks run on the main thread.
+ */
+public class DownloadTracker {
+
+    private static final String TAG = "DownloadTracker";
+    private static final Uri DOWNLOADS_URI = Uri.parse("content://downloads/my_downloads");
+    // The provider reports every progress tick; coalesce them into one query
+    private static final long QUERY_DELAY_MS = 500;
+
+    public interface Listener {
+        void onDownloadFinished(long downloadId, String name, boolean successful, int reason);
+    }
+
+    private final Context context;
+    private final DownloadManager downloadManager;
+    private final Listener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Guarded by this; read and written from the caller's thread and the tracker thread
+    private final Map<Long, String> pending = new HashMap<>();
+
+    private HandlerThread thread;
+    private Handler handler;
+    private ContentObserver observer;
+    private BroadcastReceiver receiver;
+    private boolean queryScheduled = false;
+    private int queryCount = 0;
+
+    private final Runnable queryRunnable = this::queryPending;
+
+    public DownloadTracker(Context context, Listener listener) {
+        this.context = context.getApplicationContext();
+        this.downloadManager = (DownloadManager) context.getSystemService(Context.DOWNLOAD_SERVICE);
+        this.listener = listener;
+    }
+
+    /**
+     * Starts following {@code downloadId}; the listener hears about it once it succeeds or fails.
+     */
+    public synchronized void track(long downloadId, String name) {
+        if (downloadId == -1 || downloadManager == null) {
+            return;
+        }
+        pending.put(downloadId, name);
+        if (handler == null) {
+            start();
+        }
+        // The download may already have finished before the observer was registered
+        scheduleQuery();
+    }
+
+    public synchronized boolean isTracking(String name) {
+        return pending.containsValue(name);
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Stops following all downloads. The downloads themselves keep running.
+     */
+    public synchronized void release() {
+        pending.clear();
+        stop();
+    }
+
+    private void start() {
+        thread = new HandlerThread(TAG);
+        thread.start();
+        handler = new Handler(thread.getLooper());
+
+        observer = new ContentObserver(handler) {
+            @Override
+            public void onChange(boolean selfChange) {
+                scheduleQuery();
+            }
+        };
+        context.getContentResolver().registerContentObserver(DOWNLOADS_URI, true, observer);
+
+        receiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                long downloadId = intent.getLongExtra(DownloadManager.EXTRA_DOWNLOAD_ID, -1);
+                if (isPending(downloadId)) {
+                    // A completion is final; answer it right away instead of waiting out the delay
+                    queryPending();
+                }
+            }
+        };
+        // The broadcast comes from the downloads provider, which runs under another uid
+        context.registerReceiver(receiver, new IntentFilter(DownloadManager.ACTION_DOWNLOAD_COMPLETE),
+                null, handler, Context.RECEIVER_EXPORTED);
+        Log.d(TAG, "📡 Tracking started");
+    }
+
+    private void stop() {
+        if (handler == null) {
+            return;
+        }
+        handler.removeCallbacksAndMessages(null);
+        queryScheduled = false;
+        context.getContentResolver().unregisterContentObserver(observer);
+        context.unregisterReceiver(receiver);
+        thread.quitSafely();
+        observer = null;
+        receiver = null;
+        handler = null;
+        thread = null;
+        Log.d(TAG, "💤 Tracking stopped after " + queryCount + " queries");
+        queryCount = 0;
+    }
+
+    private synchronized void scheduleQuery() {
+        if (handler != null && !queryScheduled) {
+            queryScheduled = true;
+            handler.postDelayed(queryRunnable, QUERY_DELAY_MS);
+        }
+    }
+
+    private synchronized boolean isPending(long downloadId) {
+        return pending.containsKey(downloadId);
+    }
+
+    /**
+     * Runs on the tracker thread: one cursor over our ids, finished downloads are handed out.
+     */
+    private void queryPending() {
+        long[] ids;
+        synchronized (this) {
+            if (handler != null) {
+                handler.removeCallbacks(queryRunnable);
+            }
+            queryScheduled = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            ids = new long[pending.size()];
+            int i = 0;
+            for (Long id : pending.keySet()) {
+                ids[i++] = id;
+            }
+            queryCount++;
+        }
+
+        DownloadManager.Query query = new DownloadManager.Query();
+        query.setFilterById(ids);
+        Map<Long, int[]> finished = new HashMap<>();
+        boolean[] seen = new boolean[ids.length];
+        try (Cursor cursor = downloadManager.query(query)) {
+            if (cursor != null) {
+                int idIndex = cursor.getColumnIndex(DownloadManager.COLUMN_ID);
+                int statusIndex = cursor.getColumnIndex(DownloadManager.COLUMN_STATUS);
+                int reasonIndex = cursor.getColumnIndex(DownloadManager.COLUMN_REASON);
+                while (cursor.moveToNext()) {
+                    long downloadId = cursor.getLong(idIndex);
+                    int status = cursor.getInt(statusIndex);
+                    for (int i = 0; i < ids.length; i++) {
+                        if (ids[i] == downloadId) {
+                            seen[i] = true;
+                        }
+                    }
+                    if (status == DownloadManager.STATUS_SUCCESSFUL || status == DownloadManager.STATUS_FAILED) {
+                        finished.put(downloadId, new int[]{status, cursor.getInt(reasonIndex)});
+                    }
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Error querying downloads: " + e.getMessage(), e);
+            return;
+        }
+        // A download missing from the provider was removed (e.g. cancelled from the notification)
+        for (int i = 0; i < ids.length; i++) {
+            if (!seen[i]) {
+                finished.put(ids[i], new int[]{DownloadManager.STATUS_FAILED, DownloadManager.ERROR_UNKNOWN});
+            }
+        }
+
+        synchronized (this) {
+            for (Map.Entry<Long, int[]> entry : finished.entrySet()) {
+                String name = pending.remove(entry.getKey());
+                if (name == null) {
+                    continue;
+                }
+                long downloadId = entry.getKey();
+                boolean successful = entry.getValue()[0] == DownloadManager.STATUS_SUCCESSFUL;
+                int reason = entry.getValue()[1];
+                mainHandler.post(() -> listener.onDownloadFinished(downloadId, name, successful, reason));
+            }
+            if (pending.isEmpty()) {
+                stop();
+            }
+        }
+    }
+}
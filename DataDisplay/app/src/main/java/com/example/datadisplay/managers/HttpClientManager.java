@@ -0,0 +1,103 @@
+package com.example.datadisplay.managers;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.datadisplay.utils.DriveRedirectCache;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * The app's shared HTTP client.
+ * <p>
+ * One connection pool (HTTP/2 where the server offers it) and one {@link DriveRedirectCache} serve
+ * catalog downloads, Glide image loads and audio playback, so connections to Drive and
+ * googleusercontent stay warm and each Drive link resolves its redirect once per TTL.
+ */
+public class HttpClientManager {
+
+    private static final String TAG = "HttpClientManager";
+
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+
+    public interface ResolveCallback {
+        void onResolved(String url);
+    }
+
+    private static HttpClientManager instance;
+
+    private final DriveRedirectCache redirectCache = new DriveRedirectCache();
+    private final OkHttpClient client;
+    private final ExecutorService resolver = Executors.newSingleThreadExecutor();
+
+    private HttpClientManager(Context context) {
+        client = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .addInterceptor(redirectCache)
+                .connectTimeout(15, TimeUnit.SECONDS)
+                .readTimeout(30, TimeUnit.SECONDS)
+                .retryOnConnectionFailure(true)
+                .build();
+    }
+
+    public static synchronized HttpClientManager getInstance(Context context) {
+        if (instance == null) {
+            instance = new HttpClientManager(context);
+        }
+        return instance;
+    }
+
+    public OkHttpClient getClient() {
+        return client;
+    }
+
+    public DriveRedirectCache getRedirectCache() {
+        return redirectCache;
+    }
+
+    /**
+     * Resolves a Drive link to its direct URL for players that do their own HTTP, such as
+     * {@code MediaPlayer}. Blocking; a cache hit returns immediately, a miss costs one
+     * single-byte ranged request. Returns the input unchanged when it cannot be resolved.
+     */
+    public String resolveDirectUrl(String url) {
+        HttpUrl parsed = HttpUrl.parse(url);
+        if (!redirectCache.isRedirectSource(parsed)) {
+            return url;
+        }
+        String cached = redirectCache.resolve(url);
+        if (cached != null) {
+            return cached;
+        }
+        Request request = new Request.Builder()
+                .url(parsed)
+                .header("Range", "bytes=0-0")
+                .build();
+        try (Response response = client.newCall(request).execute()) {
+            Log.d(TAG, "🔗 Resolved " + url + " -> " + response.request().url() + " (" + response.code() + ")");
+        } catch (Exception e) {
+            Log.w(TAG, "⚠️ Redirect resolution failed for " + url, e);
+        }
+        String resolved = redirectCache.resolve(url);
+        return resolved != null ? resolved : url;
+    }
+
+    /**
+     * Same as {@link #resolveDirectUrl(String)} on a background thread; the callback runs there too.
+     */
+    public void resolveDirectUrlAsync(String url, ResolveCallback callback) {
+        resolver.execute(() -> callback.onResolved(resolveDirectUrl(url)));
+    }
+}
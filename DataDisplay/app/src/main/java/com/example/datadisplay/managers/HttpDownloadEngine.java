@@ -0,0 +1,162 @@
+package com.example.datadisplay.managers;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.example.datadisplay.utils.RangedDownloader;
+import com.example.datadisplay.utils.SegmentedDownloader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.OkHttpClient;
+
+/**
+ * In-app alternative to the system DownloadManager for offline downloads.
+ * <p>
+ * Transfers run on the shared {@link HttpClientManager} client, so they reuse its connection pool
+ * and Drive redirect cache, and go through {@link RangedDownloader} for resume, verification and
+ * backoff. Segmented transfers split a large file over several connections with
+ * {@link SegmentedDownloader}, whose segments share one pool; the connection cap is a setting.
+ * Transfer ids are negative so they never collide with DownloadManager ids. Callbacks
+ * run on a transfer thread.
+ */
+public class HttpDownloadEngine {
+
+    private static final String TAG = "HttpDownloadEngine";
+    // The scheduler decides how many transfers run; this only has to be at least as large
+    private static final int MAX_THREADS = 6;
+    private static final String PREF_NAME = "DownloadSettings";
+    private static final String KEY_MAX_SEGMENTS = "max_segments";
+    private static final int DEFAULT_MAX_SEGMENTS = 4;
+
+    public interface Callback {
+        void onProgress(long transferId, int percent);
+
+        void onFinished(long transferId, boolean successful, String error);
+    }
+
+    private static HttpDownloadEngine instance;
+
+    private final SharedPreferences prefs;
+    private final RangedDownloader downloader;
+    private final SegmentedDownloader segmentedDownloader;
+    private final ExecutorService executor = Executors.newFixedThreadPool(MAX_THREADS);
+    // Segment connections of every segmented transfer; idle threads time out
+    private final ExecutorService segmentExecutor = Executors.newCachedThreadPool();
+    private final Map<Long, Future<?>> transfers = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(-2);
+
+    private HttpDownloadEngine(Context context) {
+        OkHttpClient client = HttpClientManager.getInstance(context).getClient();
+        prefs = context.getApplicationContext().getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        downloader = new RangedDownloader(client);
+        segmentedDownloader = new SegmentedDownloader(client, segmentExecutor);
+    }
+
+    public static synchronized HttpDownloadEngine getInstance(Context context) {
+        if (instance == null) {
+            instance = new HttpDownloadEngine(context);
+        }
+        return instance;
+    }
+
+    public static boolean isTransferId(long id) {
+        return id < -1;
+    }
+
+    /**
+     * Caps the connections of one segmented transfer; applies to transfers started afterwards.
+     */
+    public static void setMaxSegments(Context context, int maxSegments) {
+        context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE)
+                .edit()
+                .putInt(KEY_MAX_SEGMENTS, Math.max(1, maxSegments))
+                .apply();
+    }
+
+    public int getMaxSegments() {
+        return Math.max(1, prefs.getInt(KEY_MAX_SEGMENTS, DEFAULT_MAX_SEGMENTS));
+    }
+
+    /**
+     * Starts downloading {@code url} to {@code target}; a {@code .part} file left next to it by
+     * an earlier attempt is resumed.
+     *
+     * @return the transfer id
+     */
+    public long start(String url, File target, Callback callback) {
+        return start(url, target, false, callback);
+    }
+
+    /**
+     * Like {@link #start(String, File, Callback)}; with {@code segmented}, a large file is fetched
+     * as parallel byte ranges when the server supports them.
+     */
+    public long start(String url, File target, boolean segmented, Callback callback) {
+        return start(url, target, segmented, -1, callback);
+    }
+
+    /**
+     * Like {@link #start(String, File, boolean, Callback)}, failing the transfer when the finished
+     * file is not {@code expectedLength} bytes (-1 when unknown).
+     */
+    public long start(String url, File target, boolean segmented, long expectedLength, Callback callback) {
+        long transferId = nextId.getAndDecrement();
+        int maxSegments = getMaxSegments();
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            long startTime = System.currentTimeMillis();
+            int[] lastPercent = {-1};
+            RangedDownloader.ProgressListener listener = (downloaded, total) -> {
+                if (total > 0) {
+                    int percent = (int) (downloaded * 100 / total);
+                    // Throttled to whole percents
+                    if (percent > lastPercent[0]) {
+                        lastPercent[0] = percent;
+                        callback.onProgress(transferId, percent);
+                    }
+                }
+            };
+            try {
+                RangedDownloader.Result result = segmented
+                        ? segmentedDownloader.download(url, target, maxSegments, expectedLength, null, listener)
+                        : downloader.download(url, target, expectedLength, null, listener);
+                Log.d(TAG, "📥 " + target.getName() + " | " + result.length + " bytes in "
+                        + (System.currentTimeMillis() - startTime) + " ms, attempts=" + result.attempts
+                        + (result.resumedFrom > 0 ? ", resumed from " + result.resumedFrom : ""));
+                transfers.remove(transferId);
+                callback.onFinished(transferId, true, null);
+            } catch (IOException e) {
+                transfers.remove(transferId);
+                if (Thread.currentThread().isInterrupted()) {
+                    Log.d(TAG, "⏹️ " + target.getName() + " cancelled");
+                    return;
+                }
+                Log.w(TAG, "❌ " + target.getName() + " failed: " + e.getMessage());
+                callback.onFinished(transferId, false, e.getMessage());
+            }
+        }, null);
+        // Registered before it runs, so a fast transfer cannot finish ahead of its own entry
+        transfers.put(transferId, task);
+        executor.execute(task);
+        return transferId;
+    }
+
+    /**
+     * Stops a transfer, keeping its part file for a later resume. No callback follows.
+     */
+    public void cancel(long transferId) {
+        Future<?> future = transfers.remove(transferId);
+        if (future != null) {
+            future.cancel(true);
+        }
+    }
+}
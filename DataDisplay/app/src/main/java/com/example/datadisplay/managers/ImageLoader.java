@@ -0,0 +1,178 @@
+package com.example.datadisplay.managers;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.drawable.Drawable;
+import android.util.Log;
+import android.view.View;
+import android.widget.ImageView;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.request.target.CustomTarget;
+import com.bumptech.glide.request.transition.Transition;
+
+import java.io.File;
+
+/**
+ * Single entry point for image loading in adapters and activities.
+ * <p>
+ * Everything goes through one Glide engine (configured by {@code DataDisplayGlideModule}), so
+ * there is one memory cache, one bitmap pool and one disk cache for the whole app. Requests are
+ * bound to the view they load into, which ties them to its lifecycle.
+ */
+public final class ImageLoader {
+
+    private static final String TAG = "ImageLoader";
+
+    private static boolean hookRegistered = false;
+
+    public interface FileCallback {
+        void onFileReady(@NonNull File file);
+    }
+
+    /**
+     * A running file request; pass it to {@link #cancel(View, FileRequest)} when the view is recycled.
+     */
+    public static final class FileRequest {
+        private final CustomTarget<File> target;
+
+        private FileRequest(CustomTarget<File> target) {
+            this.target = target;
+        }
+    }
+
+    private ImageLoader() {
+    }
+
+    /**
+     * Loads a URL into a view using the view's own scale type.
+     */
+    public static void load(ImageView view, String url) {
+        Glide.with(view)
+                .load(url)
+                .into(view);
+    }
+
+    /**
+     * Loads a URL scaled to fit inside the view.
+     */
+    public static void loadFit(ImageView view, String url) {
+        Glide.with(view)
+                .load(url)
+                .fitCenter()
+                .into(view);
+    }
+
+    /**
+     * Loads a local file as a center-cropped thumbnail.
+     */
+    public static void loadThumbnail(ImageView view, File file, @DrawableRes int placeholder) {
+        Glide.with(view)
+                .load(file)
+                .placeholder(placeholder)
+                .centerCrop()
+                .into(view);
+    }
+
+    /**
+     * Loads a grid cell through the thumbnail tier; {@code cellRequests} comes from
+     * {@link ThumbnailCache#forCell(int, int)} and is shared with the grid's prefetcher.
+     */
+    public static void loadCell(ImageView view, ImagePrefetchScheduler.RequestFactory cellRequests, String url,
+                                @DrawableRes int placeholder, @DrawableRes int error) {
+        cellRequests.build(Glide.with(view), url)
+                .placeholder(placeholder)
+                .error(error)
+                .into(view);
+    }
+
+    /**
+     * Fetches the original bytes of a URL as a file (from the disk cache when possible), for
+     * viewers that decode it themselves such as SubsamplingScaleImageView.
+     */
+    public static FileRequest loadFile(View owner, String url, FileCallback callback) {
+        CustomTarget<File> target = Glide.with(owner)
+                .downloadOnly()
+                .load(url)
+                .into(new CustomTarget<File>() {
+                    @Override
+                    public void onResourceReady(@NonNull File resource, @Nullable Transition<? super File> transition) {
+                        callback.onFileReady(resource);
+                    }
+
+                    @Override
+                    public void onLoadCleared(@Nullable Drawable placeholder) {
+                        // The file stays in the disk cache; nothing to release
+                    }
+                });
+        return new FileRequest(target);
+    }
+
+    public static void cancel(View owner, @Nullable FileRequest request) {
+        if (request != null) {
+            Glide.with(owner).clear(request.target);
+        }
+    }
+
+    /**
+     * Loads a URL with the disk cache keeping both the original and the resized result.
+     */
+    public static void loadCached(ImageView view, String url) {
+        Glide.with(view)
+                .load(url)
+                .diskCacheStrategy(DiskCacheStrategy.ALL)
+                .into(view);
+    }
+
+    /**
+     * Registers the memory-pressure hook once per process. Called from the Glide module when
+     * the engine is first built.
+     */
+    public static synchronized void registerMemoryPressureHook(Context context) {
+        if (hookRegistered) {
+            return;
+        }
+        hookRegistered = true;
+        Context appContext = context.getApplicationContext();
+        appContext.registerComponentCallbacks(new MemoryPressureHook(appContext));
+    }
+
+    /**
+     * Glide trims its own caches on {@code onTrimMemory}; this hook is more aggressive so a
+     * backgrounded or pressured app gives decoded images back before anything else.
+     */
+    private static class MemoryPressureHook implements ComponentCallbacks2 {
+        private final Context appContext;
+
+        MemoryPressureHook(Context appContext) {
+            this.appContext = appContext;
+        }
+
+        @Override
+        public void onTrimMemory(int level) {
+            if (level >= TRIM_MEMORY_RUNNING_LOW) {
+                // Memory cache and bitmap pool can be rebuilt from the disk cache
+                Glide.get(appContext).clearMemory();
+                Log.d(TAG, "🧹 onTrimMemory(" + level + "), cleared image memory caches");
+            } else {
+                Glide.get(appContext).trimMemory(level);
+            }
+        }
+
+        @Override
+        public void onLowMemory() {
+            Glide.get(appContext).clearMemory();
+        }
+
+        @Override
+        public void onConfigurationChanged(@NonNull Configuration newConfig) {
+            // Image caches do not depend on configuration
+        }
+    }
+}
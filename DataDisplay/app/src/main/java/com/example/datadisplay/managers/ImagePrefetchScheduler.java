@@ -0,0 +1,274 @@
+package com.example.datadisplay.managers;
+
+import android.graphics.Bitmap;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Viewport-aware Glide prefetcher for image grids.
+ * <p>
+ * Tracks scroll velocity and direction to size a window of rows ahead of the viewport, issues
+ * each position with the grid's own cell request, and cancels prefetches that leave the window
+ * before they are shown. A finished prefetch is never issued again; a cancelled one may be once its
+ * position comes back into the window. Counters report hits, wasted prefetches (finished but never
+ * shown), cancellations and decoded bytes.
+ * All methods run on the main thread.
+ */
+public class ImagePrefetchScheduler extends RecyclerView.OnScrollListener
+        implements RecyclerView.OnChildAttachStateChangeListener {
+
+    private static final String TAG = "ImagePrefetchScheduler";
+
+    /**
+     * Builds the same request the adapter uses for a cell (including its size), so a prefetch
+     * warms the exact cache entry the cell will ask for.
+     */
+    public interface RequestFactory {
+        RequestBuilder<Bitmap> build(RequestManager requestManager, String url);
+    }
+
+    private static final int BASE_ROWS_AHEAD = 2;
+    private static final int MAX_ROWS_AHEAD = 8;
+    private static final int ROWS_BEHIND = 1;
+    // Rows of look-ahead gained per row/second of scroll speed
+    private static final float LOOKAHEAD_SECONDS = 0.5f;
+    // Above this speed cells fly past; wait for the fling to slow before issuing new work
+    private static final float FLING_SKIP_ROWS_PER_SECOND = 40f;
+    private static final float VELOCITY_SMOOTHING = 0.3f;
+
+    private final RecyclerView recyclerView;
+    private final GridLayoutManager layoutManager;
+    private final RequestManager requestManager;
+    private final RequestFactory requestFactory;
+    private final Map<Integer, Prefetch> prefetches = new HashMap<>();
+    // Positions issued for the current URL list and not cancelled, so finished work is never repeated
+    private final Set<Integer> issuedPositions = new HashSet<>();
+
+    private List<String> urls;
+    private float rowsPerSecond = 0f;
+    private int direction = 1;
+    private long lastScrollTime = 0;
+
+    private int issuedCount = 0;
+    private int hitCount = 0;
+    private int wastedCount = 0;
+    private int cancelledCount = 0;
+    private long decodedBytes = 0;
+
+    public ImagePrefetchScheduler(RecyclerView recyclerView, GridLayoutManager layoutManager,
+                                  RequestFactory requestFactory) {
+        this.recyclerView = recyclerView;
+        this.layoutManager = layoutManager;
+        this.requestManager = Glide.with(recyclerView);
+        this.requestFactory = requestFactory;
+        recyclerView.addOnScrollListener(this);
+        recyclerView.addOnChildAttachStateChangeListener(this);
+    }
+
+    /**
+     * Replaces the URL list backing the grid and restarts prefetching from the viewport.
+     */
+    public void setUrls(List<String> urls) {
+        clear();
+        this.urls = urls;
+        recyclerView.post(this::updateWindow);
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+        long now = SystemClock.uptimeMillis();
+        long elapsed = now - lastScrollTime;
+        lastScrollTime = now;
+
+        int rowHeight = getRowHeight();
+        if (dy != 0 && elapsed > 0 && elapsed < 500 && rowHeight > 0) {
+            float instant = Math.abs(dy) * 1000f / elapsed / rowHeight;
+            rowsPerSecond += (instant - rowsPerSecond) * VELOCITY_SMOOTHING;
+        }
+        if (dy != 0) {
+            direction = dy > 0 ? 1 : -1;
+        }
+        updateWindow();
+    }
+
+    @Override
+    public void onScrollStateChanged(@NonNull RecyclerView rv, int newState) {
+        if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+            rowsPerSecond = 0f;
+            updateWindow();
+        }
+    }
+
+    @Override
+    public void onChildViewAttachedToWindow(@NonNull View view) {
+        int position = recyclerView.getChildAdapterPosition(view);
+        Prefetch prefetch = prefetches.remove(position);
+        if (prefetch != null) {
+            // The cell's own request picks up the prefetched (or still running) load
+            hitCount++;
+        }
+    }
+
+    @Override
+    public void onChildViewDetachedFromWindow(@NonNull View view) {
+        // Nothing to do; detached cells fall back into the window logic
+    }
+
+    /**
+     * Cancels every outstanding prefetch, e.g. when the screen is destroyed.
+     */
+    public void cancelAll() {
+        for (Map.Entry<Integer, Prefetch> entry : prefetches.entrySet()) {
+            cancel(entry.getKey(), entry.getValue());
+        }
+        prefetches.clear();
+    }
+
+    /**
+     * Cancels every outstanding prefetch and forgets which positions were issued.
+     */
+    public void clear() {
+        cancelAll();
+        issuedPositions.clear();
+    }
+
+    public String getMetricsSummary() {
+        return "issued=" + issuedCount
+                + " | hits=" + hitCount
+                + " | wasted=" + wastedCount
+                + " | cancelled=" + cancelledCount
+                + " | bytes=" + decodedBytes
+                + " | inFlight=" + prefetches.size();
+    }
+
+    public void logMetrics() {
+        Log.d(TAG, "📊 Prefetch metrics | " + getMetricsSummary());
+    }
+
+    private void updateWindow() {
+        if (urls == null || urls.isEmpty()) {
+            return;
+        }
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION || last == RecyclerView.NO_POSITION) {
+            return;
+        }
+
+        int span = layoutManager.getSpanCount();
+        int rowsAhead = Math.min(MAX_ROWS_AHEAD, BASE_ROWS_AHEAD + Math.round(rowsPerSecond * LOOKAHEAD_SECONDS));
+        int start;
+        int end;
+        if (direction > 0) {
+            start = Math.max(0, first - ROWS_BEHIND * span);
+            end = Math.min(urls.size() - 1, last + rowsAhead * span);
+        } else {
+            start = Math.max(0, first - rowsAhead * span);
+            end = Math.min(urls.size() - 1, last + ROWS_BEHIND * span);
+        }
+
+        // Drop work that left the window before it was ever shown
+        Iterator<Map.Entry<Integer, Prefetch>> iterator = prefetches.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Prefetch> entry = iterator.next();
+            int position = entry.getKey();
+            if (position < start || position > end) {
+                cancel(position, entry.getValue());
+                iterator.remove();
+            }
+        }
+
+        if (rowsPerSecond > FLING_SKIP_ROWS_PER_SECOND) {
+            return;
+        }
+
+        // Issue nearest-first in the scroll direction so the next row lands first
+        if (direction > 0) {
+            for (int position = last + 1; position <= end; position++) {
+                issue(position);
+            }
+            for (int position = first - 1; position >= start; position--) {
+                issue(position);
+            }
+        } else {
+            for (int position = first - 1; position >= start; position--) {
+                issue(position);
+            }
+            for (int position = last + 1; position <= end; position++) {
+                issue(position);
+            }
+        }
+    }
+
+    private void issue(int position) {
+        if (!issuedPositions.add(position)) {
+            return;
+        }
+        Prefetch prefetch = new Prefetch();
+        prefetch.target = requestFactory
+                .build(requestManager, urls.get(position))
+                .addListener(new RequestListener<Bitmap>() {
+                    @Override
+                    public boolean onLoadFailed(@Nullable GlideException e, Object model,
+                                                @NonNull Target<Bitmap> target, boolean isFirstResource) {
+                        return false;
+                    }
+
+                    @Override
+                    public boolean onResourceReady(@NonNull Bitmap resource, @NonNull Object model,
+                                                   Target<Bitmap> target, @NonNull DataSource dataSource,
+                                                   boolean isFirstResource) {
+                        if (dataSource != DataSource.MEMORY_CACHE) {
+                            decodedBytes += resource.getAllocationByteCount();
+                        }
+                        prefetch.done = true;
+                        return false;
+                    }
+                })
+                .preload();
+        prefetches.put(position, prefetch);
+        issuedCount++;
+    }
+
+    // Only called for prefetches that were never shown; attached cells take theirs out of the map
+    private void cancel(int position, Prefetch prefetch) {
+        if (prefetch.done) {
+            wastedCount++;
+        } else {
+            cancelledCount++;
+            issuedPositions.remove(position);
+        }
+        requestManager.clear(prefetch.target);
+    }
+
+    private int getRowHeight() {
+        View child = recyclerView.getChildCount() > 0 ? recyclerView.getChildAt(0) : null;
+        return child != null ? child.getHeight() : 0;
+    }
+
+    private static class Prefetch {
+        Target<Bitmap> target;
+        boolean done;
+    }
+}
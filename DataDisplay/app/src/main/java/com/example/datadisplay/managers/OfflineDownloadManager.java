@@ -6,10 +6,14 @@ import android.content.SharedPreferences;
 import android.database.Cursor;
 import android.net.Uri;
 import android.os.Environment;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import com.example.datadisplay.managers.OfflineResourceManager.ResourceType;
 import com.example.datadisplay.utils.NetworkHelper;
+import com.example.datadisplay.utils.RangedDownloader;
+import com.example.datadisplay.utils.SegmentedDownloader;
 
 import org.json.JSONObject;
 
@@ -21,53 +25,109 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages batch downloads for offline access.
+ * <p>
+ * Downloads go through the shared {@link DownloadScheduler}, which starts them a few at a time;
+ * the listener hears about a download once it actually starts. They run on the system
+ * DownloadManager or, with {@link Engine#IN_APP}, on the resumable {@link HttpDownloadEngine}.
  */
 public class OfflineDownloadManager {
 
     private static final String TAG = "OfflineDownloadManager";
     private static final String PREF_DOWNLOADS = "ActiveDownloads";
+    private static final String KEY_ENGINE = "engine";
+
+    public enum Engine {
+        SYSTEM,
+        IN_APP
+    }
 
     private final Context context;
     private final DownloadManager downloadManager;
     private final OfflineResourceManager resourceManager;
     private final SharedPreferences downloadPrefs;
+    // Per-download records, journaled so a large folder does not rewrite the file per download
+    private final PrefsJournal downloadJournal;
 
     private final Map<Long, DownloadInfo> activeDownloads = new ConcurrentHashMap<>();
     private final List<DownloadListener> listeners = new ArrayList<>();
+    private final DownloadScheduler scheduler;
+    private final HttpDownloadEngine httpEngine;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final DownloadScheduler.Listener queueListener = new DownloadScheduler.Listener() {
+        @Override
+        public void onQueueChanged(int queueDepth, int inFlight, long bytesPerSecond) {
+            for (DownloadListener listener : listeners) {
+                listener.onQueueChanged(queueDepth, inFlight, bytesPerSecond);
+            }
+        }
+
+        @Override
+        public void onDequeued(String url, String title) {
+            notifyDownloadCancelled(url, title);
+        }
+
+        @Override
+        public void onStartFailed(String url, String title) {
+            notifyDownloadFailed(url, title, "Download could not be started");
+        }
+    };
 
     public OfflineDownloadManager(Context context) {
         this.context = context.getApplicationContext();
         this.downloadManager = (DownloadManager) context.getSystemService(Context.DOWNLOAD_SERVICE);
         this.resourceManager = new OfflineResourceManager(context);
         this.downloadPrefs = context.getSharedPreferences(PREF_DOWNLOADS, Context.MODE_PRIVATE);
+        this.downloadJournal = PrefsJournal.getInstance(context, PREF_DOWNLOADS);
+        this.scheduler = DownloadScheduler.getInstance(context);
+        this.httpEngine = HttpDownloadEngine.getInstance(context);
 
         restoreActiveDownloads();
     }
 
-    public long downloadResource(String url, String title, ResourceType type) {
+    /**
+     * Queues a download.
+     *
+     * @return true when the download was queued (or is already waiting in the queue)
+     */
+    public boolean downloadResource(String url, String title, ResourceType type) {
         return downloadResource(url, title, type, false);
     }
 
-    public long downloadResource(String url, String title, ResourceType type, boolean wifiOnly) {
-        return downloadResource(url, title, type, wifiOnly, null);
+    public boolean downloadResource(String url, String title, ResourceType type, boolean wifiOnly) {
+        return downloadResource(url, title, type, wifiOnly, -1);
+    }
+
+    /**
+     * @param expectedLength the size the catalog lists for the file, or -1; the in-app engine
+     *                       rejects a download of any other size
+     */
+    public boolean downloadResource(String url, String title, ResourceType type, boolean wifiOnly,
+                                    long expectedLength) {
+        return downloadResource(url, title, type, wifiOnly, null, null, expectedLength);
     }
 
-    private long downloadResource(String url, String title, ResourceType type, boolean wifiOnly, String subFolderName) {
+    private boolean downloadResource(String url, String title, ResourceType type, boolean wifiOnly,
+                                     String subFolderName, String queueGroup, long expectedLength) {
         if (url == null || url.isEmpty()) {
             Log.e(TAG, "Invalid URL for download");
-            return -1;
+            return false;
         }
 
         if (resourceManager.isAvailableOffline(url)) {
             Log.d(TAG, "Resource already available offline: " + url);
             notifyDownloadComplete(url, title);
-            return -1;
+            return false;
         }
 
         if (wifiOnly && !NetworkHelper.isWiFiConnected(context)) {
             Log.w(TAG, "WiFi required but not connected");
             notifyDownloadFailed(url, title, "WiFi connection required");
-            return -1;
+            return false;
+        }
+
+        if (isDownloading(url)) {
+            Log.d(TAG, "Already downloading: " + url);
+            return true;
         }
 
         try {
@@ -87,7 +147,30 @@ public class OfflineDownloadManager {
             }
 
             File destinationFile = new File(destinationDir, filename);
+            String publicPath = relativePath + "/" + filename;
+
+            if (getEngine() == Engine.IN_APP) {
+                scheduler.enqueue(url, title, queueGroup, destinationFile,
+                        () -> startHttpDownload(url, title, type, destinationFile, expectedLength));
+            } else {
+                scheduler.enqueue(url, title, queueGroup, destinationFile,
+                        () -> startDownload(url, title, type, wifiOnly, publicPath, destinationFile));
+            }
+            return true;
 
+        } catch (Exception e) {
+            Log.e(TAG, "Error queueing download: " + e.getMessage(), e);
+            notifyDownloadFailed(url, title, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Hands a queued download to DownloadManager; called by the scheduler when a slot frees up.
+     */
+    private long startDownload(String url, String title, ResourceType type, boolean wifiOnly,
+                               String publicPath, File destinationFile) {
+        try {
             DownloadManager.Request request = new DownloadManager.Request(Uri.parse(url));
             request.setTitle(title);
             request.setDescription("Downloading for offline access");
@@ -106,7 +189,7 @@ public class OfflineDownloadManager {
 
             request.setDestinationInExternalPublicDir(
                     Environment.DIRECTORY_DOWNLOADS,
-                    relativePath + "/" + filename
+                    publicPath
             );
 
             long downloadId = downloadManager.enqueue(request);
@@ -119,52 +202,96 @@ public class OfflineDownloadManager {
             return downloadId;
 
         } catch (Exception e) {
+            // The scheduler reports the failure once the slot is released
             Log.e(TAG, "Error starting download: " + e.getMessage(), e);
-            notifyDownloadFailed(url, title, e.getMessage());
             return -1;
         }
     }
 
-    public List<Long> downloadFolder(String folderName, List<String> imageUrls, boolean wifiOnly) {
+    /**
+     * Runs a queued download on the in-app engine. Only the queue checks for Wi-Fi; the transfer
+     * itself does not pause when the network changes, but a dropped connection resumes. Audio
+     * files are large enough to be fetched in parallel segments.
+     */
+    private long startHttpDownload(String url, String title, ResourceType type, File destinationFile,
+                                   long expectedLength) {
+        boolean segmented = type == ResourceType.AUDIO;
+        long transferId = httpEngine.start(url, destinationFile, segmented, expectedLength,
+                new HttpDownloadEngine.Callback() {
+                    @Override
+                    public void onProgress(long transferId, int percent) {
+                        mainHandler.post(() -> notifyDownloadProgress(url, percent));
+                    }
+
+                    @Override
+                    public void onFinished(long transferId, boolean successful, String error) {
+                        mainHandler.post(() -> {
+                            activeDownloads.remove(transferId);
+                            if (successful) {
+                                resourceManager.markAsOffline(url, destinationFile.getAbsolutePath(), type);
+                                notifyDownloadComplete(url, title);
+                            } else {
+                                notifyDownloadFailed(url, title, error);
+                            }
+                            scheduler.onTransferFinished(transferId, successful);
+                        });
+                    }
+                });
+
+        activeDownloads.put(transferId, new DownloadInfo(transferId, url, title, type, destinationFile.getAbsolutePath()));
+        notifyDownloadStarted(url, title);
+        return transferId;
+    }
+
+    /**
+     * Queues every image of a folder; returns how many were queued.
+     */
+    public int downloadFolder(String folderName, List<String> imageUrls, boolean wifiOnly) {
         return downloadFolder(folderName, imageUrls, ResourceType.PHOTO, wifiOnly);
     }
 
-    public List<Long> downloadFolder(String folderName, List<String> imageUrls, ResourceType type, boolean wifiOnly) {
-        List<Long> downloadIds = new ArrayList<>();
+    public int downloadFolder(String folderName, List<String> imageUrls, ResourceType type, boolean wifiOnly) {
+        return downloadFolder(folderName, null, imageUrls, type, wifiOnly);
+    }
+
+    /**
+     * Queues every image of a folder under its canonical catalog path, so same-named folders in
+     * different branches take separate turns in the queue; returns how many were queued.
+     */
+    public int downloadFolder(String folderName, String folderPath, List<String> imageUrls,
+                              ResourceType type, boolean wifiOnly) {
+        int queued = 0;
+        String queueGroup = folderPath != null ? folderPath : folderName;
 
         if (imageUrls == null || imageUrls.isEmpty()) {
-            return downloadIds;
+            return queued;
         }
 
         for (String url : imageUrls) {
-            String title = folderName + " - Image " + (downloadIds.size() + 1);
-            long id = downloadResource(url, title, type, wifiOnly, folderName);
-
-            if (id != -1) {
-                downloadIds.add(id);
+            String title = folderName + " - Image " + (queued + 1);
+            if (downloadResource(url, title, type, wifiOnly, folderName, queueGroup, -1)) {
+                queued++;
             }
         }
 
-        return downloadIds;
+        return queued;
     }
 
-    public List<Long> downloadAudioCategory(String categoryName, List<AudioFile> audioFiles, boolean wifiOnly) {
-        List<Long> downloadIds = new ArrayList<>();
+    public int downloadAudioCategory(String categoryName, List<AudioFile> audioFiles, boolean wifiOnly) {
+        int queued = 0;
 
         if (audioFiles == null || audioFiles.isEmpty()) {
-            return downloadIds;
+            return queued;
         }
 
         for (AudioFile audio : audioFiles) {
-            String title = audio.title;
-            long id = downloadResource(audio.url, title, ResourceType.AUDIO, wifiOnly);
-
-            if (id != -1) {
-                downloadIds.add(id);
+            // Tracks of one category share a queue group, so categories take turns
+            if (downloadResource(audio.url, audio.title, ResourceType.AUDIO, wifiOnly, null, categoryName, audio.size)) {
+                queued++;
             }
         }
 
-        return downloadIds;
+        return queued;
     }
 
     public int getDownloadProgress(long downloadId) {
@@ -222,7 +349,13 @@ public class OfflineDownloadManager {
     }
 
     public void cancelDownload(long downloadId) {
-        downloadManager.remove(downloadId);
+        boolean inApp = HttpDownloadEngine.isTransferId(downloadId);
+        if (inApp) {
+            httpEngine.cancel(downloadId);
+            scheduler.onTransferFinished(downloadId, false);
+        } else {
+            downloadManager.remove(downloadId);
+        }
 
         DownloadInfo info = activeDownloads.remove(downloadId);
         if (info != null) {
@@ -232,12 +365,18 @@ public class OfflineDownloadManager {
             if (file.exists()) {
                 file.delete();
             }
+            if (inApp) {
+                new File(info.localPath + RangedDownloader.PART_SUFFIX).delete();
+                new File(info.localPath + RangedDownloader.PART_SUFFIX + SegmentedDownloader.SEGMENTS_SUFFIX).delete();
+                new File(info.localPath + RangedDownloader.PART_SUFFIX + RangedDownloader.VALIDATOR_SUFFIX).delete();
+            }
         }
 
         removeDownloadInfo(downloadId);
     }
 
     public void cancelAllDownloads() {
+        scheduler.clearQueue();
         List<Long> downloadIds = new ArrayList<>(activeDownloads.keySet());
         for (Long id : downloadIds) {
             cancelDownload(id);
@@ -267,7 +406,25 @@ public class OfflineDownloadManager {
         removeDownloadInfo(downloadId);
     }
 
+    /**
+     * Chooses the engine for downloads queued from now on; persisted.
+     */
+    public void setEngine(Engine engine) {
+        downloadPrefs.edit().putString(KEY_ENGINE, engine.name()).apply();
+    }
+
+    public Engine getEngine() {
+        try {
+            return Engine.valueOf(downloadPrefs.getString(KEY_ENGINE, Engine.SYSTEM.name()));
+        } catch (IllegalArgumentException e) {
+            return Engine.SYSTEM;
+        }
+    }
+
     public boolean isDownloading(String url) {
+        if (scheduler.isQueued(url)) {
+            return true;
+        }
         for (DownloadInfo info : activeDownloads.values()) {
             if (info.url.equals(url)) {
                 return true;
@@ -292,10 +449,14 @@ public class OfflineDownloadManager {
         if (!listeners.contains(listener)) {
             listeners.add(listener);
         }
+        scheduler.addListener(queueListener);
     }
 
     public void removeListener(DownloadListener listener) {
         listeners.remove(listener);
+        if (listeners.isEmpty()) {
+            scheduler.removeListener(queueListener);
+        }
     }
 
     private void notifyDownloadStarted(String url, String title) {
@@ -316,6 +477,12 @@ public class OfflineDownloadManager {
         }
     }
 
+    private void notifyDownloadProgress(String url, int progress) {
+        for (DownloadListener listener : listeners) {
+            listener.onDownloadProgress(url, progress);
+        }
+    }
+
     private void notifyDownloadCancelled(String url, String title) {
         for (DownloadListener listener : listeners) {
             listener.onDownloadCancelled(url, title);
@@ -384,9 +551,7 @@ public class OfflineDownloadManager {
             json.put("localPath", info.localPath);
             json.put("startTime", info.startTime);
 
-            downloadPrefs.edit()
-                    .putString("download_" + downloadId, json.toString())
-                    .apply();
+            downloadJournal.putString("download_" + downloadId, json.toString());
         } catch (Exception e) {
             Log.e(TAG, "Error saving download info: " + e.getMessage());
         }
@@ -394,7 +559,7 @@ public class OfflineDownloadManager {
 
     private DownloadInfo loadDownloadInfo(long downloadId) {
         try {
-            String jsonStr = downloadPrefs.getString("download_" + downloadId, null);
+            String jsonStr = downloadJournal.getString("download_" + downloadId, null);
             if (jsonStr != null) {
                 JSONObject json = new JSONObject(jsonStr);
                 String url = json.getString("url");
@@ -412,25 +577,23 @@ public class OfflineDownloadManager {
     }
 
     private void removeDownloadInfo(long downloadId) {
-        downloadPrefs.edit()
-                .remove("download_" + downloadId)
-                .apply();
+        downloadJournal.remove("download_" + downloadId);
     }
 
+    /**
+     * Reloads downloads started by an earlier process. The journal has already replayed any
+     * records that process had not committed, so none are lost to a crash.
+     */
     private void restoreActiveDownloads() {
-        Map<String, ?> allPrefs = downloadPrefs.getAll();
-
-        for (Map.Entry<String, ?> entry : allPrefs.entrySet()) {
-            if (entry.getKey().startsWith("download_")) {
-                try {
-                    long downloadId = Long.parseLong(entry.getKey().substring(9));
-                    DownloadInfo info = loadDownloadInfo(downloadId);
-                    if (info != null) {
-                        activeDownloads.put(downloadId, info);
-                    }
-                } catch (NumberFormatException e) {
-                    Log.w(TAG, "Invalid download ID in prefs: " + entry.getKey());
+        for (String key : downloadJournal.keysWithPrefix("download_")) {
+            try {
+                long downloadId = Long.parseLong(key.substring(9));
+                DownloadInfo info = loadDownloadInfo(downloadId);
+                if (info != null) {
+                    activeDownloads.put(downloadId, info);
                 }
+            } catch (NumberFormatException e) {
+                Log.w(TAG, "Invalid download ID in prefs: " + key);
             }
         }
     }
@@ -456,10 +619,17 @@ public class OfflineDownloadManager {
     public static class AudioFile {
         public String url;
         public String title;
+        // Size in bytes when the catalog lists it, otherwise -1
+        public long size;
 
         public AudioFile(String url, String title) {
+            this(url, title, -1);
+        }
+
+        public AudioFile(String url, String title, long size) {
             this.url = url;
             this.title = title;
+            this.size = size;
         }
     }
 
@@ -483,5 +653,10 @@ public class OfflineDownloadManager {
         void onDownloadCancelled(String url, String title);
 
         void onDownloadProgress(String url, int progress);
+
+        /**
+         * Queue depth, downloads handed to DownloadManager, and bytes/second over the current batch.
+         */
+        void onQueueChanged(int queueDepth, int inFlight, long bytesPerSecond);
     }
 }
@@ -1,13 +1,11 @@
 package com.example.datadisplay.managers;
 
 import android.content.Context;
-import android.content.SharedPreferences;
 import android.os.Environment;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -25,7 +23,8 @@ public class OfflineResourceManager {
     public static final String PUBLIC_OFFLINE_BASE_PATH = "DataDisplay/Offline";
 
     private final Context context;
-    private final SharedPreferences prefs;
+    // Download bookkeeping changes per file; it is journaled and committed in batches
+    private final PrefsJournal journal;
 
     public enum ResourceType {
         PHOTO("photos"),
@@ -46,7 +45,7 @@ public class OfflineResourceManager {
 
     public OfflineResourceManager(Context context) {
         this.context = context.getApplicationContext();
-        this.prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        this.journal = PrefsJournal.getInstance(context, PREF_NAME);
     }
 
     public boolean isAvailableOffline(String url) {
@@ -63,12 +62,11 @@ public class OfflineResourceManager {
             return null;
         }
 
-        Set<String> offlineUrls = prefs.getStringSet(KEY_OFFLINE_URLS, new HashSet<>());
-        if (!offlineUrls.contains(url)) {
+        if (!journal.setContains(KEY_OFFLINE_URLS, url)) {
             return null;
         }
 
-        String localPath = prefs.getString(KEY_OFFLINE_PATHS + "_" + url.hashCode(), null);
+        String localPath = journal.getString(KEY_OFFLINE_PATHS + "_" + url.hashCode(), null);
 
         if (localPath != null) {
             File file = new File(localPath);
@@ -89,21 +87,16 @@ public class OfflineResourceManager {
     }
 
     public void markAsOffline(String url, String localPath, ResourceType type) {
-        Set<String> offlineUrls = new HashSet<>(prefs.getStringSet(KEY_OFFLINE_URLS, new HashSet<>()));
-        offlineUrls.add(url);
-
-        SharedPreferences.Editor editor = prefs.edit();
-        editor.putStringSet(KEY_OFFLINE_URLS, offlineUrls);
-        editor.putString(KEY_OFFLINE_PATHS + "_" + url.hashCode(), localPath);
-        editor.putString(KEY_OFFLINE_TYPES + "_" + url.hashCode(), type.name());
-        editor.apply();
+        journal.addToSet(KEY_OFFLINE_URLS, url);
+        journal.putString(KEY_OFFLINE_PATHS + "_" + url.hashCode(), localPath);
+        journal.putString(KEY_OFFLINE_TYPES + "_" + url.hashCode(), type.name());
 
         File file = new File(localPath);
         android.util.Log.d("OfflineResourceMgr", "Marked as offline: " + localPath);
         android.util.Log.d("OfflineResourceMgr", "URL: " + url);
         android.util.Log.d("OfflineResourceMgr", "Type: " + type.name());
         android.util.Log.d("OfflineResourceMgr", "File exists: " + file.exists());
-        android.util.Log.d("OfflineResourceMgr", "Total offline items: " + offlineUrls.size());
+        android.util.Log.d("OfflineResourceMgr", "Total offline items: " + journal.getStringSet(KEY_OFFLINE_URLS).size());
     }
 
     @Deprecated
@@ -113,18 +106,10 @@ public class OfflineResourceManager {
     }
 
     public void removeOfflineStatus(String url) {
-        Set<String> offlineUrls = new HashSet<>(prefs.getStringSet(KEY_OFFLINE_URLS, new HashSet<>()));
-        offlineUrls.remove(url);
-
-        Set<String> priorityUrls = new HashSet<>(prefs.getStringSet(KEY_PRIORITY_URLS, new HashSet<>()));
-        priorityUrls.remove(url);
-
-        SharedPreferences.Editor editor = prefs.edit();
-        editor.putStringSet(KEY_OFFLINE_URLS, offlineUrls);
-        editor.putStringSet(KEY_PRIORITY_URLS, priorityUrls);
-        editor.remove(KEY_OFFLINE_PATHS + "_" + url.hashCode());
-        editor.remove(KEY_OFFLINE_TYPES + "_" + url.hashCode());
-        editor.apply();
+        journal.removeFromSet(KEY_OFFLINE_URLS, url);
+        journal.removeFromSet(KEY_PRIORITY_URLS, url);
+        journal.remove(KEY_OFFLINE_PATHS + "_" + url.hashCode());
+        journal.remove(KEY_OFFLINE_TYPES + "_" + url.hashCode());
     }
 
     public String findUrlByLocalPath(String localPath) {
@@ -133,10 +118,10 @@ public class OfflineResourceManager {
         }
 
         String targetPath = new File(localPath).getAbsolutePath();
-        Set<String> offlineUrls = prefs.getStringSet(KEY_OFFLINE_URLS, new HashSet<>());
+        Set<String> offlineUrls = journal.getStringSet(KEY_OFFLINE_URLS);
 
         for (String url : offlineUrls) {
-            String storedPath = prefs.getString(KEY_OFFLINE_PATHS + "_" + url.hashCode(), null);
+            String storedPath = journal.getString(KEY_OFFLINE_PATHS + "_" + url.hashCode(), null);
             if (storedPath == null) {
                 continue;
             }
@@ -157,22 +142,19 @@ public class OfflineResourceManager {
     }
 
     public void markAsOfflinePriority(String url) {
-        Set<String> priorityUrls = new HashSet<>(prefs.getStringSet(KEY_PRIORITY_URLS, new HashSet<>()));
-        priorityUrls.add(url);
-        prefs.edit().putStringSet(KEY_PRIORITY_URLS, priorityUrls).apply();
+        journal.addToSet(KEY_PRIORITY_URLS, url);
     }
 
     public boolean isPriority(String url) {
-        Set<String> priorityUrls = prefs.getStringSet(KEY_PRIORITY_URLS, new HashSet<>());
-        return priorityUrls.contains(url);
+        return journal.setContains(KEY_PRIORITY_URLS, url);
     }
 
     public List<String> getOfflineUrls(ResourceType type) {
-        Set<String> allUrls = prefs.getStringSet(KEY_OFFLINE_URLS, new HashSet<>());
+        Set<String> allUrls = journal.getStringSet(KEY_OFFLINE_URLS);
         List<String> filteredUrls = new ArrayList<>();
 
         for (String url : allUrls) {
-            String storedTypeName = prefs.getString(KEY_OFFLINE_TYPES + "_" + url.hashCode(), null);
+            String storedTypeName = journal.getString(KEY_OFFLINE_TYPES + "_" + url.hashCode(), null);
             ResourceType urlType;
 
             if (storedTypeName != null) {
@@ -268,8 +250,8 @@ public class OfflineResourceManager {
     }
 
     public void clearOfflineCache(boolean includePriority) {
-        Set<String> priorityUrls = prefs.getStringSet(KEY_PRIORITY_URLS, new HashSet<>());
-        Set<String> offlineUrls = new HashSet<>(prefs.getStringSet(KEY_OFFLINE_URLS, new HashSet<>()));
+        Set<String> priorityUrls = journal.getStringSet(KEY_PRIORITY_URLS);
+        Set<String> offlineUrls = journal.getStringSet(KEY_OFFLINE_URLS);
 
         for (String url : offlineUrls) {
             if (!includePriority && priorityUrls.contains(url)) {
@@ -286,8 +268,8 @@ public class OfflineResourceManager {
     }
 
     public void clearOldOfflineResources(int daysOld) {
-        Set<String> priorityUrls = prefs.getStringSet(KEY_PRIORITY_URLS, new HashSet<>());
-        Set<String> offlineUrls = new HashSet<>(prefs.getStringSet(KEY_OFFLINE_URLS, new HashSet<>()));
+        Set<String> priorityUrls = journal.getStringSet(KEY_PRIORITY_URLS);
+        Set<String> offlineUrls = journal.getStringSet(KEY_OFFLINE_URLS);
         long cutoffTime = System.currentTimeMillis() - (daysOld * 24L * 60L * 60L * 1000L);
 
         for (String url : offlineUrls) {
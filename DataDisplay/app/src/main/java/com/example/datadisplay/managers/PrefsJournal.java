@@ -0,0 +1,395 @@
+package com.example.datadisplay.managers;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind front for a SharedPreferences file that changes once per download.
+ * <p>
+ * SharedPreferences rewrites its whole XML file on every {@code apply()}, so recording each of
+ * hundreds of finished downloads costs time that grows with the file. Here a change is appended
+ * as one line to a journal next to it and kept in memory, where reads see it at once; a
+ * background thread then commits the accumulated changes in one batch and trims the journal. A
+ * journal left by a process that died before its flush is replayed into the preferences the next
+ * time the file is opened. String sets are mirrored in memory, so membership checks do not copy
+ * them.
+ */
+public class PrefsJournal {
+
+    private static final String TAG = "PrefsJournal";
+    private static final long FLUSH_DELAY_MS = 1000;
+    // Flush right away once this many changes are waiting
+    private static final int FLUSH_BATCH_SIZE = 64;
+
+    private static final char OP_PUT = 'P';
+    private static final char OP_REMOVE = 'R';
+    private static final char OP_SET_ADD = 'A';
+    private static final char OP_SET_REMOVE = 'D';
+
+    private static final Map<String, PrefsJournal> instances = new HashMap<>();
+    private static ScheduledExecutorService flusher;
+
+    private final String name;
+    private final SharedPreferences prefs;
+    private final File journalFile;
+
+    // Changes not yet committed; a null value is a removal
+    private final Map<String, String> strings = new HashMap<>();
+    private final Map<String, Set<String>> sets = new HashMap<>();
+    private final Set<String> dirtySets = new HashSet<>();
+
+    // Serializes flushes, so the journal is trimmed by one committer at a time
+    private final Object flushLock = new Object();
+
+    private Writer journal;
+    private int pendingOps = 0;
+    private boolean flushScheduled = false;
+
+    private PrefsJournal(Context context, String name) {
+        this.name = name;
+        this.prefs = context.getSharedPreferences(name, Context.MODE_PRIVATE);
+        this.journalFile = new File(context.getFilesDir(), name + ".journal");
+        recover();
+    }
+
+    /**
+     * Returns the journal for the preferences file {@code name}, shared by the whole process.
+     */
+    public static synchronized PrefsJournal getInstance(Context context, String name) {
+        PrefsJournal instance = instances.get(name);
+        if (instance == null) {
+            instance = new PrefsJournal(context.getApplicationContext(), name);
+            instances.put(name, instance);
+        }
+        return instance;
+    }
+
+    public synchronized String getString(String key, String defaultValue) {
+        if (strings.containsKey(key)) {
+            String value = strings.get(key);
+            return value != null ? value : defaultValue;
+        }
+        return prefs.getString(key, defaultValue);
+    }
+
+    public synchronized boolean contains(String key) {
+        if (strings.containsKey(key)) {
+            return strings.get(key) != null;
+        }
+        return prefs.contains(key);
+    }
+
+    /**
+     * Keys starting with {@code prefix}, including changes that are not committed yet.
+     */
+    public synchronized Set<String> keysWithPrefix(String prefix) {
+        Set<String> keys = new HashSet<>();
+        for (String key : prefs.getAll().keySet()) {
+            if (key.startsWith(prefix)) {
+                keys.add(key);
+            }
+        }
+        for (Map.Entry<String, String> entry : strings.entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                continue;
+            }
+            if (entry.getValue() != null) {
+                keys.add(entry.getKey());
+            } else {
+                keys.remove(entry.getKey());
+            }
+        }
+        return keys;
+    }
+
+    public synchronized boolean setContains(String key, String member) {
+        return set(key).contains(member);
+    }
+
+    /**
+     * A copy of the set, safe to iterate while it changes.
+     */
+    public synchronized Set<String> getStringSet(String key) {
+        return new HashSet<>(set(key));
+    }
+
+    public synchronized void putString(String key, String value) {
+        strings.put(key, value);
+        record(OP_PUT, key, value);
+    }
+
+    public synchronized void remove(String key) {
+        strings.put(key, null);
+        record(OP_REMOVE, key, "");
+    }
+
+    public synchronized void addToSet(String key, String member) {
+        if (set(key).add(member)) {
+            dirtySets.add(key);
+            record(OP_SET_ADD, key, member);
+        }
+    }
+
+    public synchronized void removeFromSet(String key, String member) {
+        if (set(key).remove(member)) {
+            dirtySets.add(key);
+            record(OP_SET_REMOVE, key, member);
+        }
+    }
+
+    /**
+     * Commits every waiting change now, on the calling thread.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            flushLocked();
+        }
+    }
+
+    private void flushLocked() {
+        Map<String, String> stringSnapshot;
+        Map<String, Set<String>> setSnapshot = new HashMap<>();
+        long journalLength;
+        synchronized (this) {
+            flushScheduled = false;
+            if (pendingOps == 0) {
+                return;
+            }
+            stringSnapshot = new HashMap<>(strings);
+            for (String key : dirtySets) {
+                setSnapshot.put(key, new HashSet<>(sets.get(key)));
+            }
+            dirtySets.clear();
+            closeJournal();
+            journalLength = journalFile.length();
+        }
+
+        // The slow part, a full rewrite of the XML file, runs without holding the lock
+        SharedPreferences.Editor editor = prefs.edit();
+        for (Map.Entry<String, String> entry : stringSnapshot.entrySet()) {
+            if (entry.getValue() != null) {
+                editor.putString(entry.getKey(), entry.getValue());
+            } else {
+                editor.remove(entry.getKey());
+            }
+        }
+        for (Map.Entry<String, Set<String>> entry : setSnapshot.entrySet()) {
+            editor.putStringSet(entry.getKey(), entry.getValue());
+        }
+        boolean committed = editor.commit();
+
+        synchronized (this) {
+            if (!committed) {
+                // Everything is still in the journal; try again with the next batch
+                Log.w(TAG, "⚠️ Commit failed for " + name + ", keeping journal");
+                dirtySets.addAll(setSnapshot.keySet());
+                scheduleFlush(FLUSH_DELAY_MS);
+                return;
+            }
+            for (Map.Entry<String, String> entry : stringSnapshot.entrySet()) {
+                // Keep entries that changed again while committing
+                String current = strings.get(entry.getKey());
+                if (strings.containsKey(entry.getKey())
+                        && (current == null ? entry.getValue() == null : current.equals(entry.getValue()))) {
+                    strings.remove(entry.getKey());
+                }
+            }
+            int flushed = pendingOps;
+            trimJournal(journalLength);
+            Log.d(TAG, "💾 Flushed " + name + " | " + (flushed - pendingOps) + " changes, "
+                    + stringSnapshot.size() + " keys, " + setSnapshot.size() + " sets");
+        }
+    }
+
+    private Set<String> set(String key) {
+        Set<String> set = sets.get(key);
+        if (set == null) {
+            set = new HashSet<>(prefs.getStringSet(key, Collections.emptySet()));
+            sets.put(key, set);
+        }
+        return set;
+    }
+
+    private void record(char op, String key, String value) {
+        try {
+            if (journal == null) {
+                journal = new OutputStreamWriter(new FileOutputStream(journalFile, true), StandardCharsets.UTF_8);
+            }
+            journal.write(op + "\t" + escape(key) + "\t" + escape(value != null ? value : "") + "\n");
+            // Reaches the OS right away, so it survives the process being killed
+            journal.flush();
+        } catch (IOException e) {
+            Log.e(TAG, "❌ Journal write failed for " + name + ": " + e.getMessage());
+            closeJournal();
+        }
+        pendingOps++;
+        if (pendingOps % FLUSH_BATCH_SIZE == 0) {
+            scheduleFlush(0);
+        } else if (!flushScheduled) {
+            scheduleFlush(FLUSH_DELAY_MS);
+        }
+    }
+
+    private void scheduleFlush(long delayMs) {
+        flushScheduled = true;
+        executor().schedule(this::flush, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static synchronized ScheduledExecutorService executor() {
+        if (flusher == null) {
+            flusher = Executors.newSingleThreadScheduledExecutor();
+        }
+        return flusher;
+    }
+
+    private void closeJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException ignored) {
+                // Already flushed per record
+            }
+            journal = null;
+        }
+    }
+
+    /**
+     * Drops the first {@code committedLength} bytes, which are now in the preferences; records
+     * appended while committing are kept.
+     */
+    private void trimJournal(long committedLength) {
+        closeJournal();
+        long length = journalFile.length();
+        if (length <= committedLength) {
+            if (journalFile.exists() && !journalFile.delete()) {
+                Log.w(TAG, "⚠️ Cannot delete " + journalFile);
+            }
+            pendingOps = 0;
+            return;
+        }
+        File temp = new File(journalFile.getParentFile(), journalFile.getName() + ".tmp");
+        int remaining = 0;
+        try (RandomAccessFile in = new RandomAccessFile(journalFile, "r");
+             OutputStream out = new FileOutputStream(temp)) {
+            in.seek(committedLength);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        remaining++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Replaying already committed records is harmless; keep the whole journal
+            Log.w(TAG, "⚠️ Cannot trim journal for " + name + ": " + e.getMessage());
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(journalFile)) {
+            temp.delete();
+            return;
+        }
+        pendingOps = remaining;
+    }
+
+    /**
+     * Replays a journal left by an earlier process into memory and schedules its commit. Every
+     * record sets an absolute state, so records that were already committed can be applied again.
+     */
+    private void recover() {
+        if (!journalFile.exists()) {
+            return;
+        }
+        String content;
+        try {
+            content = new String(Files.readAllBytes(journalFile.toPath()), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            Log.e(TAG, "❌ Cannot read journal for " + name + ": " + e.getMessage());
+            return;
+        }
+        // A record without its newline was torn by the crash; cut it so appends start on a new line
+        int end = content.lastIndexOf('\n') + 1;
+        if (end < content.length()) {
+            try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+                file.setLength(content.substring(0, end).getBytes(StandardCharsets.UTF_8).length);
+            } catch (IOException e) {
+                Log.e(TAG, "❌ Cannot repair journal for " + name + ": " + e.getMessage());
+                return;
+            }
+        }
+        for (String line : content.substring(0, end).split("\n")) {
+            String[] fields = line.split("\t", -1);
+            if (fields.length != 3 || fields[0].length() != 1) {
+                continue;
+            }
+            String key = unescape(fields[1]);
+            String value = unescape(fields[2]);
+            switch (fields[0].charAt(0)) {
+                case OP_PUT:
+                    strings.put(key, value);
+                    break;
+                case OP_REMOVE:
+                    strings.put(key, null);
+                    break;
+                case OP_SET_ADD:
+                    set(key).add(value);
+                    dirtySets.add(key);
+                    break;
+                case OP_SET_REMOVE:
+                    set(key).remove(value);
+                    dirtySets.add(key);
+                    break;
+                default:
+                    continue;
+            }
+            pendingOps++;
+        }
+        if (pendingOps > 0) {
+            Log.d(TAG, "♻️ Recovered " + pendingOps + " changes for " + name);
+            scheduleFlush(0);
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                result.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,800 @@
+package com.example.datadisplay.managers;
+
+import android.content.Context;
+import android.util.JsonReader;
+import android.util.JsonToken;
+import android.util.Log;
+
+import com.example.datadisplay.Article;
+import com.example.datadisplay.models.CatalogDelta;
+import com.example.datadisplay.utils.CatalogStreams;
+import com.example.datadisplay.utils.CompiledCatalog;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Persistent inverted index over the downloaded catalogs used by the home screen search.
+ * <p>
+ * Every searchable name (category, folder, file, book) becomes an entry, stored in the same
+ * order HomeActivity's streaming scan visits them. Posting lists map character unigrams and
+ * bigrams to entry ids; a query intersects the postings of its bigrams and then verifies the
+ * substring match, so results are identical to the full scan. Indexes are written to
+ * {@code files/search_index} and rebuilt only when the source file's size or mtime changes.
+ * A catalog patched by a {@link CatalogDelta} is updated in place instead: removed entries are
+ * tombstoned and added ones appended, so their results follow the older entries until the
+ * tombstones are compacted away.
+ */
+public class SearchIndexManager {
+
+    private static final String TAG = "SearchIndexManager";
+    private static final String INDEX_DIR = "search_index";
+    private static final int INDEX_MAGIC = 0x53494458; // "SIDX"
+    private static final int INDEX_VERSION = 2;
+    // Compact once this fraction of the entries are tombstones
+    private static final int COMPACT_DIVISOR = 4;
+
+    private static SearchIndexManager instance;
+
+    private final File sourceDir;
+    private final File indexDir;
+    private final ExecutorService buildExecutor = Executors.newSingleThreadExecutor();
+    private final Map<String, CatalogIndex> indexes = new ConcurrentHashMap<>();
+    private final Set<String> pendingBuilds = ConcurrentHashMap.newKeySet();
+
+    private SearchIndexManager(Context context) {
+        Context appContext = context.getApplicationContext();
+        this.sourceDir = appContext.getExternalFilesDir("Downloads");
+        this.indexDir = new File(appContext.getFilesDir(), INDEX_DIR);
+        if (!indexDir.exists()) {
+            indexDir.mkdirs();
+        }
+    }
+
+    public static synchronized SearchIndexManager getInstance(Context context) {
+        if (instance == null) {
+            instance = new SearchIndexManager(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Loads (or rebuilds) the index of each catalog in the background.
+     */
+    public void warmUp(String... filenames) {
+        for (String filename : filenames) {
+            scheduleBuild(filename);
+        }
+    }
+
+    /**
+     * Searches the in-memory index of a catalog.
+     *
+     * @return matching results in scan order, or {@code null} when the index is missing or
+     * stale; a rebuild is scheduled and the caller should fall back to a streaming scan.
+     */
+    public List<Article> search(String filename, String query, String icon) {
+        File source = new File(sourceDir, filename);
+        if (!source.exists()) {
+            return null;
+        }
+
+        CatalogIndex index = indexes.get(filename);
+        if (index == null || !index.matches(source)) {
+            scheduleBuild(filename);
+            return null;
+        }
+
+        List<Article> results = new ArrayList<>();
+        for (int id : index.query(query.toLowerCase())) {
+            results.add(index.entries.get(id).toArticle(icon, filename));
+        }
+        return results;
+    }
+
+    public boolean isReady(String filename) {
+        CatalogIndex index = indexes.get(filename);
+        return index != null && index.matches(new File(sourceDir, filename));
+    }
+
+    /**
+     * Brings the index of a catalog that was just patched up to date with the same delta, at a
+     * cost proportional to the delta. Falls back to a rebuild when the index did not describe the
+     * catalog as it was before the patch.
+     */
+    public void applyDelta(String filename, CatalogDelta delta, long previousLength, long previousModified) {
+        buildExecutor.execute(() -> {
+            File source = new File(sourceDir, filename);
+            File indexFile = new File(indexDir, filename + ".idx");
+            CatalogIndex current = indexes.get(filename);
+            if (current == null) {
+                try {
+                    current = readIndex(indexFile);
+                } catch (IOException e) {
+                    current = null;
+                }
+            }
+            if (current == null || current.sourceLength != previousLength
+                    || current.sourceModified != previousModified) {
+                scheduleBuild(filename);
+                return;
+            }
+
+            long start = System.currentTimeMillis();
+            try {
+                CatalogIndex patched = patchIndex(current, delta, source.length(), source.lastModified());
+                if (patched.deleted.cardinality() > patched.entries.size() / COMPACT_DIVISOR) {
+                    patched = patched.compact();
+                }
+                indexes.put(filename, patched);
+                writeIndex(patched, indexFile);
+                Log.d(TAG, "🩹 Patched search index for " + filename + " to v" + delta.version + " ("
+                        + (patched.entries.size() - patched.deleted.cardinality()) + " live entries) in "
+                        + (System.currentTimeMillis() - start) + " ms");
+            } catch (Exception e) {
+                Log.w(TAG, "⚠️ Index patch failed for " + filename + ", rebuilding", e);
+                scheduleBuild(filename);
+            }
+        });
+    }
+
+    private void scheduleBuild(String filename) {
+        if (!pendingBuilds.add(filename)) {
+            return;
+        }
+
+        buildExecutor.execute(() -> {
+            try {
+                loadOrBuild(filename);
+            } finally {
+                pendingBuilds.remove(filename);
+            }
+        });
+    }
+
+    private void loadOrBuild(String filename) {
+        File source = new File(sourceDir, filename);
+        if (!source.exists() || source.length() == 0) {
+            Log.w(TAG, "⚠️ Index source missing: " + filename);
+            return;
+        }
+
+        CatalogIndex current = indexes.get(filename);
+        if (current != null && current.matches(source)) {
+            return;
+        }
+
+        File indexFile = new File(indexDir, filename + ".idx");
+        try {
+            CatalogIndex loaded = readIndex(indexFile);
+            if (loaded != null && loaded.matches(source)) {
+                indexes.put(filename, loaded);
+                Log.d(TAG, "📂 Loaded search index for " + filename + " (" + loaded.entries.size() + " entries)");
+                return;
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "⚠️ Discarding unreadable index for " + filename + ": " + e.getMessage());
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            long sourceLength = source.length();
+            long sourceModified = source.lastModified();
+            List<Entry> entries = collectEntries(source);
+            CatalogIndex built = new CatalogIndex(sourceLength, sourceModified, entries);
+            indexes.put(filename, built);
+            writeIndex(built, indexFile);
+            Log.d(TAG, "🏗️ Built search index for " + filename + " (" + entries.size() + " entries, "
+                    + built.postings.size() + " grams) in " + (System.currentTimeMillis() - start) + " ms");
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Failed to build search index for " + filename, e);
+        }
+    }
+
+    // region Catalog traversal
+
+    private List<Entry> collectEntries(File source) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+
+        try (JsonReader reader = new JsonReader(CatalogStreams.openReader(source))) {
+
+            if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                collectBooks(reader, entries);
+            } else {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if ("categories".equals(reader.nextName())) {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            collectCategory(reader, entries);
+                        }
+                        reader.endArray();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            }
+        }
+
+        return entries;
+    }
+
+    private void collectBooks(JsonReader reader, List<Entry> entries) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            reader.beginObject();
+            String itemName = "";
+            String author = "";
+            String content = "";
+            String tag = "General";
+
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                if ("name".equals(key) || "title".equals(key)) {
+                    itemName = readString(reader);
+                } else if ("author".equals(key)) {
+                    author = readString(reader);
+                } else if ("content".equals(key)) {
+                    content = readString(reader);
+                } else if ("tag".equals(key)) {
+                    tag = readTagText(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (isNotEmpty(itemName)) {
+                entries.add(new Entry("item", itemName, "", "", itemName, itemName, author, content, tag));
+            }
+        }
+        reader.endArray();
+    }
+
+    private void collectCategory(JsonReader reader, List<Entry> entries) throws IOException {
+        reader.beginObject();
+        String categoryName = "";
+        List<Entry> scoped = new ArrayList<>();
+
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("name".equals(key)) {
+                categoryName = readString(reader);
+                if (isNotEmpty(categoryName)) {
+                    scoped.add(new Entry("category", categoryName, categoryName, "", "", categoryName));
+                }
+            } else if ("folders".equals(key)) {
+                collectFolders(reader, scoped);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        // Folder and file entries can precede the category name in the stream; resolve them
+        // the same way HomeActivity patches its category-scoped results.
+        scopeToCategory(scoped, categoryName);
+        entries.addAll(scoped);
+    }
+
+    private void scopeToCategory(List<Entry> scoped, String categoryName) {
+        for (Entry entry : scoped) {
+            if (isNotEmpty(categoryName) && !isNotEmpty(entry.category)) {
+                entry.category = categoryName;
+            }
+            if ("folder".equals(entry.type)) {
+                entry.title = entry.folder + " (" + categoryName + ")";
+            }
+        }
+    }
+
+    private void collectFolders(JsonReader reader, List<Entry> scoped) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            reader.beginObject();
+            String folderName = "";
+            List<String> fileTitles = new ArrayList<>();
+
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                if ("name".equals(key)) {
+                    folderName = readString(reader);
+                } else if ("files".equals(key)) {
+                    collectFileTitles(reader, fileTitles);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (isNotEmpty(folderName)) {
+                scoped.add(new Entry("folder", folderName, "", folderName, "", folderName));
+            }
+            for (String title : fileTitles) {
+                scoped.add(new Entry("file", title + " (" + folderName + ")", "", folderName, title, title));
+            }
+        }
+        reader.endArray();
+    }
+
+    private void collectFileTitles(JsonReader reader, List<String> titles) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            reader.beginObject();
+            String title = "";
+            while (reader.hasNext()) {
+                if ("title".equals(reader.nextName())) {
+                    title = readString(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (isNotEmpty(title)) {
+                titles.add(title);
+            }
+        }
+        reader.endArray();
+    }
+
+    private String readString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+            return "";
+        }
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return reader.nextString();
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return String.valueOf(reader.nextBoolean());
+        }
+        reader.skipValue();
+        return "";
+    }
+
+    private String readTagText(JsonReader reader) throws IOException {
+        List<String> tags = new ArrayList<>();
+        if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                String tag = readString(reader);
+                if (isNotEmpty(tag)) {
+                    tags.add(tag);
+                }
+            }
+            reader.endArray();
+        } else {
+            String tag = readString(reader);
+            if (isNotEmpty(tag)) {
+                tags.add(tag);
+            }
+        }
+        return tags.isEmpty() ? "General" : String.join(", ", tags);
+    }
+
+    // endregion
+
+    // region Delta patching
+
+    /**
+     * Applies a delta to a copy of {@code index}. Only categories and their top-level folders
+     * and files are indexed, so deeper paths and image changes leave the index untouched.
+     */
+    private CatalogIndex patchIndex(CatalogIndex index, CatalogDelta delta, long sourceLength, long sourceModified)
+            throws IOException {
+        List<Entry> entries = new ArrayList<>(index.entries);
+        BitSet deleted = (BitSet) index.deleted.clone();
+        int firstAdded = entries.size();
+
+        if (delta.operations != null) {
+            for (CatalogDelta.Operation operation : delta.operations) {
+                List<String> segments = CompiledCatalog.splitPath(operation.path);
+                if (segments.isEmpty() || segments.size() > 2) {
+                    continue;
+                }
+                String category = segments.get(0);
+                String folder = segments.size() > 1 ? segments.get(1) : null;
+                boolean add = CatalogDelta.OP_ADD.equals(operation.op);
+
+                if (operation.node != null && add) {
+                    // A put replaces the same-named node and everything indexed under it
+                    tombstone(entries, deleted, category, folder, null);
+                    // The path names the node, as in CatalogPatcher
+                    JsonObject node = operation.node.deepCopy();
+                    node.addProperty("name", folder != null ? folder : category);
+                    entries.addAll(collectNode(node.toString(), category, folder));
+                } else if (operation.files == null && operation.images == null) {
+                    if (!add) {
+                        tombstone(entries, deleted, category, folder, null);
+                    }
+                } else if (operation.files != null && folder != null) {
+                    for (JsonElement file : operation.files) {
+                        String title = add ? fileTitle(file) : (file.isJsonPrimitive() ? file.getAsString() : "");
+                        if (!isNotEmpty(title)) {
+                            continue;
+                        }
+                        if (add) {
+                            entries.add(new Entry("file", title + " (" + folder + ")", category, folder, title, title));
+                        } else {
+                            tombstone(entries, deleted, category, folder, title);
+                        }
+                    }
+                }
+            }
+        }
+
+        Map<String, int[]> postings = CatalogIndex.appendPostings(index.postings, entries, firstAdded);
+        return new CatalogIndex(sourceLength, sourceModified, entries, postings, deleted);
+    }
+
+    private static void tombstone(List<Entry> entries, BitSet deleted, String category, String folder, String title) {
+        for (int id = 0; id < entries.size(); id++) {
+            Entry entry = entries.get(id);
+            if (deleted.get(id) || !category.equals(entry.category)) {
+                continue;
+            }
+            if (folder != null && !folder.equals(entry.folder)) {
+                continue;
+            }
+            if (title != null && !("file".equals(entry.type) && title.equals(entry.itemName))) {
+                continue;
+            }
+            deleted.set(id);
+        }
+    }
+
+    // Runs a delta node through the same traversal as a full build so entries come out identical
+    private List<Entry> collectNode(String json, String category, String folder) throws IOException {
+        List<Entry> scoped = new ArrayList<>();
+        if (folder == null) {
+            try (JsonReader reader = new JsonReader(new StringReader(json))) {
+                collectCategory(reader, scoped);
+            }
+            return scoped;
+        }
+        try (JsonReader reader = new JsonReader(new StringReader("[" + json + "]"))) {
+            collectFolders(reader, scoped);
+        }
+        scopeToCategory(scoped, category);
+        return scoped;
+    }
+
+    private static String fileTitle(JsonElement file) {
+        if (!file.isJsonObject()) {
+            return "";
+        }
+        JsonElement title = file.getAsJsonObject().get("title");
+        return title != null && title.isJsonPrimitive() ? title.getAsString() : "";
+    }
+
+    // endregion
+
+    // region Persistence
+
+    private void writeIndex(CatalogIndex index, File indexFile) throws IOException {
+        File tempFile = new File(indexFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+            out.writeLong(index.sourceLength);
+            out.writeLong(index.sourceModified);
+
+            out.writeInt(index.entries.size());
+            for (int id = 0; id < index.entries.size(); id++) {
+                Entry entry = index.entries.get(id);
+                out.writeBoolean(index.deleted.get(id));
+                writeString(out, entry.type);
+                writeString(out, entry.title);
+                writeString(out, entry.category);
+                writeString(out, entry.folder);
+                writeString(out, entry.itemName);
+                writeString(out, entry.matchText);
+                writeString(out, entry.bookAuthor);
+                writeString(out, entry.bookContent);
+                writeString(out, entry.bookTag);
+            }
+
+            out.writeInt(index.postings.size());
+            for (Map.Entry<String, int[]> posting : index.postings.entrySet()) {
+                writeString(out, posting.getKey());
+                int[] ids = posting.getValue();
+                out.writeInt(ids.length);
+                int previous = 0;
+                for (int id : ids) {
+                    out.writeInt(id - previous);
+                    previous = id;
+                }
+            }
+        }
+
+        if (!tempFile.renameTo(indexFile)) {
+            tempFile.delete();
+            throw new IOException("Could not replace " + indexFile.getName());
+        }
+    }
+
+    private CatalogIndex readIndex(File indexFile) throws IOException {
+        if (!indexFile.exists()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION) {
+                return null;
+            }
+            long sourceLength = in.readLong();
+            long sourceModified = in.readLong();
+
+            int entryCount = in.readInt();
+            List<Entry> entries = new ArrayList<>(entryCount);
+            BitSet deleted = new BitSet(entryCount);
+            for (int i = 0; i < entryCount; i++) {
+                if (in.readBoolean()) {
+                    deleted.set(i);
+                }
+                String type = readString(in);
+                String title = readString(in);
+                String category = readString(in);
+                String folder = readString(in);
+                String itemName = readString(in);
+                String matchText = readString(in);
+                String author = readString(in);
+                String content = readString(in);
+                String tag = readString(in);
+                entries.add(new Entry(type, title, category, folder, itemName, matchText, author, content, tag));
+            }
+
+            int gramCount = in.readInt();
+            Map<String, int[]> postings = new HashMap<>(gramCount * 2);
+            for (int i = 0; i < gramCount; i++) {
+                String gram = readString(in);
+                int[] ids = new int[in.readInt()];
+                int previous = 0;
+                for (int j = 0; j < ids.length; j++) {
+                    previous += in.readInt();
+                    ids[j] = previous;
+                }
+                postings.put(gram, ids);
+            }
+
+            return new CatalogIndex(sourceLength, sourceModified, entries, postings, deleted);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // endregion
+
+    private static boolean isNotEmpty(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+
+    private static class CatalogIndex {
+        final long sourceLength;
+        final long sourceModified;
+        final List<Entry> entries;
+        final Map<String, int[]> postings;
+        // Entries removed by deltas; they stay in place so ids and postings remain valid
+        final BitSet deleted;
+
+        CatalogIndex(long sourceLength, long sourceModified, List<Entry> entries) {
+            this(sourceLength, sourceModified, entries, buildPostings(entries, 0, new HashMap<>()), new BitSet());
+        }
+
+        CatalogIndex(long sourceLength, long sourceModified, List<Entry> entries, Map<String, int[]> postings,
+                     BitSet deleted) {
+            this.sourceLength = sourceLength;
+            this.sourceModified = sourceModified;
+            this.entries = entries;
+            this.postings = postings;
+            this.deleted = deleted;
+        }
+
+        /**
+         * Drops tombstoned entries and renumbers the rest.
+         */
+        CatalogIndex compact() {
+            List<Entry> live = new ArrayList<>(entries.size() - deleted.cardinality());
+            for (int id = 0; id < entries.size(); id++) {
+                if (!deleted.get(id)) {
+                    live.add(entries.get(id));
+                }
+            }
+            return new CatalogIndex(sourceLength, sourceModified, live);
+        }
+
+        boolean matches(File source) {
+            return source.length() == sourceLength && source.lastModified() == sourceModified;
+        }
+
+        /**
+         * Returns the ids of entries whose match text contains {@code lowerQuery}, in order.
+         */
+        List<Integer> query(String lowerQuery) {
+            List<Integer> matched = new ArrayList<>();
+            if (lowerQuery.isEmpty()) {
+                return matched;
+            }
+
+            int[] candidates = null;
+            for (String gram : queryGrams(lowerQuery)) {
+                int[] ids = postings.get(gram);
+                if (ids == null) {
+                    return matched;
+                }
+                candidates = candidates == null ? ids : intersect(candidates, ids);
+                if (candidates.length == 0) {
+                    return matched;
+                }
+            }
+
+            for (int id : candidates) {
+                if (!deleted.get(id) && entries.get(id).lowerMatchText.contains(lowerQuery)) {
+                    matched.add(id);
+                }
+            }
+            return matched;
+        }
+
+        private static List<String> queryGrams(String lowerQuery) {
+            List<String> grams = new ArrayList<>();
+            if (lowerQuery.length() == 1) {
+                grams.add(lowerQuery);
+                return grams;
+            }
+            for (int i = 0; i + 1 < lowerQuery.length(); i++) {
+                String gram = lowerQuery.substring(i, i + 2);
+                if (!grams.contains(gram)) {
+                    grams.add(gram);
+                }
+            }
+            return grams;
+        }
+
+        /**
+         * Returns a copy of {@code postings} with the entries from {@code firstId} on added. Only
+         * the posting lists of grams those entries contain are copied.
+         */
+        static Map<String, int[]> appendPostings(Map<String, int[]> postings, List<Entry> entries, int firstId) {
+            if (firstId >= entries.size()) {
+                return postings;
+            }
+            return buildPostings(entries, firstId, new HashMap<>(postings));
+        }
+
+        // New ids are always larger than existing ones, so appending keeps every list sorted
+        private static Map<String, int[]> buildPostings(List<Entry> entries, int firstId, Map<String, int[]> postings) {
+            Map<String, List<Integer>> lists = new HashMap<>();
+            for (int id = firstId; id < entries.size(); id++) {
+                String text = entries.get(id).lowerMatchText;
+                for (int i = 0; i < text.length(); i++) {
+                    addPosting(lists, text.substring(i, i + 1), id);
+                    if (i + 1 < text.length()) {
+                        addPosting(lists, text.substring(i, i + 2), id);
+                    }
+                }
+            }
+
+            for (Map.Entry<String, List<Integer>> list : lists.entrySet()) {
+                int[] existing = postings.get(list.getKey());
+                int offset = existing != null ? existing.length : 0;
+                int[] ids = existing != null
+                        ? Arrays.copyOf(existing, offset + list.getValue().size())
+                        : new int[list.getValue().size()];
+                for (int i = 0; i < list.getValue().size(); i++) {
+                    ids[offset + i] = list.getValue().get(i);
+                }
+                postings.put(list.getKey(), ids);
+            }
+            return postings;
+        }
+
+        private static void addPosting(Map<String, List<Integer>> lists, String gram, int id) {
+            List<Integer> ids = lists.get(gram);
+            if (ids == null) {
+                ids = new ArrayList<>();
+                lists.put(gram, ids);
+            }
+            if (ids.isEmpty() || ids.get(ids.size() - 1) != id) {
+                ids.add(id);
+            }
+        }
+
+        private static int[] intersect(int[] first, int[] second) {
+            int[] result = new int[Math.min(first.length, second.length)];
+            int i = 0;
+            int j = 0;
+            int count = 0;
+            while (i < first.length && j < second.length) {
+                if (first[i] == second[j]) {
+                    result[count++] = first[i];
+                    i++;
+                    j++;
+                } else if (first[i] < second[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+    }
+
+    private static class Entry {
+        final String type;
+        String title;
+        String category;
+        final String folder;
+        final String itemName;
+        final String matchText;
+        final String lowerMatchText;
+        final String bookAuthor;
+        final String bookContent;
+        final String bookTag;
+
+        Entry(String type, String title, String category, String folder, String itemName, String matchText) {
+            this(type, title, category, folder, itemName, matchText, "", "", "General");
+        }
+
+        Entry(String type, String title, String category, String folder, String itemName, String matchText,
+              String bookAuthor, String bookContent, String bookTag) {
+            this.type = type;
+            this.title = title;
+            this.category = category;
+            this.folder = folder;
+            this.itemName = itemName;
+            this.matchText = matchText;
+            this.lowerMatchText = matchText.toLowerCase();
+            this.bookAuthor = bookAuthor;
+            this.bookContent = bookContent;
+            this.bookTag = bookTag;
+        }
+
+        Article toArticle(String icon, String filename) {
+            Article article = new Article(icon + " " + title, filename, type, category, folder, itemName);
+            if ("item".equals(type)) {
+                article.bookAuthor = bookAuthor;
+                article.bookContent = bookContent;
+                article.bookTag = bookTag;
+                article.tag = bookTag;
+                article.content = bookContent;
+            }
+            return article;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.datadisplay.managers;
+
+import android.util.Log;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Debounced, single-flight executor for search requests.
+ * <p>
+ * Every submission gets a new request id and supersedes all earlier ones. Requests wait
+ * for a short debounce window and then run one at a time on a single worker; a running
+ * search is expected to call {@link #throwIfCancelled(int)} between records so it stops as
+ * soon as a newer request arrives.
+ */
+public class SearchScheduler {
+
+    private static final String TAG = "SearchScheduler";
+
+    public interface SearchTask {
+        void run(int requestId);
+    }
+
+    private final long debounceMillis;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicInteger latestRequestId = new AtomicInteger();
+    private ScheduledFuture<?> pendingTask;
+
+    private final AtomicInteger completedCount = new AtomicInteger();
+    private final AtomicInteger cancelledCount = new AtomicInteger();
+    private final AtomicInteger debouncedCount = new AtomicInteger();
+
+    public SearchScheduler(long debounceMillis) {
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * Schedules a search, superseding any pending or running one.
+     *
+     * @return the request id handed to the task
+     */
+    public synchronized int submit(SearchTask task) {
+        int requestId = latestRequestId.incrementAndGet();
+
+        if (pendingTask != null && pendingTask.cancel(false)) {
+            debouncedCount.incrementAndGet();
+        }
+
+        pendingTask = executor.schedule(() -> runTask(requestId, task), debounceMillis, TimeUnit.MILLISECONDS);
+        return requestId;
+    }
+
+    /**
+     * Invalidates every pending and running request.
+     */
+    public synchronized void cancelAll() {
+        latestRequestId.incrementAndGet();
+        if (pendingTask != null && pendingTask.cancel(false)) {
+            debouncedCount.incrementAndGet();
+        }
+        pendingTask = null;
+    }
+
+    public boolean isCurrent(int requestId) {
+        return requestId == latestRequestId.get();
+    }
+
+    /**
+     * Cooperative cancellation point for long-running searches.
+     *
+     * @throws CancellationException when a newer request has been submitted
+     */
+    public void throwIfCancelled(int requestId) {
+        if (!isCurrent(requestId)) {
+            throw new CancellationException("Search " + requestId + " superseded by " + latestRequestId.get());
+        }
+    }
+
+    public int getCompletedCount() {
+        return completedCount.get();
+    }
+
+    public int getCancelledCount() {
+        return cancelledCount.get();
+    }
+
+    public int getDebouncedCount() {
+        return debouncedCount.get();
+    }
+
+    public String getMetricsSummary() {
+        return "completed=" + completedCount.get()
+                + " | cancelled=" + cancelledCount.get()
+                + " | debounced=" + debouncedCount.get();
+    }
+
+    public void shutdown() {
+        cancelAll();
+        executor.shutdownNow();
+    }
+
+    private void runTask(int requestId, SearchTask task) {
+        if (!isCurrent(requestId)) {
+            cancelledCount.incrementAndGet();
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            task.run(requestId);
+            completedCount.incrementAndGet();
+            Log.d(TAG, "✅ Search " + requestId + " completed in " + (System.currentTimeMillis() - start)
+                    + " ms | " + getMetricsSummary());
+        } catch (CancellationException e) {
+            cancelledCount.incrementAndGet();
+            Log.d(TAG, "🛑 Search " + requestId + " cancelled after " + (System.currentTimeMillis() - start)
+                    + " ms | " + getMetricsSummary());
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Search " + requestId + " failed", e);
+        }
+    }
+}
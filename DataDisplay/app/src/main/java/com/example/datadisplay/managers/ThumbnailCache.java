@@ -0,0 +1,295 @@
+package com.example.datadisplay.managers;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.RequestOptions;
+import com.bumptech.glide.request.target.Target;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Thumbnail tier for image grids.
+ * <p>
+ * Grid cells are requested at their exact cell size ({@code override()}) in RGB_565, so the
+ * original is never decoded at full resolution for a grid. Each generated thumbnail is written
+ * to its own persistent disk cache keyed by URL + size, separate from Glide's cache of
+ * full-resolution pages; later binds decode the small file instead of the original. Which
+ * thumbnails exist is kept in memory, so binding a cell does no disk I/O on the main thread.
+ */
+public class ThumbnailCache {
+
+    private static final String TAG = "ThumbnailCache";
+    private static final String DIR_NAME = "thumbnails";
+    private static final long MAX_CACHE_BYTES = 64L * 1024 * 1024;
+    private static final int JPEG_QUALITY = 85;
+    private static final int MAX_MEMOIZED_KEYS = 4096;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static ThumbnailCache instance;
+
+    private final File directory;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+    private final Set<String> pendingWrites = ConcurrentHashMap.newKeySet();
+    // Names of thumbnail files on disk; filled from the directory on the writer thread
+    private final Set<String> cachedNames = ConcurrentHashMap.newKeySet();
+    // Files already touched by this process; one touch per session is enough for trimming
+    private final Set<String> touchedNames = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> urlKeys = new ConcurrentHashMap<>();
+    private long cachedBytes = -1;
+
+    private ThumbnailCache(Context context) {
+        this.directory = new File(context.getApplicationContext().getCacheDir(), DIR_NAME);
+        writer.execute(this::loadIndex);
+    }
+
+    public static synchronized ThumbnailCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new ThumbnailCache(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Options shared by every thumbnail request: cell-sized, center-cropped, RGB_565.
+     */
+    public static RequestOptions thumbnailOptions(int width, int height) {
+        return new RequestOptions()
+                .override(width, height)
+                .centerCrop()
+                .format(DecodeFormat.PREFER_RGB_565);
+    }
+
+    /**
+     * Returns the request factory for a grid whose cells are {@code width} x {@code height};
+     * share it between the adapter and its prefetch scheduler.
+     */
+    public ImagePrefetchScheduler.RequestFactory forCell(int width, int height) {
+        return (requestManager, url) -> build(requestManager, url, width, height);
+    }
+
+    /**
+     * Builds the grid request for a cell: the cached thumbnail file when present, otherwise the
+     * original URL decoded straight to cell size, which then populates the thumbnail cache.
+     */
+    public RequestBuilder<Bitmap> build(RequestManager requestManager, String url, int width, int height) {
+        String name = getName(url, width, height);
+        if (cachedNames.contains(name)) {
+            File thumbnail = new File(directory, name);
+            if (touchedNames.add(name)) {
+                // Touch on use so trimming drops the least recently shown thumbnails
+                writer.execute(() -> thumbnail.setLastModified(System.currentTimeMillis()));
+            }
+            return requestManager
+                    .asBitmap()
+                    .load(thumbnail)
+                    .apply(thumbnailOptions(width, height))
+                    // Already on disk in its final form
+                    .diskCacheStrategy(DiskCacheStrategy.NONE)
+                    .addListener(new RequestListener<Bitmap>() {
+                        @Override
+                        public boolean onLoadFailed(@Nullable GlideException e, Object model,
+                                                    @NonNull Target<Bitmap> target, boolean isFirstResource) {
+                            // Deleted behind our back (e.g. the system cleared the cache); the next
+                            // bind goes back to the original
+                            cachedNames.remove(name);
+                            return false;
+                        }
+
+                        @Override
+                        public boolean onResourceReady(@NonNull Bitmap resource, @NonNull Object model,
+                                                       Target<Bitmap> target, @NonNull DataSource dataSource,
+                                                       boolean isFirstResource) {
+                            return false;
+                        }
+                    });
+        }
+        return requestManager
+                .asBitmap()
+                .load(url)
+                .apply(thumbnailOptions(width, height))
+                // Keep the original bytes so the full-screen viewer does not download it again
+                .diskCacheStrategy(DiskCacheStrategy.DATA)
+                .addListener(new RequestListener<Bitmap>() {
+                    @Override
+                    public boolean onLoadFailed(@Nullable GlideException e, Object model,
+                                                @NonNull Target<Bitmap> target, boolean isFirstResource) {
+                        return false;
+                    }
+
+                    @Override
+                    public boolean onResourceReady(@NonNull Bitmap resource, @NonNull Object model,
+                                                   Target<Bitmap> target, @NonNull DataSource dataSource,
+                                                   boolean isFirstResource) {
+                        // A memory-cache hit was decoded, and scheduled for writing, by an earlier load
+                        if (dataSource != DataSource.MEMORY_CACHE) {
+                            scheduleWrite(name, resource);
+                        }
+                        return false;
+                    }
+                });
+    }
+
+    public void clear() {
+        writer.execute(() -> {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            cachedBytes = 0;
+            cachedNames.clear();
+        });
+    }
+
+    private String getName(String url, int width, int height) {
+        String key = urlKeys.get(url);
+        if (key == null) {
+            if (urlKeys.size() >= MAX_MEMOIZED_KEYS) {
+                urlKeys.clear();
+            }
+            key = hash(url);
+            urlKeys.put(url, key);
+        }
+        return key + "_" + width + "x" + height + ".jpg";
+    }
+
+    private void loadIndex() {
+        String[] names = directory.list();
+        if (names != null) {
+            for (String name : names) {
+                if (name.endsWith(".jpg")) {
+                    cachedNames.add(name);
+                }
+            }
+        }
+    }
+
+    /**
+     * Encodes the cell's own decoded bitmap. The view may hand its bitmap back to Glide's pool
+     * at any time, so a copy is taken here and encoded on the writer thread.
+     */
+    private void scheduleWrite(String name, Bitmap resource) {
+        if (cachedNames.contains(name) || !pendingWrites.add(name)) {
+            return;
+        }
+        // A software copy compresses the same way whatever config Glide decoded to
+        Bitmap.Config config = resource.getConfig() == Bitmap.Config.RGB_565
+                ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+        Bitmap copy = resource.copy(config, false);
+        if (copy == null) {
+            pendingWrites.remove(name);
+            return;
+        }
+        writer.execute(() -> {
+            File target = new File(directory, name);
+            try {
+                if (!target.exists()) {
+                    write(copy, target);
+                }
+                cachedNames.add(name);
+            } catch (IOException e) {
+                Log.w(TAG, "⚠️ Thumbnail write failed for " + name, e);
+            } finally {
+                copy.recycle();
+                pendingWrites.remove(name);
+            }
+        });
+    }
+
+    private void write(Bitmap bitmap, File target) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File temp = new File(directory, target.getName() + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+        }
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new IOException("Cannot rename " + temp);
+        }
+        if (cachedBytes < 0) {
+            cachedBytes = directorySize();
+        } else {
+            cachedBytes += target.length();
+        }
+        if (cachedBytes > MAX_CACHE_BYTES) {
+            trim();
+        }
+    }
+
+    // Drops the oldest thumbnails until the cache is back under three quarters of its budget
+    private void trim() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        long budget = MAX_CACHE_BYTES * 3 / 4;
+        int removed = 0;
+        for (File file : files) {
+            if (cachedBytes <= budget) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                cachedNames.remove(file.getName());
+                cachedBytes -= length;
+                removed++;
+            }
+        }
+        Log.d(TAG, "🧹 Trimmed " + removed + " thumbnails, bytes=" + cachedBytes);
+    }
+
+    private long directorySize() {
+        long total = 0;
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                total += file.length();
+            }
+        }
+        return total;
+    }
+
+    private static String hash(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] bytes = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+            char[] hex = new char[bytes.length * 2];
+            for (int i = 0; i < bytes.length; i++) {
+                hex[i * 2] = HEX[(bytes[i] >> 4) & 0x0f];
+                hex[i * 2 + 1] = HEX[bytes[i] & 0x0f];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(value.hashCode());
+        }
+    }
+}
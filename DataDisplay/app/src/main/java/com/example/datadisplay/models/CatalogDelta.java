@@ -0,0 +1,40 @@
+package com.example.datadisplay.models;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+
+/**
+ * A patch document that moves a catalog from {@code base_version} to {@code version}.
+ * <p>
+ * Catalogs that publish deltas carry a root {@code "version"} number and a {@code "delta_url"};
+ * the document at that URL lists the operations since the previous version, each keyed by a
+ * canonical path ({@code CompiledCatalog.buildPath}) such as {@code "ASMR/Dong ASMR"}.
+ * <ul>
+ *   <li>{@code add} with {@code node}: puts a category or folder at {@code path}, replacing a
+ *   node of the same name or appending a new one.</li>
+ *   <li>{@code add} with {@code files} / {@code images}: appends items to the folder at {@code path}.</li>
+ *   <li>{@code remove} alone: removes the category or folder at {@code path}.</li>
+ *   <li>{@code remove} with {@code files} (titles) / {@code images} (URLs): drops those items.</li>
+ * </ul>
+ */
+public class CatalogDelta {
+
+    public static final String OP_ADD = "add";
+    public static final String OP_REMOVE = "remove";
+
+    @SerializedName("base_version")
+    public long baseVersion;
+    public long version;
+    public List<Operation> operations;
+
+    public static class Operation {
+        public String op;
+        public String path;
+        public JsonObject node;
+        public JsonArray files;
+        public JsonArray images;
+    }
+}
@@ -0,0 +1,441 @@
+package com.example.datadisplay.utils;
+
+import android.content.Context;
+import android.util.JsonReader;
+import android.util.JsonToken;
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Compiles downloaded JSON catalogs into the binary format read by {@link CompiledCatalog}.
+ * <p>
+ * Compiled files live in {@code files/catalogs} and carry the source file's size and mtime;
+ * {@link #open(Context, File)} recompiles whenever the JSON on disk no longer matches.
+ */
+public final class CatalogCompiler {
+
+    private static final String TAG = "CatalogCompiler";
+    private static final String CATALOG_DIR = "catalogs";
+
+    private static final ExecutorService compileExecutor = Executors.newSingleThreadExecutor();
+
+    private CatalogCompiler() {}
+
+    /**
+     * Opens the compiled form of a catalog, compiling it first if it is missing or stale.
+     * Call from a background thread the first time a catalog is opened after a download.
+     */
+    public static CompiledCatalog open(Context context, File source) throws IOException {
+        if (!source.exists()) {
+            throw new IOException("Catalog not found: " + source.getAbsolutePath());
+        }
+
+        File compiled = getCompiledFile(context, source);
+        synchronized (CatalogCompiler.class) {
+            CompiledCatalog catalog = mapIfFresh(compiled, source);
+            if (catalog != null) {
+                return catalog;
+            }
+
+            long start = System.currentTimeMillis();
+            compile(source, compiled);
+            Log.d(TAG, "✅ Compiled " + source.getName() + " (" + source.length() + " bytes JSON -> "
+                    + compiled.length() + " bytes) in " + (System.currentTimeMillis() - start) + " ms");
+
+            catalog = mapIfFresh(compiled, source);
+            if (catalog == null) {
+                throw new IOException("Compiled catalog unreadable: " + compiled.getAbsolutePath());
+            }
+            return catalog;
+        }
+    }
+
+    /**
+     * Compiles catalogs in the background so the first navigation does not pay for it.
+     */
+    public static void precompileAsync(Context context, File... sources) {
+        Context appContext = context.getApplicationContext();
+        for (File source : sources) {
+            compileExecutor.execute(() -> {
+                if (!source.exists()) {
+                    return;
+                }
+                try {
+                    open(appContext, source);
+                } catch (IOException e) {
+                    Log.e(TAG, "❌ Precompile failed for " + source.getName(), e);
+                }
+            });
+        }
+    }
+
+    static File getCompiledFile(Context context, File source) {
+        File dir = new File(context.getApplicationContext().getFilesDir(), CATALOG_DIR);
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        // The same file name is used under different directories, so key by full path too
+        String key = source.getName() + "-" + Integer.toHexString(source.getAbsolutePath().hashCode());
+        return new File(dir, key + ".bin");
+    }
+
+    private static CompiledCatalog mapIfFresh(File compiled, File source) {
+        if (!compiled.exists() || compiled.length() < CompiledCatalog.HEADER_SIZE) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(compiled.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(CompiledCatalog.H_MAGIC) != CompiledCatalog.MAGIC
+                    || buffer.getInt(CompiledCatalog.H_VERSION) != CompiledCatalog.VERSION
+                    || buffer.getLong(CompiledCatalog.H_SOURCE_LENGTH) != source.length()
+                    || buffer.getLong(CompiledCatalog.H_SOURCE_MODIFIED) != source.lastModified()) {
+                return null;
+            }
+            return new CompiledCatalog(buffer);
+        } catch (IOException e) {
+            Log.w(TAG, "⚠️ Failed to map " + compiled.getName() + ", recompiling", e);
+            return null;
+        }
+    }
+
+    // ---------------------------------------------------------------- compilation
+
+    static void compile(File source, File target) throws IOException {
+        Builder builder = new Builder();
+        try (JsonReader reader = new JsonReader(CatalogStreams.openReader(source))) {
+            if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                builder.rootKind = CompiledCatalog.ROOT_ARRAY;
+                readBooks(reader, builder);
+            } else {
+                builder.rootKind = CompiledCatalog.ROOT_TREE;
+                builder.root.children.addAll(readCategories(reader));
+            }
+        }
+
+        File tempFile = new File(target.getParentFile(), target.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            builder.write(out, source.length(), source.lastModified());
+        }
+        if (!tempFile.renameTo(target)) {
+            tempFile.delete();
+            throw new IOException("Failed to move compiled catalog into place: " + target.getAbsolutePath());
+        }
+    }
+
+    private static List<TreeNode> readCategories(JsonReader reader) throws IOException {
+        List<TreeNode> categories = new ArrayList<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("categories".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    categories.add(readNode(reader));
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return categories;
+    }
+
+    private static TreeNode readNode(JsonReader reader) throws IOException {
+        TreeNode node = new TreeNode();
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return node;
+        }
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("name".equals(key)) {
+                node.name = readString(reader);
+            } else if ("folders".equals(key) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    node.children.add(readNode(reader));
+                }
+                reader.endArray();
+            } else if ("images".equals(key) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    String image = readString(reader);
+                    if (image != null) {
+                        node.images.add(image);
+                    }
+                }
+                reader.endArray();
+            } else if ("files".equals(key) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    readFile(reader, node);
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return node;
+    }
+
+    private static void readFile(JsonReader reader, TreeNode node) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+        String title = null;
+        String path = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("title".equals(key)) {
+                title = readString(reader);
+            } else if ("path".equals(key)) {
+                path = readString(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        node.fileTitles.add(title);
+        node.filePaths.add(path);
+    }
+
+    private static void readBooks(JsonReader reader, Builder builder) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            Book book = new Book();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                switch (key) {
+                    case "name":
+                        book.name = readString(reader);
+                        break;
+                    case "author":
+                        book.author = readString(reader);
+                        break;
+                    case "content":
+                        book.content = readString(reader);
+                        break;
+                    case "tag":
+                        if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                            reader.beginArray();
+                            while (reader.hasNext()) {
+                                String tag = readString(reader);
+                                if (tag != null) {
+                                    book.tags.add(tag);
+                                }
+                            }
+                            reader.endArray();
+                        } else {
+                            String tag = readString(reader);
+                            if (tag != null) {
+                                book.tags.add(tag);
+                            }
+                        }
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            builder.books.add(book);
+        }
+        reader.endArray();
+    }
+
+    private static String readString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return reader.nextString();
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return String.valueOf(reader.nextBoolean());
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    private static class TreeNode {
+        String name;
+        final List<TreeNode> children = new ArrayList<>();
+        final List<String> images = new ArrayList<>();
+        final List<String> fileTitles = new ArrayList<>();
+        final List<String> filePaths = new ArrayList<>();
+    }
+
+    private static class Book {
+        String name;
+        String author;
+        String content;
+        final List<String> tags = new ArrayList<>();
+    }
+
+    /**
+     * Lays the parsed tree out breadth-first so siblings get consecutive node ids.
+     */
+    private static class Builder {
+        int rootKind;
+        final TreeNode root = new TreeNode();
+        final List<Book> books = new ArrayList<>();
+
+        private final Map<String, Integer> stringIds = new HashMap<>();
+        private final List<byte[]> strings = new ArrayList<>();
+        private int[] pool = new int[1024];
+        private int poolSize = 0;
+
+        void write(DataOutputStream out, long sourceLength, long sourceModified) throws IOException {
+            List<int[]> nodeRecords = new ArrayList<>();
+            if (rootKind == CompiledCatalog.ROOT_TREE) {
+                layoutNodes(nodeRecords);
+            }
+
+            List<int[]> bookRecords = new ArrayList<>(books.size());
+            for (Book book : books) {
+                int tagStart = poolSize;
+                for (String tag : book.tags) {
+                    addToPool(intern(tag));
+                }
+                bookRecords.add(new int[]{
+                        intern(book.name), intern(book.author), intern(book.content),
+                        tagStart, book.tags.size()
+                });
+            }
+
+            int stringBytes = 0;
+            for (byte[] bytes : strings) {
+                stringBytes += bytes.length;
+            }
+
+            int nodesOffset = CompiledCatalog.HEADER_SIZE;
+            int poolOffset = nodesOffset + nodeRecords.size() * CompiledCatalog.NODE_INTS * 4;
+            int booksOffset = poolOffset + poolSize * 4;
+            int stringOffsetsOffset = booksOffset + bookRecords.size() * CompiledCatalog.BOOK_INTS * 4;
+            int stringDataOffset = stringOffsetsOffset + (strings.size() + 1) * 4;
+
+            ByteBuffer header = ByteBuffer.allocate(CompiledCatalog.HEADER_SIZE);
+            header.putInt(CompiledCatalog.H_MAGIC, CompiledCatalog.MAGIC);
+            header.putInt(CompiledCatalog.H_VERSION, CompiledCatalog.VERSION);
+            header.putLong(CompiledCatalog.H_SOURCE_LENGTH, sourceLength);
+            header.putLong(CompiledCatalog.H_SOURCE_MODIFIED, sourceModified);
+            header.putInt(CompiledCatalog.H_ROOT_KIND, rootKind);
+            header.putInt(CompiledCatalog.H_NODE_COUNT, nodeRecords.size());
+            header.putInt(CompiledCatalog.H_BOOK_COUNT, bookRecords.size());
+            header.putInt(CompiledCatalog.H_STRING_COUNT, strings.size());
+            header.putInt(CompiledCatalog.H_NODES_OFFSET, nodesOffset);
+            header.putInt(CompiledCatalog.H_POOL_OFFSET, poolOffset);
+            header.putInt(CompiledCatalog.H_BOOKS_OFFSET, booksOffset);
+            header.putInt(CompiledCatalog.H_STRING_OFFSETS_OFFSET, stringOffsetsOffset);
+            header.putInt(CompiledCatalog.H_STRING_DATA_OFFSET, stringDataOffset);
+            out.write(header.array());
+
+            for (int[] record : nodeRecords) {
+                for (int value : record) {
+                    out.writeInt(value);
+                }
+            }
+            for (int i = 0; i < poolSize; i++) {
+                out.writeInt(pool[i]);
+            }
+            for (int[] record : bookRecords) {
+                for (int value : record) {
+                    out.writeInt(value);
+                }
+            }
+
+            int offset = 0;
+            for (byte[] bytes : strings) {
+                out.writeInt(offset);
+                offset += bytes.length;
+            }
+            out.writeInt(offset);
+            for (byte[] bytes : strings) {
+                out.write(bytes);
+            }
+        }
+
+        private void layoutNodes(List<int[]> nodeRecords) {
+            // Breadth-first: assign ids so that every node's children are contiguous
+            List<TreeNode> order = new ArrayList<>();
+            ArrayDeque<TreeNode> queue = new ArrayDeque<>();
+            queue.add(root);
+            while (!queue.isEmpty()) {
+                TreeNode node = queue.poll();
+                order.add(node);
+                queue.addAll(node.children);
+            }
+
+            int nextChildId = 1;
+            for (TreeNode node : order) {
+                int imageStart = poolSize;
+                for (String image : node.images) {
+                    addToPool(intern(image));
+                }
+                int fileStart = poolSize;
+                for (int i = 0; i < node.fileTitles.size(); i++) {
+                    addToPool(intern(node.fileTitles.get(i)));
+                    addToPool(intern(node.filePaths.get(i)));
+                }
+
+                nodeRecords.add(new int[]{
+                        intern(node.name),
+                        node.children.isEmpty() ? CompiledCatalog.NO_NODE : nextChildId,
+                        node.children.size(),
+                        imageStart,
+                        node.images.size(),
+                        fileStart,
+                        node.fileTitles.size()
+                });
+                nextChildId += node.children.size();
+            }
+        }
+
+        private int intern(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer id = stringIds.get(value);
+            if (id == null) {
+                id = strings.size();
+                stringIds.put(value, id);
+                strings.add(value.getBytes(StandardCharsets.UTF_8));
+            }
+            return id;
+        }
+
+        private void addToPool(int value) {
+            if (poolSize == pool.length) {
+                int[] grown = new int[pool.length * 2];
+                System.arraycopy(pool, 0, grown, 0, poolSize);
+                pool = grown;
+            }
+            pool[poolSize++] = value;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.example.datadisplay.utils;
+
+import com.example.datadisplay.models.CatalogDelta;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies a {@link CatalogDelta} to a catalog file.
+ * <p>
+ * The catalog is streamed one category at a time: categories the delta does not touch are copied
+ * through, touched ones are patched in memory and written back, new ones are appended. Any
+ * operation that does not fit the local catalog (missing parent, unknown folder) fails the whole
+ * patch with an {@link IOException}, so callers fall back to downloading the full catalog; so
+ * does a delta whose {@code base_version} is not the version stamped in the source. The patched
+ * catalog is written gzip-compressed.
+ */
+public final class CatalogPatcher {
+
+    public static final String KEY_VERSION = "version";
+    public static final String KEY_DELTA_URL = "delta_url";
+
+    private static final String KEY_CATEGORIES = "categories";
+    private static final String KEY_FOLDERS = "folders";
+    private static final String KEY_FILES = "files";
+    private static final String KEY_IMAGES = "images";
+    private static final String KEY_NAME = "name";
+    private static final String KEY_TITLE = "title";
+
+    private static final Gson gson = new Gson();
+
+    /**
+     * Root metadata of a catalog that publishes deltas.
+     */
+    public static class Header {
+        public long version = -1;
+        public String deltaUrl;
+
+        public boolean supportsDeltas() {
+            return version >= 0 && deltaUrl != null && !deltaUrl.isEmpty();
+        }
+    }
+
+    private CatalogPatcher() {}
+
+    /**
+     * Reads the root {@code version} and {@code delta_url}; everything else is skipped unparsed.
+     */
+    public static Header readHeader(File source) throws IOException {
+        Header header = new Header();
+        try (JsonReader reader = newReader(source)) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return header;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                if (KEY_VERSION.equals(key) && reader.peek() == JsonToken.NUMBER) {
+                    header.version = reader.nextLong();
+                } else if (KEY_DELTA_URL.equals(key) && reader.peek() == JsonToken.STRING) {
+                    header.deltaUrl = reader.nextString();
+                } else {
+                    reader.skipValue();
+                }
+            }
+        }
+        return header;
+    }
+
+    /**
+     * Writes {@code source} with {@code delta} applied to {@code target}, stamping the new version.
+     */
+    public static void apply(File source, File target, CatalogDelta delta) throws IOException {
+        Map<String, List<PathOperation>> byCategory = groupByCategory(delta);
+        Set<String> patched = new HashSet<>();
+        boolean sawCategories = false;
+        long sourceVersion = -1;
+
+        try (JsonReader reader = newReader(source);
+             JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(
+                     CatalogStreams.create(new FileOutputStream(target)), StandardCharsets.UTF_8)))) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                throw new IOException("Catalog root is not an object");
+            }
+            reader.beginObject();
+            writer.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                if (KEY_CATEGORIES.equals(key)) {
+                    sawCategories = true;
+                    writer.name(key);
+                    reader.beginArray();
+                    writer.beginArray();
+                    while (reader.hasNext()) {
+                        JsonElement category = JsonParser.parseReader(reader);
+                        String name = nameOf(category);
+                        List<PathOperation> operations = byCategory.get(name);
+                        // Same-named categories: only the first one is addressable, as in CompiledCatalog
+                        if (operations != null && category.isJsonObject() && patched.add(name)) {
+                            category = applyToCategory(category.getAsJsonObject(), name, operations);
+                        }
+                        if (category != null) {
+                            gson.toJson(category, writer);
+                        }
+                    }
+                    for (Map.Entry<String, List<PathOperation>> entry : byCategory.entrySet()) {
+                        if (!patched.contains(entry.getKey())) {
+                            JsonObject added = applyToCategory(null, entry.getKey(), entry.getValue());
+                            if (added != null) {
+                                gson.toJson(added, writer);
+                            }
+                        }
+                    }
+                    reader.endArray();
+                    writer.endArray();
+                } else if (KEY_VERSION.equals(key) && reader.peek() == JsonToken.NUMBER) {
+                    sourceVersion = reader.nextLong();
+                } else if (KEY_VERSION.equals(key)) {
+                    reader.skipValue();
+                } else {
+                    writer.name(key);
+                    gson.toJson(JsonParser.parseReader(reader), writer);
+                }
+            }
+            if (!sawCategories) {
+                throw new IOException("Catalog has no categories");
+            }
+            if (sourceVersion != delta.baseVersion) {
+                throw new IOException("Delta starts at v" + delta.baseVersion + ", catalog is v" + sourceVersion);
+            }
+            writer.name(KEY_VERSION).value(delta.version);
+            reader.endObject();
+            writer.endObject();
+        }
+    }
+
+    private static Map<String, List<PathOperation>> groupByCategory(CatalogDelta delta) throws IOException {
+        Map<String, List<PathOperation>> byCategory = new LinkedHashMap<>();
+        if (delta.operations == null) {
+            return byCategory;
+        }
+        for (CatalogDelta.Operation operation : delta.operations) {
+            List<String> segments = CompiledCatalog.splitPath(operation.path);
+            if (segments.isEmpty() || operation.op == null) {
+                throw new IOException("Malformed delta operation at " + operation.path);
+            }
+            String category = segments.get(0);
+            List<PathOperation> operations = byCategory.get(category);
+            if (operations == null) {
+                operations = new ArrayList<>();
+                byCategory.put(category, operations);
+            }
+            operations.add(new PathOperation(operation, segments.subList(1, segments.size())));
+        }
+        return byCategory;
+    }
+
+    /**
+     * Applies the operations of one category in order; returns null when the category is removed.
+     */
+    private static JsonObject applyToCategory(JsonObject category, String name, List<PathOperation> operations)
+            throws IOException {
+        for (PathOperation pathOperation : operations) {
+            CatalogDelta.Operation operation = pathOperation.operation;
+            List<String> segments = pathOperation.segments;
+
+            if (segments.isEmpty()) {
+                if (CatalogDelta.OP_ADD.equals(operation.op) && operation.node != null) {
+                    category = named(operation.node, name);
+                } else if (CatalogDelta.OP_REMOVE.equals(operation.op) && !hasItems(operation)) {
+                    require(category, operation);
+                    category = null;
+                } else {
+                    applyItems(require(category, operation), operation);
+                }
+                continue;
+            }
+
+            JsonObject parent = require(category, operation);
+            for (String segment : segments.subList(0, segments.size() - 1)) {
+                parent = require(findChild(parent, segment), operation);
+            }
+            String last = segments.get(segments.size() - 1);
+            JsonArray folders = parent.getAsJsonArray(KEY_FOLDERS);
+            int index = indexOfChild(folders, last);
+
+            if (CatalogDelta.OP_ADD.equals(operation.op) && operation.node != null) {
+                if (folders == null) {
+                    folders = new JsonArray();
+                    parent.add(KEY_FOLDERS, folders);
+                }
+                if (index >= 0) {
+                    folders.set(index, named(operation.node, last));
+                } else {
+                    folders.add(named(operation.node, last));
+                }
+            } else if (CatalogDelta.OP_REMOVE.equals(operation.op) && !hasItems(operation)) {
+                if (index < 0) {
+                    throw new IOException("Nothing to remove at " + operation.path);
+                }
+                folders.remove(index);
+            } else {
+                applyItems(require(index >= 0 ? folders.get(index).getAsJsonObject() : null, operation), operation);
+            }
+        }
+        return category;
+    }
+
+    private static void applyItems(JsonObject folder, CatalogDelta.Operation operation) throws IOException {
+        boolean add = CatalogDelta.OP_ADD.equals(operation.op);
+        if (!add && !CatalogDelta.OP_REMOVE.equals(operation.op)) {
+            throw new IOException("Unknown delta operation " + operation.op);
+        }
+        if (operation.files != null) {
+            if (add) {
+                items(folder, KEY_FILES).addAll(operation.files);
+            } else {
+                removeItems(items(folder, KEY_FILES), operation.files, KEY_TITLE);
+            }
+        }
+        if (operation.images != null) {
+            if (add) {
+                items(folder, KEY_IMAGES).addAll(operation.images);
+            } else {
+                removeItems(items(folder, KEY_IMAGES), operation.images, null);
+            }
+        }
+    }
+
+    // Files are matched by title, images by URL
+    private static void removeItems(JsonArray items, JsonArray keys, String field) {
+        Set<String> remove = new HashSet<>();
+        for (JsonElement key : keys) {
+            if (key.isJsonPrimitive()) {
+                remove.add(key.getAsString());
+            }
+        }
+        for (int i = items.size() - 1; i >= 0; i--) {
+            JsonElement item = items.get(i);
+            JsonElement value = field != null && item.isJsonObject() ? item.getAsJsonObject().get(field) : item;
+            if (value != null && value.isJsonPrimitive() && remove.contains(value.getAsString())) {
+                items.remove(i);
+            }
+        }
+    }
+
+    private static JsonArray items(JsonObject folder, String key) {
+        JsonArray items = folder.getAsJsonArray(key);
+        if (items == null) {
+            items = new JsonArray();
+            folder.add(key, items);
+        }
+        return items;
+    }
+
+    private static JsonObject findChild(JsonObject parent, String name) {
+        JsonArray folders = parent.getAsJsonArray(KEY_FOLDERS);
+        int index = indexOfChild(folders, name);
+        return index >= 0 ? folders.get(index).getAsJsonObject() : null;
+    }
+
+    private static int indexOfChild(JsonArray folders, String name) {
+        if (folders == null) {
+            return -1;
+        }
+        for (int i = 0; i < folders.size(); i++) {
+            if (name.equals(nameOf(folders.get(i)))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String nameOf(JsonElement node) {
+        if (node == null || !node.isJsonObject()) {
+            return null;
+        }
+        JsonElement name = node.getAsJsonObject().get(KEY_NAME);
+        return name != null && name.isJsonPrimitive() ? name.getAsString() : null;
+    }
+
+    private static JsonObject named(JsonObject node, String name) {
+        JsonObject copy = node.deepCopy();
+        copy.addProperty(KEY_NAME, name);
+        return copy;
+    }
+
+    private static boolean hasItems(CatalogDelta.Operation operation) {
+        return operation.files != null || operation.images != null;
+    }
+
+    private static JsonObject require(JsonObject node, CatalogDelta.Operation operation) throws IOException {
+        if (node == null) {
+            throw new IOException("Delta path not found: " + operation.path);
+        }
+        return node;
+    }
+
+    private static JsonReader newReader(File source) throws IOException {
+        return new JsonReader(CatalogStreams.openReader(source));
+    }
+
+    private static class PathOperation {
+        final CatalogDelta.Operation operation;
+        final List<String> segments;
+
+        PathOperation(CatalogDelta.Operation operation, List<String> segments) {
+            this.operation = operation;
+            this.segments = segments;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.datadisplay.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Opens and writes catalog files, which may be stored gzip-compressed on disk.
+ * <p>
+ * Catalogs keep their {@code .json} names whether or not they are compressed; readers sniff the
+ * gzip magic bytes, so plain files (old downloads, DownloadManager results) keep working next
+ * to compressed ones. JSON catalogs compress roughly 8:1, which cuts the flash read of every
+ * parse and the space they take in the Downloads folder.
+ */
+public final class CatalogStreams {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+
+    private CatalogStreams() {}
+
+    /**
+     * Opens a catalog for reading, decompressing it when it is stored as gzip.
+     */
+    public static InputStream open(File file) throws IOException {
+        return decode(new FileInputStream(file));
+    }
+
+    /**
+     * UTF-8 reader over {@link #open(File)}.
+     */
+    public static Reader openReader(File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(open(file), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Wraps a stream that may or may not be gzip data in the matching decoder.
+     */
+    public static InputStream decode(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        if (isGzip(buffered)) {
+            return new GZIPInputStream(buffered, BUFFER_SIZE);
+        }
+        return buffered;
+    }
+
+    /**
+     * Opens a compressed output stream for a catalog.
+     */
+    public static OutputStream create(FileOutputStream out) throws IOException {
+        return new GZIPOutputStream(out, BUFFER_SIZE);
+    }
+
+    /**
+     * Copies a catalog into {@code out} in compressed form: gzip input (a pre-compressed file or
+     * a raw {@code Content-Encoding: gzip} body) is stored as-is, anything else is compressed.
+     *
+     * @return the number of bytes written
+     */
+    public static long copyCompressed(InputStream in, FileOutputStream out) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        long start = out.getChannel().position();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        if (isGzip(buffered)) {
+            while ((read = buffered.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } else {
+            // finish() rather than close(): the caller owns out and may still want to sync it
+            GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+            while ((read = buffered.read(buffer)) != -1) {
+                gzip.write(buffer, 0, read);
+            }
+            gzip.finish();
+        }
+        out.flush();
+        return out.getChannel().position() - start;
+    }
+
+    public static boolean isCompressed(File file) {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file), 2)) {
+            return isGzip(in);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Catalogs are the {@code .json} files; other downloads (the quiz's html/js/css) are read
+     * by a WebView and must stay plain.
+     */
+    public static boolean isCatalog(File file) {
+        return file.getName().endsWith(".json");
+    }
+
+    private static boolean isGzip(InputStream in) throws IOException {
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        return first == GZIP_MAGIC_1 && second == GZIP_MAGIC_2;
+    }
+}
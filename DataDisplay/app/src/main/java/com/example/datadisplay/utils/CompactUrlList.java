@@ -0,0 +1,196 @@
+package com.example.datadisplay.utils;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Immutable {@code List<String>} of image URLs stored as a small prefix table plus UTF-8 suffix bytes.
+ * <p>
+ * Catalog URLs nearly all share a prefix such as {@code https://drive.google.com/uc?export=download&id=},
+ * so each entry keeps only a prefix index and its id bytes. Strings are rebuilt on {@code get()},
+ * which keeps large folders cheap to hold in adapters and to parcel between activities.
+ */
+public final class CompactUrlList extends AbstractList<String> implements RandomAccess, Parcelable {
+
+    public static final CompactUrlList EMPTY = new CompactUrlList(new String[0], new short[0], new int[1], new byte[0]);
+
+    private final String[] prefixes;
+    private final short[] prefixIndex;
+    private final int[] suffixOffsets;
+    private final byte[] suffixData;
+
+    private CompactUrlList(String[] prefixes, short[] prefixIndex, int[] suffixOffsets, byte[] suffixData) {
+        this.prefixes = prefixes;
+        this.prefixIndex = prefixIndex;
+        this.suffixOffsets = suffixOffsets;
+        this.suffixData = suffixData;
+    }
+
+    /**
+     * Returns {@code urls} itself when it is already compact, otherwise a compact copy.
+     */
+    public static CompactUrlList copyOf(Collection<String> urls) {
+        if (urls instanceof CompactUrlList) {
+            return (CompactUrlList) urls;
+        }
+        Builder builder = new Builder(urls.size());
+        for (String url : urls) {
+            builder.add(url);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= prefixIndex.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + prefixIndex.length);
+        }
+        int start = suffixOffsets[index];
+        String suffix = new String(suffixData, start, suffixOffsets[index + 1] - start, StandardCharsets.UTF_8);
+        return prefixes[prefixIndex[index]].concat(suffix);
+    }
+
+    @Override
+    public int size() {
+        return prefixIndex.length;
+    }
+
+    public int getPrefixCount() {
+        return prefixes.length;
+    }
+
+    /**
+     * Approximate retained size of the backing arrays, excluding the shared prefix strings.
+     */
+    public long getByteSize() {
+        return (long) prefixIndex.length * 2 + (long) suffixOffsets.length * 4 + suffixData.length;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeStringArray(prefixes);
+        int[] indices = new int[prefixIndex.length];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = prefixIndex[i];
+        }
+        dest.writeIntArray(indices);
+        dest.writeIntArray(suffixOffsets);
+        dest.writeByteArray(suffixData);
+    }
+
+    public static final Creator<CompactUrlList> CREATOR = new Creator<CompactUrlList>() {
+        @Override
+        public CompactUrlList createFromParcel(Parcel source) {
+            String[] prefixes = source.createStringArray();
+            int[] indices = source.createIntArray();
+            short[] prefixIndex = new short[indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                prefixIndex[i] = (short) indices[i];
+            }
+            int[] suffixOffsets = source.createIntArray();
+            byte[] suffixData = source.createByteArray();
+            return new CompactUrlList(prefixes, prefixIndex, suffixOffsets, suffixData);
+        }
+
+        @Override
+        public CompactUrlList[] newArray(int size) {
+            return new CompactUrlList[size];
+        }
+    };
+
+    /**
+     * Accumulates URLs, splitting each after its last {@code '='} or {@code '/'} so that the
+     * query/id part becomes the suffix and everything before it is shared.
+     */
+    public static final class Builder {
+        // Prefix indices are stored as shorts; URLs beyond this many distinct prefixes are kept whole
+        private static final int MAX_PREFIXES = Short.MAX_VALUE;
+
+        private final List<String> prefixes = new ArrayList<>();
+        private final Map<String, Integer> prefixIds = new HashMap<>();
+        private short[] prefixIndex;
+        private int[] suffixOffsets;
+        private byte[] suffixData;
+        private int size = 0;
+
+        public Builder() {
+            this(16);
+        }
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 1);
+            prefixIndex = new short[capacity];
+            suffixOffsets = new int[capacity + 1];
+            suffixData = new byte[capacity * 16];
+            // Index 0 is the empty prefix, used for URLs that are stored whole
+            prefixIdFor("");
+        }
+
+        public Builder add(String url) {
+            if (url == null) {
+                url = "";
+            }
+            int split = Math.max(url.lastIndexOf('='), url.lastIndexOf('/')) + 1;
+            int prefixId = prefixIdFor(url.substring(0, split));
+            if (prefixId == 0) {
+                split = 0;
+            }
+            byte[] suffix = url.substring(split).getBytes(StandardCharsets.UTF_8);
+
+            if (size == prefixIndex.length) {
+                prefixIndex = Arrays.copyOf(prefixIndex, size * 2);
+                suffixOffsets = Arrays.copyOf(suffixOffsets, size * 2 + 1);
+            }
+            int offset = suffixOffsets[size];
+            if (offset + suffix.length > suffixData.length) {
+                suffixData = Arrays.copyOf(suffixData, Math.max(suffixData.length * 2, offset + suffix.length));
+            }
+            System.arraycopy(suffix, 0, suffixData, offset, suffix.length);
+            prefixIndex[size] = (short) prefixId;
+            suffixOffsets[size + 1] = offset + suffix.length;
+            size++;
+            return this;
+        }
+
+        public CompactUrlList build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            return new CompactUrlList(
+                    prefixes.toArray(new String[0]),
+                    Arrays.copyOf(prefixIndex, size),
+                    Arrays.copyOf(suffixOffsets, size + 1),
+                    Arrays.copyOf(suffixData, suffixOffsets[size]));
+        }
+
+        private int prefixIdFor(String prefix) {
+            Integer id = prefixIds.get(prefix);
+            if (id != null) {
+                return id;
+            }
+            if (prefixes.size() >= MAX_PREFIXES) {
+                return 0;
+            }
+            id = prefixes.size();
+            // Share one String instance per prefix across every entry
+            prefixes.add(prefix);
+            prefixIds.put(prefix, id);
+            return id;
+        }
+    }
+}
@@ -0,0 +1,491 @@
+package com.example.datadisplay.utils;
+
+import com.example.datadisplay.models.PhotoFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Read-only view over a catalog produced by {@link CatalogCompiler}.
+ * <p>
+ * The file is memory-mapped and navigated by offset: every category and folder is a fixed-size
+ * node record whose children are stored contiguously, so walking a path only touches the nodes
+ * on that path. Strings are decoded on demand from a shared string table.
+ * <p>
+ * Node 0 is the root; its children are the catalog's categories. Array-rooted catalogs
+ * ({@code data.json}) store their entries as book records instead.
+ */
+public class CompiledCatalog {
+
+    public static final int NO_NODE = -1;
+
+    static final int MAGIC = 0x44434154; // "DCAT"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int NODE_INTS = 7;
+    static final int BOOK_INTS = 5;
+    static final int ROOT_TREE = 0;
+    static final int ROOT_ARRAY = 1;
+
+    // Header layout (offsets in bytes)
+    static final int H_MAGIC = 0;
+    static final int H_VERSION = 4;
+    static final int H_SOURCE_LENGTH = 8;
+    static final int H_SOURCE_MODIFIED = 16;
+    static final int H_ROOT_KIND = 24;
+    static final int H_NODE_COUNT = 28;
+    static final int H_BOOK_COUNT = 32;
+    static final int H_STRING_COUNT = 36;
+    static final int H_NODES_OFFSET = 40;
+    static final int H_POOL_OFFSET = 44;
+    static final int H_BOOKS_OFFSET = 48;
+    static final int H_STRING_OFFSETS_OFFSET = 52;
+    static final int H_STRING_DATA_OFFSET = 56;
+
+    // Node record fields
+    private static final int N_NAME = 0;
+    private static final int N_FIRST_CHILD = 1;
+    private static final int N_CHILD_COUNT = 2;
+    private static final int N_IMAGE_START = 3;
+    private static final int N_IMAGE_COUNT = 4;
+    private static final int N_FILE_START = 5;
+    private static final int N_FILE_COUNT = 6;
+
+    // Book record fields
+    private static final int B_NAME = 0;
+    private static final int B_AUTHOR = 1;
+    private static final int B_CONTENT = 2;
+    private static final int B_TAG_START = 3;
+    private static final int B_TAG_COUNT = 4;
+
+    private final ByteBuffer buffer;
+    private final int rootKind;
+    private final int nodeCount;
+    private final int bookCount;
+    private final int nodesOffset;
+    private final int poolOffset;
+    private final int booksOffset;
+    private final int stringOffsetsOffset;
+    private final int stringDataOffset;
+    private final long sourceLength;
+    private final long sourceModified;
+
+    // Canonical path ("category/folder/subfolder") → node, built once per opened catalog
+    private Map<String, Integer> pathIndex;
+    private String[] nodePaths;
+
+    CompiledCatalog(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.sourceLength = buffer.getLong(H_SOURCE_LENGTH);
+        this.sourceModified = buffer.getLong(H_SOURCE_MODIFIED);
+        this.rootKind = buffer.getInt(H_ROOT_KIND);
+        this.nodeCount = buffer.getInt(H_NODE_COUNT);
+        this.bookCount = buffer.getInt(H_BOOK_COUNT);
+        this.nodesOffset = buffer.getInt(H_NODES_OFFSET);
+        this.poolOffset = buffer.getInt(H_POOL_OFFSET);
+        this.booksOffset = buffer.getInt(H_BOOKS_OFFSET);
+        this.stringOffsetsOffset = buffer.getInt(H_STRING_OFFSETS_OFFSET);
+        this.stringDataOffset = buffer.getInt(H_STRING_DATA_OFFSET);
+    }
+
+    public boolean isArrayCatalog() {
+        return rootKind == ROOT_ARRAY;
+    }
+
+    public long getSourceLength() {
+        return sourceLength;
+    }
+
+    public long getSourceModified() {
+        return sourceModified;
+    }
+
+    /**
+     * Size of the mapped file, used as the cache weight by {@code CatalogRepository}.
+     */
+    public int getByteSize() {
+        return buffer.capacity();
+    }
+
+    public int getRoot() {
+        return 0;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    // ---------------------------------------------------------------- nodes
+
+    public String getName(int node) {
+        return getString(nodeField(node, N_NAME));
+    }
+
+    public int getChildCount(int node) {
+        return nodeField(node, N_CHILD_COUNT);
+    }
+
+    public int getChild(int node, int index) {
+        return nodeField(node, N_FIRST_CHILD) + index;
+    }
+
+    public List<Integer> getChildren(int node) {
+        int first = nodeField(node, N_FIRST_CHILD);
+        int count = nodeField(node, N_CHILD_COUNT);
+        List<Integer> children = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            children.add(first + i);
+        }
+        return children;
+    }
+
+    public int getImageCount(int node) {
+        return nodeField(node, N_IMAGE_COUNT);
+    }
+
+    /**
+     * Image URLs of a node, decoded lazily as the list is read.
+     */
+    public List<String> getImages(int node) {
+        return new PooledStringList(nodeField(node, N_IMAGE_START), nodeField(node, N_IMAGE_COUNT), 1, 0);
+    }
+
+    public int getFileCount(int node) {
+        return nodeField(node, N_FILE_COUNT);
+    }
+
+    public List<String> getFileTitles(int node) {
+        return new PooledStringList(nodeField(node, N_FILE_START), nodeField(node, N_FILE_COUNT), 2, 0);
+    }
+
+    public List<String> getFilePaths(int node) {
+        return new PooledStringList(nodeField(node, N_FILE_START), nodeField(node, N_FILE_COUNT), 2, 1);
+    }
+
+    public int getCategoryCount() {
+        return nodeCount == 0 ? 0 : getChildCount(getRoot());
+    }
+
+    /**
+     * @return the category node with this name, or {@link #NO_NODE}
+     */
+    public int findCategory(String categoryName) {
+        return nodeCount == 0 ? NO_NODE : findChild(getRoot(), categoryName);
+    }
+
+    /**
+     * @return the direct child of {@code parent} with this name, or {@link #NO_NODE}
+     */
+    public int findChild(int parent, String name) {
+        if (parent == NO_NODE || name == null) {
+            return NO_NODE;
+        }
+        int first = nodeField(parent, N_FIRST_CHILD);
+        int count = nodeField(parent, N_CHILD_COUNT);
+        for (int i = 0; i < count; i++) {
+            if (name.equals(getName(first + i))) {
+                return first + i;
+            }
+        }
+        return NO_NODE;
+    }
+
+    /**
+     * Resolves category → folder → subfolder, touching only the nodes on the path.
+     */
+    public int findPath(String categoryName, String... folderNames) {
+        int node = findCategory(categoryName);
+        for (String folderName : folderNames) {
+            if (node == NO_NODE) {
+                break;
+            }
+            node = findChild(node, folderName);
+        }
+        return node;
+    }
+
+    // ---------------------------------------------------------------- canonical paths
+
+    /**
+     * Joins path segments into a canonical folder path. {@code /} and {@code \} inside a
+     * segment are backslash-escaped so names containing slashes stay unambiguous.
+     */
+    public static String buildPath(String... segments) {
+        StringBuilder path = new StringBuilder();
+        for (String segment : segments) {
+            if (path.length() > 0) {
+                path.append('/');
+            }
+            appendEscaped(path, segment);
+        }
+        return path.toString();
+    }
+
+    /**
+     * Appends one folder name to a canonical path, for walking a subtree without its nodes.
+     */
+    public static String childPath(String parentPath, String name) {
+        StringBuilder path = new StringBuilder(parentPath);
+        path.append('/');
+        appendEscaped(path, name);
+        return path.toString();
+    }
+
+    /**
+     * Splits a canonical path from {@link #buildPath} back into its unescaped segments.
+     */
+    public static List<String> splitPath(String path) {
+        List<String> segments = new ArrayList<>();
+        if (path == null || path.isEmpty()) {
+            return segments;
+        }
+        StringBuilder segment = new StringBuilder();
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '\\' && i + 1 < path.length()) {
+                segment.append(path.charAt(++i));
+            } else if (c == '/') {
+                segments.add(segment.toString());
+                segment.setLength(0);
+            } else {
+                segment.append(c);
+            }
+        }
+        segments.add(segment.toString());
+        return segments;
+    }
+
+    private static void appendEscaped(StringBuilder path, String segment) {
+        if (segment == null) {
+            return;
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '/' || c == '\\') {
+                path.append('\\');
+            }
+            path.append(c);
+        }
+    }
+
+    /**
+     * @return the node at a canonical path from {@link #buildPath}, or {@link #NO_NODE}
+     */
+    public int findByPath(String path) {
+        if (path == null) {
+            return NO_NODE;
+        }
+        Integer node = getPathIndex().get(path);
+        return node != null ? node : NO_NODE;
+    }
+
+    /**
+     * @return the canonical path of a category or folder node
+     */
+    public String getPath(int node) {
+        getPathIndex();
+        return node > 0 && node < nodeCount ? nodePaths[node] : null;
+    }
+
+    /**
+     * Resolves a folder from intent extras: the canonical path when present, otherwise the
+     * legacy category/folder-name lookup for callers that only know names.
+     */
+    public int resolveFolder(String folderPath, String categoryName, String folderName) {
+        if (folderPath != null) {
+            return findByPath(folderPath);
+        }
+        if (folderName == null) {
+            return findCategory(categoryName);
+        }
+        if (categoryName != null) {
+            return findDescendant(findCategory(categoryName), folderName);
+        }
+        return findFolderInAnyCategory(folderName);
+    }
+
+    private synchronized Map<String, Integer> getPathIndex() {
+        if (pathIndex != null) {
+            return pathIndex;
+        }
+        Map<String, Integer> index = new HashMap<>(nodeCount * 2);
+        String[] paths = new String[nodeCount];
+        // Nodes are laid out breadth-first, so a parent's path is always known before its children
+        for (int node = 0; node < nodeCount; node++) {
+            int first = nodeField(node, N_FIRST_CHILD);
+            int count = nodeField(node, N_CHILD_COUNT);
+            for (int i = 0; i < count; i++) {
+                int child = first + i;
+                StringBuilder path = new StringBuilder();
+                if (node != getRoot()) {
+                    path.append(paths[node]).append('/');
+                }
+                appendEscaped(path, getName(child));
+                paths[child] = path.toString();
+                // Same-named siblings: the first one wins, matching findChild
+                if (!index.containsKey(paths[child])) {
+                    index.put(paths[child], child);
+                }
+            }
+        }
+        nodePaths = paths;
+        pathIndex = index;
+        return pathIndex;
+    }
+
+    /**
+     * Depth-first search for a folder by name below {@code parent}, in the same pre-order the
+     * activities' recursive {@code findFolderByName} used over the parsed tree.
+     */
+    public int findDescendant(int parent, String name) {
+        if (parent == NO_NODE || name == null) {
+            return NO_NODE;
+        }
+        int first = nodeField(parent, N_FIRST_CHILD);
+        int count = nodeField(parent, N_CHILD_COUNT);
+        for (int i = 0; i < count; i++) {
+            int child = first + i;
+            if (name.equals(getName(child))) {
+                return child;
+            }
+            int found = findDescendant(child, name);
+            if (found != NO_NODE) {
+                return found;
+            }
+        }
+        return NO_NODE;
+    }
+
+    /**
+     * Searches every category for a folder name, first match wins.
+     */
+    public int findFolderInAnyCategory(String name) {
+        int categoryCount = getCategoryCount();
+        for (int i = 0; i < categoryCount; i++) {
+            int found = findDescendant(getChild(getRoot(), i), name);
+            if (found != NO_NODE) {
+                return found;
+            }
+        }
+        return NO_NODE;
+    }
+
+    /**
+     * Materializes a node and its whole subtree as the Gson model, for code paths (such as
+     * batch downloads) that need every image below a folder.
+     */
+    public PhotoFolder toPhotoFolder(int node) {
+        PhotoFolder folder = new PhotoFolder();
+        folder.name = getName(node);
+        folder.images = CompactUrlList.copyOf(getImages(node));
+        int childCount = getChildCount(node);
+        if (childCount > 0) {
+            folder.folders = new ArrayList<>(childCount);
+            for (int i = 0; i < childCount; i++) {
+                folder.folders.add(toPhotoFolder(getChild(node, i)));
+            }
+        }
+        return folder;
+    }
+
+    /**
+     * Lightweight model carrying only the folder name, for list adapters.
+     */
+    public PhotoFolder toFolderStub(int node) {
+        PhotoFolder folder = new PhotoFolder();
+        folder.name = getName(node);
+        return folder;
+    }
+
+    // ---------------------------------------------------------------- books
+
+    public int getBookCount() {
+        return bookCount;
+    }
+
+    public String getBookName(int book) {
+        return getString(bookField(book, B_NAME));
+    }
+
+    public String getBookAuthor(int book) {
+        return getString(bookField(book, B_AUTHOR));
+    }
+
+    public String getBookContent(int book) {
+        return getString(bookField(book, B_CONTENT));
+    }
+
+    public List<String> getBookTags(int book) {
+        return new PooledStringList(bookField(book, B_TAG_START), bookField(book, B_TAG_COUNT), 1, 0);
+    }
+
+    // ---------------------------------------------------------------- internals
+
+    private int nodeField(int node, int field) {
+        if (node < 0 || node >= nodeCount) {
+            throw new IndexOutOfBoundsException("node " + node + " of " + nodeCount);
+        }
+        return buffer.getInt(nodesOffset + (node * NODE_INTS + field) * 4);
+    }
+
+    private int bookField(int book, int field) {
+        if (book < 0 || book >= bookCount) {
+            throw new IndexOutOfBoundsException("book " + book + " of " + bookCount);
+        }
+        return buffer.getInt(booksOffset + (book * BOOK_INTS + field) * 4);
+    }
+
+    private int poolValue(int index) {
+        return buffer.getInt(poolOffset + index * 4);
+    }
+
+    String getString(int id) {
+        if (id < 0) {
+            return null;
+        }
+        int start = buffer.getInt(stringOffsetsOffset + id * 4);
+        int end = buffer.getInt(stringOffsetsOffset + (id + 1) * 4);
+        byte[] bytes = new byte[end - start];
+        ByteBuffer view = buffer.duplicate();
+        view.position(stringDataOffset + start);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * String ids stored in the int pool with a fixed stride, e.g. image URLs (stride 1) or
+     * the title/path pairs of audio files (stride 2).
+     */
+    private class PooledStringList extends AbstractList<String> implements RandomAccess {
+        private final int start;
+        private final int size;
+        private final int stride;
+        private final int column;
+
+        PooledStringList(int start, int size, int stride, int column) {
+            this.start = start;
+            this.size = size;
+            this.stride = stride;
+            this.column = column;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index " + index + " of " + size);
+            }
+            return getString(poolValue(start + index * stride + column));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
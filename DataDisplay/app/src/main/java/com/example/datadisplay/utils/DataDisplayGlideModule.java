@@ -0,0 +1,73 @@
+package com.example.datadisplay.utils;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.integration.okhttp3.OkHttpUrlLoader;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.module.AppGlideModule;
+import com.example.datadisplay.managers.HttpClientManager;
+import com.example.datadisplay.managers.ImageLoader;
+
+import java.io.InputStream;
+
+/**
+ * The app's single image engine configuration.
+ * <p>
+ * Memory cache and bitmap pool are sized from the device memory class rather than Glide's
+ * screen-based defaults, the disk cache is enlarged for comic chapters, and the
+ * {@link ImageLoader} memory-pressure hook is registered here so it exists before any load.
+ * Network fetches go through the shared {@link HttpClientManager} client, so image loads reuse its
+ * pooled connections and cached Drive redirects.
+ */
+@GlideModule
+public final class DataDisplayGlideModule extends AppGlideModule {
+
+    private static final String TAG = "DataDisplayGlideModule";
+
+    private static final int MEMORY_CACHE_DIVISOR = 8;
+    private static final int BITMAP_POOL_DIVISOR = 12;
+    private static final int LOW_RAM_DIVISOR_FACTOR = 2;
+    private static final long DISK_CACHE_BYTES = 512L * 1024 * 1024;
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int memoryClassMb = activityManager != null ? activityManager.getMemoryClass() : 64;
+        boolean lowRam = activityManager != null && activityManager.isLowRamDevice();
+        long heapBytes = (long) memoryClassMb * 1024 * 1024;
+        int factor = lowRam ? LOW_RAM_DIVISOR_FACTOR : 1;
+
+        long memoryCacheBytes = heapBytes / (MEMORY_CACHE_DIVISOR * factor);
+        long bitmapPoolBytes = heapBytes / (BITMAP_POOL_DIVISOR * factor);
+        builder.setMemoryCache(new LruResourceCache(memoryCacheBytes));
+        builder.setBitmapPool(new LruBitmapPool(bitmapPoolBytes));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_BYTES));
+
+        ImageLoader.registerMemoryPressureHook(context);
+        Log.d(TAG, "🖼️ Glide configured | memoryClass=" + memoryClassMb + "MB | lowRam=" + lowRam
+                + " | memoryCache=" + memoryCacheBytes + " | bitmapPool=" + bitmapPoolBytes
+                + " | disk=" + DISK_CACHE_BYTES);
+    }
+
+    @Override
+    public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
+        registry.replace(GlideUrl.class, InputStream.class,
+                new OkHttpUrlLoader.Factory(HttpClientManager.getInstance(context).getClient()));
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.datadisplay.utils;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * OkHttp interceptor that remembers where Drive download links redirect to.
+ * <p>
+ * Every {@code drive.google.com/uc?export=download&id=} link answers with a redirect to a signed
+ * googleusercontent URL. The first request follows the chain normally and records the final URL;
+ * later requests for the same link go straight to it until the entry expires. Signed targets do
+ * expire, so a failed shortcut is dropped and the request is retried through the original link.
+ */
+public class DriveRedirectCache implements Interceptor {
+
+    private static final String TAG = "DriveRedirectCache";
+
+    public static final long DEFAULT_TTL_MS = 30L * 60 * 1000;
+    public static final Set<String> DRIVE_HOSTS =
+            new HashSet<>(Arrays.asList("drive.google.com", "docs.google.com"));
+
+    private final long ttlMillis;
+    private final Set<String> hosts;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private volatile int hitCount = 0;
+    private volatile int missCount = 0;
+    private volatile int staleCount = 0;
+
+    public DriveRedirectCache() {
+        this(DEFAULT_TTL_MS, DRIVE_HOSTS);
+    }
+
+    public DriveRedirectCache(long ttlMillis, Set<String> hosts) {
+        this.ttlMillis = ttlMillis;
+        this.hosts = hosts;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request original = chain.request();
+        if (!isRedirectSource(original.url())) {
+            return chain.proceed(original);
+        }
+
+        String key = original.url().toString();
+        HttpUrl target = lookup(key);
+        if (target != null) {
+            Response response = chain.proceed(original.newBuilder().url(target).build());
+            if (isUsable(response)) {
+                hitCount++;
+                return response;
+            }
+            // The signed target expired or was revoked; go back through Drive
+            response.close();
+            entries.remove(key);
+            staleCount++;
+            Log.d(TAG, "♻️ Stale redirect target (" + response.code() + ") for " + key);
+        }
+
+        missCount++;
+        Response response = chain.proceed(original);
+        HttpUrl finalUrl = response.request().url();
+        if (isUsable(response) && !finalUrl.equals(original.url()) && !isHtml(response)) {
+            // An HTML answer is Drive's interstitial page, not the file; never shortcut to it
+            entries.put(key, new Entry(finalUrl, System.currentTimeMillis() + ttlMillis));
+        }
+        return response;
+    }
+
+    /**
+     * Returns the cached direct URL for a Drive link, or null when unknown or expired.
+     */
+    @Nullable
+    public String resolve(String url) {
+        HttpUrl target = lookup(url);
+        return target != null ? target.toString() : null;
+    }
+
+    public boolean isRedirectSource(@Nullable HttpUrl url) {
+        return url != null && hosts.contains(url.host());
+    }
+
+    public void invalidate(String url) {
+        entries.remove(url);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public String getMetricsSummary() {
+        return "hits=" + hitCount
+                + " | misses=" + missCount
+                + " | stale=" + staleCount
+                + " | entries=" + entries.size();
+    }
+
+    @Nullable
+    private HttpUrl lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.target;
+    }
+
+    // A 304 to a conditional request is as good an answer as a 200
+    private static boolean isUsable(Response response) {
+        return response.isSuccessful() || response.code() == 304;
+    }
+
+    private static boolean isHtml(Response response) {
+        MediaType type = response.body() != null ? response.body().contentType() : null;
+        return type != null && "html".equalsIgnoreCase(type.subtype());
+    }
+
+    private static final class Entry {
+        final HttpUrl target;
+        final long expiresAt;
+
+        Entry(HttpUrl target, long expiresAt) {
+            this.target = target;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -2,8 +2,7 @@ package com.example.datadisplay.utils;
 
 import android.content.Context;
 
-import com.bumptech.glide.Glide;
-import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.example.datadisplay.managers.ImageLoader;
 
 import java.io.BufferedReader;
 import java.io.FileInputStream;
@@ -13,7 +12,7 @@ import java.io.InputStreamReader;
 /**
  * Utility class for caching photo JSON and images.
  * - Saves/loads JSON to internal storage
- * - Uses Glide for automatic image caching
+ * - Uses ImageLoader for automatic image caching
  */
 public class PhotoCacheHelper {
 
@@ -50,11 +49,8 @@ public class PhotoCacheHelper {
         context.deleteFile(PHOTO_JSON_FILE);
     }
 
-    // Load image with Glide (caches automatically)
+    // Load image through the shared loader (caches original + resized)
     public static void loadImage(Context context, String url, android.widget.ImageView imageView) {
-        Glide.with(context)
-                .load(url)
-                .diskCacheStrategy(DiskCacheStrategy.ALL) // cache original + resized
-                .into(imageView);
+        ImageLoader.loadCached(imageView, url);
     }
 }
\ No newline at end of file
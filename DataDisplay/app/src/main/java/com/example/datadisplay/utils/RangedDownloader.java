@@ -0,0 +1,409 @@
+package com.example.datadisplay.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+import java.util.Random;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+/**
+ * Downloads one file over HTTP, resuming interrupted transfers with {@code Range} requests.
+ * <p>
+ * Bytes go to {@code <target>.part} through a {@link FileChannel}; a dropped connection is
+ * retried with exponential backoff and picks up where the part file ends ({@code If-Range} makes
+ * sure the server still has the same file). The validator is kept in
+ * {@code <target>.part.validator}, so a part left by an earlier run is resumed the same way; a
+ * part without one is started over. The finished file is checked against the server's length
+ * and the caller's expected size and SHA-256 before it is renamed into place, so {@code target}
+ * only ever holds a complete file. Blocking; interrupting the calling thread cancels the transfer and keeps the part file.
+ */
+public class RangedDownloader {
+
+    public static final String PART_SUFFIX = ".part";
+    public static final String VALIDATOR_SUFFIX = ".validator";
+
+    private static final int DEFAULT_MAX_ATTEMPTS = 5;
+    private static final long DEFAULT_BASE_BACKOFF_MS = 500;
+    private static final long MAX_BACKOFF_MS = 30_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public interface ProgressListener {
+        /**
+         * @param total the file size, or -1 while the server has not said
+         */
+        void onProgress(long downloaded, long total);
+    }
+
+    interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+
+    public static class Result {
+        public final long length;
+        public final long resumedFrom;
+        public final int attempts;
+
+        Result(long length, long resumedFrom, int attempts) {
+            this.length = length;
+            this.resumedFrom = resumedFrom;
+            this.attempts = attempts;
+        }
+    }
+
+    private final OkHttpClient client;
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final Sleeper sleeper;
+    private final Random random = new Random();
+
+    public RangedDownloader(OkHttpClient client) {
+        this(client, DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_BACKOFF_MS, Thread::sleep);
+    }
+
+    RangedDownloader(OkHttpClient client, int maxAttempts, long baseBackoffMs, Sleeper sleeper) {
+        this.client = client;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMs = baseBackoffMs;
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Downloads {@code url} to {@code target}.
+     *
+     * @param expectedLength the known size, or -1
+     * @param expectedSha256 the known SHA-256 as hex, or null
+     */
+    public Result download(String url, File target, long expectedLength, String expectedSha256,
+                           ProgressListener listener) throws IOException {
+        File directory = target.getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File part = new File(directory, target.getName() + PART_SUFFIX);
+        Transfer transfer = new Transfer();
+        if (part.length() > 0) {
+            transfer.validator = loadValidator(part);
+            if (transfer.validator == null) {
+                // Nothing ties the part to a version of the file, so resuming could splice two
+                deleteOrThrow(part);
+            }
+        } else {
+            deleteOrThrow(validatorFile(part));
+        }
+        long resumedFrom = part.length();
+        int attempts = 0;
+        // Only failures that made no progress count against the limit
+        int failures = 0;
+
+        while (true) {
+            attempts++;
+            long before = part.length();
+            try {
+                transfer(url, part, transfer, listener);
+                verify(part, transfer.total, expectedLength, expectedSha256);
+                moveIntoPlace(part, target);
+                deleteOrThrow(validatorFile(part));
+                return new Result(target.length(), resumedFrom, attempts);
+            } catch (FatalException e) {
+                throw (IOException) e.getCause();
+            } catch (IOException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                if (part.length() > before) {
+                    failures = 0;
+                }
+                failures++;
+                if (failures >= maxAttempts) {
+                    throw e;
+                }
+                try {
+                    sleeper.sleep(backoff(baseBackoffMs, failures, random));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Download cancelled");
+                }
+            }
+        }
+    }
+
+    /**
+     * One request: continues the part file from its end, or starts it over when the server
+     * sends the whole file.
+     */
+    private void transfer(String url, File part, Transfer transfer, ProgressListener listener)
+            throws IOException {
+        long offset = part.length();
+        Request.Builder builder = new Request.Builder().url(url);
+        if (offset > 0) {
+            builder.header("Range", "bytes=" + offset + "-");
+            if (transfer.validator != null) {
+                builder.header("If-Range", transfer.validator);
+            }
+        }
+
+        try (Response response = client.newCall(builder.build()).execute()) {
+            int code = response.code();
+            if (code == 416) {
+                // The part already holds the whole file, or the file shrank; the length decides
+                long total = parseTotal(response.header("Content-Range"));
+                if (total >= 0 && total == offset) {
+                    transfer.total = total;
+                    return;
+                }
+                deleteOrThrow(part);
+                deleteOrThrow(validatorFile(part));
+                transfer.validator = null;
+                throw new IOException("Range not satisfiable at " + offset + ", restarting");
+            }
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                IOException error = new IOException("HTTP " + code + " for " + url);
+                if (code == 408 || code == 429 || code >= 500) {
+                    throw error;
+                }
+                throw new FatalException(error);
+            }
+            MediaType type = body.contentType();
+            if (type != null && "html".equalsIgnoreCase(type.subtype())) {
+                // Drive answers quota and permission problems with an HTML page
+                throw new FatalException(new IOException("Server returned HTML instead of the file"));
+            }
+
+            long start = 0;
+            long total = body.contentLength();
+            if (code == 206) {
+                String contentRange = response.header("Content-Range");
+                start = parseStart(contentRange);
+                total = parseTotal(contentRange);
+                if (start < 0 || start > offset) {
+                    throw new FatalException(new IOException("Unexpected Content-Range " + contentRange));
+                }
+            }
+            // Kept across attempts and runs, so a resume is only accepted for the same file version
+            transfer.total = total;
+            String validator = validatorOf(response);
+            if (!Objects.equals(validator, transfer.validator)) {
+                if (start > 0 && transfer.validator != null) {
+                    // A range of a different version; the server ignored If-Range
+                    deleteOrThrow(part);
+                    deleteOrThrow(validatorFile(part));
+                    transfer.validator = null;
+                    throw new IOException("File changed on the server, restarting");
+                }
+                if (start == 0) {
+                    // Drop the old bytes before the new validator claims them
+                    deleteOrThrow(part);
+                }
+                saveValidator(part, validator);
+                transfer.validator = validator;
+            }
+            write(body.source(), part, start, total, listener);
+        }
+    }
+
+    /**
+     * Streams the body into the part file from {@code position}; a 200 starts over at 0.
+     */
+    private static void write(BufferedSource source, File part, long position, long total,
+                              ProgressListener listener) throws IOException {
+        try (FileChannel channel = FileChannel.open(part.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.truncate(position);
+            channel.position(position);
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long written = position;
+            try {
+                while (source.read(buffer) != -1) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        written += channel.write(buffer);
+                    }
+                    buffer.clear();
+                    if (listener != null) {
+                        listener.onProgress(written, total);
+                    }
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedIOException("Download cancelled");
+                    }
+                }
+            } finally {
+                // Whatever arrived stays on disk for the next attempt
+                channel.force(false);
+            }
+        }
+    }
+
+    /**
+     * The response's ETag, or its Last-Modified when the ETag is missing or weak, since
+     * {@code If-Range} only accepts strong validators.
+     */
+    static String validatorOf(Response response) {
+        String validator = response.header("ETag");
+        if (validator == null || validator.startsWith("W/")) {
+            validator = response.header("Last-Modified");
+        }
+        return validator;
+    }
+
+    static File validatorFile(File part) {
+        return new File(part.getParentFile(), part.getName() + VALIDATOR_SUFFIX);
+    }
+
+    /**
+     * @return the validator the part was fetched under, or null when none was stored
+     */
+    static String loadValidator(File part) {
+        File file = validatorFile(part);
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            String validator = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim();
+            return validator.isEmpty() ? null : validator;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores the validator through a temp file and a rename; null removes it.
+     */
+    static void saveValidator(File part, String validator) throws IOException {
+        File file = validatorFile(part);
+        if (validator == null) {
+            deleteOrThrow(file);
+            return;
+        }
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            out.write(validator.getBytes(StandardCharsets.UTF_8));
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Cannot rename " + temp + " to " + file);
+        }
+    }
+
+    static void verify(File part, long total, long expectedLength, String expectedSha256)
+            throws IOException {
+        long length = part.length();
+        if ((total >= 0 && length != total) || (expectedLength >= 0 && length != expectedLength)) {
+            long expected = expectedLength >= 0 ? expectedLength : total;
+            if (length > expected) {
+                // Corrupt part, not an interrupted one: start over
+                deleteOrThrow(part);
+                deleteOrThrow(validatorFile(part));
+            }
+            throw new IOException("Size mismatch: have " + length + ", expected " + expected);
+        }
+        if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(sha256(part))) {
+            deleteOrThrow(part);
+            deleteOrThrow(validatorFile(part));
+            throw new IOException("Checksum mismatch for " + part.getName());
+        }
+    }
+
+    static void moveIntoPlace(File part, File target) throws IOException {
+        if (target.exists() && !target.delete()) {
+            throw new IOException("Cannot replace " + target);
+        }
+        if (!part.renameTo(target)) {
+            throw new IOException("Cannot rename " + part + " to " + target);
+        }
+    }
+
+    static String sha256(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = new FileInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Exponential backoff, capped at {@link #MAX_BACKOFF_MS}, with jitter over the upper half.
+     */
+    static long backoff(long baseBackoffMs, int failures, Random random) {
+        long ceiling = Math.min(MAX_BACKOFF_MS, baseBackoffMs << Math.min(failures - 1, 16));
+        return ceiling / 2 + (long) (random.nextDouble() * (ceiling / 2));
+    }
+
+    // "bytes 100-199/200" -> 100
+    static long parseStart(String contentRange) {
+        if (contentRange == null || !contentRange.startsWith("bytes ")) {
+            return -1;
+        }
+        int dash = contentRange.indexOf('-');
+        try {
+            return dash > 6 ? Long.parseLong(contentRange.substring(6, dash).trim()) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // "bytes 100-199/200" or "bytes */200" -> 200; "*" -> -1
+    static long parseTotal(String contentRange) {
+        if (contentRange == null) {
+            return -1;
+        }
+        int slash = contentRange.lastIndexOf('/');
+        try {
+            return slash >= 0 ? Long.parseLong(contentRange.substring(slash + 1).trim()) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static void deleteOrThrow(File file) throws IOException {
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Cannot delete " + file);
+        }
+    }
+
+    private static class Transfer {
+        long total = -1;
+        String validator;
+    }
+
+    /**
+     * A failure retrying cannot fix (4xx, HTML error page, bad Content-Range).
+     */
+    private static class FatalException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        FatalException(IOException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+}
@@ -0,0 +1,487 @@
+package com.example.datadisplay.utils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+/**
+ * Downloads a large file as several byte ranges over parallel connections.
+ * <p>
+ * A one-byte probe learns the size and whether the server honors {@code Range}. The part file is
+ * then allocated at full size and split into up to {@code maxSegments} segments, each fetched on
+ * its own connection of the caller's executor and written at its offset with positional
+ * {@link FileChannel} writes. A
+ * segment that drops retries from where it stopped, with the same backoff as
+ * {@link RangedDownloader}. Segment positions are checkpointed to {@code <target>.part.seg}, so an
+ * interrupted download resumes its segments later. Servers without range support, and files too
+ * small to split, go through {@link RangedDownloader} as a single stream.
+ */
+public class SegmentedDownloader {
+
+    public static final String SEGMENTS_SUFFIX = ".seg";
+
+    private static final int DEFAULT_MAX_SEGMENTS = 4;
+    private static final long DEFAULT_MIN_SEGMENT_BYTES = 4L * 1024 * 1024;
+    private static final int DEFAULT_MAX_ATTEMPTS = 5;
+    private static final long DEFAULT_BASE_BACKOFF_MS = 500;
+    private static final long CHECKPOINT_INTERVAL_MS = 2000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OkHttpClient client;
+    private final ExecutorService executor;
+    private final RangedDownloader singleStream;
+    private final long minSegmentBytes;
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final RangedDownloader.Sleeper sleeper;
+    private final Random random = new Random();
+
+    /**
+     * @param executor runs the segments; it needs a thread per segment of every concurrent
+     *                 download, and is owned by the caller
+     */
+    public SegmentedDownloader(OkHttpClient client, ExecutorService executor) {
+        this(client, executor, DEFAULT_MIN_SEGMENT_BYTES, DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_BACKOFF_MS, Thread::sleep);
+    }
+
+    SegmentedDownloader(OkHttpClient client, ExecutorService executor, long minSegmentBytes, int maxAttempts,
+                        long baseBackoffMs, RangedDownloader.Sleeper sleeper) {
+        this.client = client;
+        this.executor = executor;
+        this.singleStream = new RangedDownloader(client, maxAttempts, baseBackoffMs, sleeper);
+        this.minSegmentBytes = minSegmentBytes;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMs = baseBackoffMs;
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Downloads {@code url} to {@code target} over up to {@value #DEFAULT_MAX_SEGMENTS}
+     * connections.
+     */
+    public RangedDownloader.Result download(String url, File target, long expectedLength, String expectedSha256,
+                                            RangedDownloader.ProgressListener listener) throws IOException {
+        return download(url, target, DEFAULT_MAX_SEGMENTS, expectedLength, expectedSha256, listener);
+    }
+
+    /**
+     * Downloads {@code url} to {@code target} over up to {@code maxSegments} connections; same
+     * contract as {@link RangedDownloader#download}. {@code Result.attempts} counts the requests
+     * made.
+     */
+    public RangedDownloader.Result download(String url, File target, int maxSegments, long expectedLength,
+                                            String expectedSha256, RangedDownloader.ProgressListener listener)
+            throws IOException {
+        File directory = target.getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File part = new File(directory, target.getName() + RangedDownloader.PART_SUFFIX);
+        File state = new File(directory, part.getName() + SEGMENTS_SUFFIX);
+
+        AtomicLong requests = new AtomicLong();
+        Probe probe = probe(url, requests);
+        if (probe == null || probe.total < minSegmentBytes * 2) {
+            if (state.exists()) {
+                // A segmented part has holes; RangedDownloader can only resume a contiguous prefix
+                RangedDownloader.deleteOrThrow(part);
+                RangedDownloader.deleteOrThrow(state);
+            }
+            return singleStream.download(url, target, expectedLength, expectedSha256, listener);
+        }
+
+        List<Segment> segments = loadSegments(state, part, probe);
+        if (segments.isEmpty()) {
+            if (state.exists()) {
+                // Checkpoint for another version of the file; its part is not a usable prefix
+                RangedDownloader.deleteOrThrow(part);
+            }
+            segments = split(part, probe, Math.max(1, maxSegments));
+        }
+        long resumedFrom = 0;
+        for (Segment segment : segments) {
+            resumedFrom += segment.position - segment.start;
+        }
+
+        AtomicLong downloaded = new AtomicLong(resumedFrom);
+        // The segment file exists before the part grows to full size, so a full-size part is
+        // never mistaken for a single-stream prefix
+        saveSegments(state, probe, segments, null);
+        try (FileChannel channel = FileChannel.open(part.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            allocate(channel, probe.total);
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (Segment segment : segments) {
+                if (!segment.isDone()) {
+                    futures.add(executor.submit(() -> {
+                        fetch(url, probe, segment, channel, downloaded, requests, listener);
+                        return null;
+                    }));
+                }
+            }
+            awaitAll(futures, channel, state, probe, segments);
+            channel.force(false);
+        }
+
+        RangedDownloader.deleteOrThrow(state);
+        RangedDownloader.verify(part, probe.total, expectedLength, expectedSha256);
+        RangedDownloader.moveIntoPlace(part, target);
+        RangedDownloader.deleteOrThrow(RangedDownloader.validatorFile(part));
+        return new RangedDownloader.Result(target.length(), resumedFrom, (int) requests.get());
+    }
+
+    /**
+     * Probes with the same retries and backoff as a segment. Connection failures and 408, 429 and
+     * 5xx answers are retried; any other answer that is not a 206 means no ranges.
+     */
+    private Probe probe(String url, AtomicLong requests) throws IOException {
+        int failures = 0;
+        while (true) {
+            try {
+                requests.incrementAndGet();
+                return probeOnce(url);
+            } catch (IOException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                failures++;
+                if (failures >= maxAttempts) {
+                    throw e;
+                }
+                backoff(failures);
+            }
+        }
+    }
+
+    /**
+     * Asks for the first byte: a 206 gives the size and a validator; anything else means no ranges.
+     */
+    private Probe probeOnce(String url) throws IOException {
+        Request request = new Request.Builder().url(url).header("Range", "bytes=0-0").build();
+        try (Response response = client.newCall(request).execute()) {
+            int code = response.code();
+            if (code == 408 || code == 429 || code >= 500) {
+                throw new IOException("HTTP " + code + " for probe of " + url);
+            }
+            if (code != 206) {
+                return null;
+            }
+            long total = RangedDownloader.parseTotal(response.header("Content-Range"));
+            if (total <= 0) {
+                return null;
+            }
+            return new Probe(total, RangedDownloader.validatorOf(response));
+        }
+    }
+
+    /**
+     * Splits the file into equal segments. A part left by a single-stream download is a
+     * contiguous prefix and counts as already fetched, if it was fetched under the validator the
+     * server reports now.
+     */
+    private List<Segment> split(File part, Probe probe, int maxSegments) throws IOException {
+        long total = probe.total;
+        long prefix = part.length();
+        if (prefix > 0 && (prefix > total || probe.validator == null
+                || !Objects.equals(probe.validator, RangedDownloader.loadValidator(part)))) {
+            RangedDownloader.deleteOrThrow(part);
+            prefix = 0;
+        }
+        int count = (int) Math.max(1, Math.min(maxSegments, total / minSegmentBytes));
+        long size = total / count;
+        List<Segment> segments = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long start = i * size;
+            long end = i == count - 1 ? total : start + size;
+            segments.add(new Segment(start, Math.max(start, Math.min(end, prefix)), end));
+        }
+        return segments;
+    }
+
+    /**
+     * Fetches one segment, retrying from its current position until it is complete.
+     */
+    private void fetch(String url, Probe probe, Segment segment, FileChannel channel, AtomicLong downloaded,
+                       AtomicLong requests, RangedDownloader.ProgressListener listener) throws IOException {
+        int failures = 0;
+        while (!segment.isDone()) {
+            long before = segment.position;
+            try {
+                Request.Builder builder = new Request.Builder().url(url)
+                        .header("Range", "bytes=" + segment.position + "-" + (segment.end - 1));
+                if (probe.validator != null) {
+                    builder.header("If-Range", probe.validator);
+                }
+                requests.incrementAndGet();
+                try (Response response = client.newCall(builder.build()).execute()) {
+                    ResponseBody body = response.body();
+                    if (response.code() != 206 || body == null) {
+                        if (response.code() == 200 || (response.code() >= 400 && response.code() < 500
+                                && response.code() != 408 && response.code() != 429)) {
+                            // The file changed (If-Range answered with a full body) or went away
+                            throw new SegmentFailedException("Segment request answered " + response.code());
+                        }
+                        throw new IOException("HTTP " + response.code() + " for segment at " + segment.position);
+                    }
+                    String contentRange = response.header("Content-Range");
+                    if (RangedDownloader.parseStart(contentRange) != segment.position
+                            || RangedDownloader.parseTotal(contentRange) != probe.total) {
+                        throw new SegmentFailedException("Unexpected Content-Range " + contentRange);
+                    }
+                    write(body.source(), channel, segment, downloaded, probe.total, listener);
+                }
+            } catch (SegmentFailedException e) {
+                throw e;
+            } catch (IOException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                if (segment.position > before) {
+                    failures = 0;
+                }
+                failures++;
+                if (failures >= maxAttempts) {
+                    throw e;
+                }
+                backoff(failures);
+            }
+        }
+    }
+
+    private void backoff(int failures) throws InterruptedIOException {
+        try {
+            sleeper.sleep(RangedDownloader.backoff(baseBackoffMs, failures, random));
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Download cancelled");
+        }
+    }
+
+    private void write(BufferedSource source, FileChannel channel, Segment segment, AtomicLong downloaded,
+                       long total, RangedDownloader.ProgressListener listener) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        while (segment.position < segment.end) {
+            buffer.clear();
+            // Never write past the segment, even if the server sends more
+            buffer.limit((int) Math.min(buffer.capacity(), segment.end - segment.position));
+            if (source.read(buffer) == -1) {
+                break;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                int written = channel.write(buffer, segment.position);
+                segment.position += written;
+                long sum = downloaded.addAndGet(written);
+                if (listener != null) {
+                    synchronized (listener) {
+                        listener.onProgress(sum, total);
+                    }
+                }
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Download cancelled");
+            }
+        }
+        if (!segment.isDone()) {
+            throw new IOException("Segment ended early at " + segment.position);
+        }
+    }
+
+    /**
+     * Waits for every segment, checkpointing positions meanwhile. On failure or cancellation the
+     * other segments are stopped and the final positions saved for a resume.
+     */
+    private void awaitAll(List<Future<?>> futures, FileChannel channel, File state, Probe probe,
+                          List<Segment> segments) throws IOException {
+        try {
+            for (Future<?> future : futures) {
+                while (true) {
+                    try {
+                        future.get(CHECKPOINT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                        break;
+                    } catch (TimeoutException e) {
+                        saveSegments(state, probe, segments, channel);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            saveSegments(state, probe, segments, channel);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Download cancelled");
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            Throwable cause = e.getCause();
+            if (cause instanceof SegmentFailedException) {
+                // The server's file no longer matches the part; start from scratch next time
+                RangedDownloader.deleteOrThrow(state);
+                RangedDownloader.deleteOrThrow(part(state));
+                throw (IOException) cause;
+            }
+            saveSegments(state, probe, segments, channel);
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    private static void cancelAll(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    private static File part(File state) {
+        String name = state.getName();
+        return new File(state.getParentFile(), name.substring(0, name.length() - SEGMENTS_SUFFIX.length()));
+    }
+
+    private static void allocate(FileChannel channel, long total) throws IOException {
+        if (channel.size() < total) {
+            channel.write(ByteBuffer.wrap(new byte[1]), total - 1);
+        }
+    }
+
+    /**
+     * Reads checkpointed segments; empty when nothing matches this version of the file.
+     */
+    private static List<Segment> loadSegments(File state, File part, Probe probe) {
+        List<Segment> segments = new ArrayList<>();
+        if (!state.exists() || !part.exists()) {
+            return segments;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(state), StandardCharsets.UTF_8))) {
+            long total = Long.parseLong(reader.readLine().trim());
+            String validator = reader.readLine();
+            if (total != probe.total || !validator.equals(probe.validator != null ? probe.validator : "")) {
+                return new ArrayList<>();
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.trim().split(" ");
+                if (fields.length == 3) {
+                    segments.add(new Segment(Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                            Long.parseLong(fields[2])));
+                }
+            }
+        } catch (Exception e) {
+            return new ArrayList<>();
+        }
+        return segments;
+    }
+
+    /**
+     * Writes positions through a temp file and a rename. The positions are read first and the
+     * part is forced to disk before they are written, so a checkpoint never claims bytes that a
+     * crash or power loss could still lose. Positions only move forward, so a checkpoint that
+     * trails the real progress (a segment still finishing a write) is safe: those bytes are
+     * fetched again.
+     *
+     * @param channel the open part, or null when nothing has been written through it yet
+     */
+    private static void saveSegments(File state, Probe probe, List<Segment> segments, FileChannel channel)
+            throws IOException {
+        long[] positions = new long[segments.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = segments.get(i).position;
+        }
+        if (channel != null) {
+            force(channel, part(state));
+        }
+        File temp = new File(state.getParentFile(), state.getName() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+            writer.write(probe.total + "\n");
+            writer.write((probe.validator != null ? probe.validator : "") + "\n");
+            for (int i = 0; i < positions.length; i++) {
+                Segment segment = segments.get(i);
+                writer.write(segment.start + " " + positions[i] + " " + segment.end + "\n");
+            }
+        }
+        if (!temp.renameTo(state)) {
+            throw new IOException("Cannot rename " + temp + " to " + state);
+        }
+    }
+
+    /**
+     * Flushes the part to disk. A cancelled segment that was interrupted inside a write closes
+     * the shared channel, so the file is then reopened to flush it.
+     */
+    private static void force(FileChannel channel, File part) throws IOException {
+        if (channel.isOpen()) {
+            try {
+                channel.force(false);
+                return;
+            } catch (ClosedChannelException e) {
+                // Closed by an interrupted segment; fall through
+            }
+        }
+        try (FileChannel reopened = FileChannel.open(part.toPath(), StandardOpenOption.WRITE)) {
+            reopened.force(false);
+        }
+    }
+
+    private static class Probe {
+        final long total;
+        final String validator;
+
+        Probe(long total, String validator) {
+            this.total = total;
+            this.validator = validator;
+        }
+    }
+
+    private static class Segment {
+        final long start;
+        final long end;
+        // Written by the segment's thread, read by checkpoints
+        volatile long position;
+
+        Segment(long start, long position, long end) {
+            this.start = start;
+            this.position = position;
+            this.end = end;
+        }
+
+        boolean isDone() {
+            return position >= end;
+        }
+    }
+
+    /**
+     * The server answered a segment in a way retrying cannot fix.
+     */
+    private static class SegmentFailedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        SegmentFailedException(String message) {
+            super(message);
+        }
+    }
+}
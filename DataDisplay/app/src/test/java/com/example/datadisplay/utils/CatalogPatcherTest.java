@@ -0,0 +1,220 @@
+package com.example.datadisplay.utils;
+
+import com.example.datadisplay.models.CatalogDelta;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Applies deltas to small catalogs on disk and checks the patched tree.
+ */
+public class CatalogPatcherTest {
+
+    private static final String CATALOG = "{"
+            + "\"version\": 3,"
+            + "\"delta_url\": \"https://example.com/delta.json\","
+            + "\"categories\": ["
+            + "  {\"name\": \"ASMR\", \"folders\": ["
+            + "    {\"name\": \"Dong\", \"files\": [{\"title\": \"a\", \"url\": \"u/a\"},"
+            + "                                    {\"title\": \"b\", \"url\": \"u/b\"}],"
+            + "     \"folders\": [{\"name\": \"Live\", \"images\": [\"i/1\", \"i/2\"]}]},"
+            + "    {\"name\": \"Old\", \"files\": []}"
+            + "  ]},"
+            + "  {\"name\": \"Music\", \"folders\": []}"
+            + "]}";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void headerIsReadWithoutCategories() throws Exception {
+        CatalogPatcher.Header header = CatalogPatcher.readHeader(catalog());
+
+        assertEquals(3, header.version);
+        assertEquals("https://example.com/delta.json", header.deltaUrl);
+        assertTrue(header.supportsDeltas());
+    }
+
+    @Test
+    public void folderIsAddedAndReplaced() throws Exception {
+        JsonObject patched = apply(delta(3, 4,
+                add("ASMR/New", "{\"files\": [{\"title\": \"n\", \"url\": \"u/n\"}]}"),
+                add("ASMR/Old", "{\"files\": [{\"title\": \"o\", \"url\": \"u/o\"}]}")));
+
+        JsonArray folders = category(patched, "ASMR").getAsJsonArray("folders");
+        assertEquals(3, folders.size());
+        // Replaced in place, added at the end, both named after the path
+        assertEquals("Old", name(folders.get(1)));
+        assertEquals("o", folders.get(1).getAsJsonObject().getAsJsonArray("files")
+                .get(0).getAsJsonObject().get("title").getAsString());
+        assertEquals("New", name(folders.get(2)));
+        assertEquals(4, patched.get("version").getAsLong());
+        assertEquals("https://example.com/delta.json", patched.get("delta_url").getAsString());
+    }
+
+    @Test
+    public void folderAndCategoryAreRemoved() throws Exception {
+        JsonObject patched = apply(delta(3, 4, remove("ASMR/Old"), remove("Music")));
+
+        assertEquals(1, patched.getAsJsonArray("categories").size());
+        JsonArray folders = category(patched, "ASMR").getAsJsonArray("folders");
+        assertEquals(1, folders.size());
+        assertEquals("Dong", name(folders.get(0)));
+    }
+
+    @Test
+    public void itemsAreAddedAndRemovedInNestedFolders() throws Exception {
+        CatalogDelta.Operation addImage = add("ASMR/Dong/Live", null);
+        addImage.images = array("[\"i/3\"]");
+        CatalogDelta.Operation removeImage = remove("ASMR/Dong/Live");
+        removeImage.images = array("[\"i/1\"]");
+        CatalogDelta.Operation removeFile = remove("ASMR/Dong");
+        removeFile.files = array("[\"a\"]");
+
+        JsonObject patched = apply(delta(3, 4, addImage, removeImage, removeFile));
+
+        JsonObject dong = category(patched, "ASMR").getAsJsonArray("folders").get(0).getAsJsonObject();
+        JsonArray files = dong.getAsJsonArray("files");
+        assertEquals(1, files.size());
+        assertEquals("b", files.get(0).getAsJsonObject().get("title").getAsString());
+        JsonArray images = dong.getAsJsonArray("folders").get(0).getAsJsonObject().getAsJsonArray("images");
+        assertEquals(array("[\"i/2\", \"i/3\"]"), images);
+    }
+
+    @Test
+    public void nestedFolderIsAddedUnderExistingParent() throws Exception {
+        JsonObject patched = apply(delta(3, 4, add("ASMR/Dong/Live/2024", "{\"images\": [\"i/9\"]}")));
+
+        JsonObject live = category(patched, "ASMR").getAsJsonArray("folders").get(0).getAsJsonObject()
+                .getAsJsonArray("folders").get(0).getAsJsonObject();
+        JsonArray folders = live.getAsJsonArray("folders");
+        assertEquals(1, folders.size());
+        assertEquals("2024", name(folders.get(0)));
+        // Siblings keep their items
+        assertEquals(2, live.getAsJsonArray("images").size());
+    }
+
+    @Test
+    public void newCategoryIsAppended() throws Exception {
+        JsonObject patched = apply(delta(3, 4, add("Radio", "{\"folders\": []}")));
+
+        JsonArray categories = patched.getAsJsonArray("categories");
+        assertEquals(3, categories.size());
+        assertEquals("Radio", name(categories.get(2)));
+    }
+
+    @Test
+    public void escapedSlashAddressesOneSegment() throws Exception {
+        JsonObject patched = apply(delta(3, 4, add("ASMR/AC\\/DC", "{\"files\": []}")));
+
+        JsonArray folders = category(patched, "ASMR").getAsJsonArray("folders");
+        assertEquals("AC/DC", name(folders.get(2)));
+    }
+
+    @Test(expected = IOException.class)
+    public void removingMissingFolderFails() throws Exception {
+        apply(delta(3, 4, remove("ASMR/Missing")));
+    }
+
+    @Test(expected = IOException.class)
+    public void removingMissingCategoryFails() throws Exception {
+        apply(delta(3, 4, remove("Missing")));
+    }
+
+    @Test(expected = IOException.class)
+    public void itemsForMissingNestedFolderFail() throws Exception {
+        CatalogDelta.Operation operation = add("ASMR/Dong/Missing/Deeper", null);
+        operation.images = array("[\"i/1\"]");
+        apply(delta(3, 4, operation));
+    }
+
+    @Test(expected = IOException.class)
+    public void unknownOperationFails() throws Exception {
+        CatalogDelta.Operation operation = add("ASMR/Dong", null);
+        operation.op = "move";
+        operation.files = array("[\"a\"]");
+        apply(delta(3, 4, operation));
+    }
+
+    @Test(expected = IOException.class)
+    public void deltaFromAnotherBaseFails() throws Exception {
+        apply(delta(2, 4, add("ASMR/New", "{}")));
+    }
+
+    @Test
+    public void catalogWithoutOperationsOnlyMovesVersion() throws Exception {
+        JsonObject patched = apply(delta(3, 4));
+
+        JsonObject expected = JsonParser.parseString(CATALOG).getAsJsonObject();
+        expected.addProperty("version", 4);
+        assertEquals(expected, patched);
+    }
+
+    private JsonObject apply(CatalogDelta delta) throws IOException {
+        File target = temp.newFile("patched.json");
+        CatalogPatcher.apply(catalog(), target, delta);
+        try (Reader reader = CatalogStreams.openReader(target)) {
+            return JsonParser.parseReader(reader).getAsJsonObject();
+        }
+    }
+
+    private File catalog() throws IOException {
+        File file = new File(temp.getRoot(), "catalog.json");
+        Files.write(file.toPath(), CATALOG.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static CatalogDelta delta(long baseVersion, long version, CatalogDelta.Operation... operations) {
+        CatalogDelta delta = new CatalogDelta();
+        delta.baseVersion = baseVersion;
+        delta.version = version;
+        delta.operations = Arrays.asList(operations);
+        return delta;
+    }
+
+    private static CatalogDelta.Operation add(String path, String node) {
+        CatalogDelta.Operation operation = new CatalogDelta.Operation();
+        operation.op = CatalogDelta.OP_ADD;
+        operation.path = path;
+        operation.node = node != null ? JsonParser.parseString(node).getAsJsonObject() : null;
+        return operation;
+    }
+
+    private static CatalogDelta.Operation remove(String path) {
+        CatalogDelta.Operation operation = new CatalogDelta.Operation();
+        operation.op = CatalogDelta.OP_REMOVE;
+        operation.path = path;
+        return operation;
+    }
+
+    private static JsonArray array(String json) {
+        return JsonParser.parseString(json).getAsJsonArray();
+    }
+
+    private static JsonObject category(JsonObject catalog, String name) {
+        for (JsonElement category : catalog.getAsJsonArray("categories")) {
+            if (name.equals(name(category))) {
+                return category.getAsJsonObject();
+            }
+        }
+        throw new AssertionError("No category " + name);
+    }
+
+    private static String name(JsonElement node) {
+        return node.getAsJsonObject().get("name").getAsString();
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.datadisplay.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs {@link DriveRedirectCache} against a local server that mimics Drive's
+ * {@code uc?export=download} -> signed content URL redirect chain.
+ */
+public class DriveRedirectCacheTest {
+
+    private static final String DRIVE_PATH = "/uc?export=download&id=abc";
+    private static final String CONTENT_PATH = "/content/abc";
+
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void redirectIsResolvedOnceAndReused() throws Exception {
+        DriveRedirectCache cache = newCache(DriveRedirectCache.DEFAULT_TTL_MS);
+        OkHttpClient client = newClient(cache);
+        enqueueRedirect();
+        enqueueContent();
+        enqueueContent();
+
+        assertEquals("data", get(client));
+        assertEquals(server.url(CONTENT_PATH).toString(), cache.resolve(driveUrl()));
+        assertEquals("data", get(client));
+
+        assertEquals(DRIVE_PATH, server.takeRequest().getPath());
+        assertEquals(CONTENT_PATH, server.takeRequest().getPath());
+        // Second request skips the Drive hop
+        assertEquals(CONTENT_PATH, server.takeRequest().getPath());
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void expiredEntryGoesBackThroughDrive() throws Exception {
+        DriveRedirectCache cache = newCache(0);
+        OkHttpClient client = newClient(cache);
+        enqueueRedirect();
+        enqueueContent();
+        enqueueRedirect();
+        enqueueContent();
+
+        get(client);
+        assertNull(cache.resolve(driveUrl()));
+        get(client);
+
+        assertEquals(4, server.getRequestCount());
+    }
+
+    @Test
+    public void rejectedTargetIsDroppedAndRetried() throws Exception {
+        DriveRedirectCache cache = newCache(DriveRedirectCache.DEFAULT_TTL_MS);
+        OkHttpClient client = newClient(cache);
+        enqueueRedirect();
+        enqueueContent();
+        get(client);
+
+        server.enqueue(new MockResponse().setResponseCode(403));
+        enqueueRedirect();
+        enqueueContent();
+        assertEquals("data", get(client));
+
+        server.takeRequest();
+        server.takeRequest();
+        assertEquals(CONTENT_PATH, server.takeRequest().getPath());
+        assertEquals(DRIVE_PATH, server.takeRequest().getPath());
+        assertEquals(CONTENT_PATH, server.takeRequest().getPath());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void notModifiedKeepsTarget() throws Exception {
+        DriveRedirectCache cache = newCache(DriveRedirectCache.DEFAULT_TTL_MS);
+        OkHttpClient client = newClient(cache);
+        enqueueRedirect();
+        enqueueContent();
+        get(client);
+
+        server.enqueue(new MockResponse().setResponseCode(304));
+        get(client);
+
+        assertEquals(3, server.getRequestCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void htmlInterstitialIsNotCached() throws Exception {
+        DriveRedirectCache cache = newCache(DriveRedirectCache.DEFAULT_TTL_MS);
+        OkHttpClient client = newClient(cache);
+        enqueueRedirect();
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "text/html; charset=utf-8")
+                .setBody("<html>virus scan warning</html>"));
+
+        get(client);
+
+        assertEquals(0, cache.size());
+        assertNull(cache.resolve(driveUrl()));
+    }
+
+    @Test
+    public void otherHostsPassThrough() throws Exception {
+        DriveRedirectCache cache = new DriveRedirectCache(DriveRedirectCache.DEFAULT_TTL_MS,
+                Collections.singleton("drive.example"));
+        OkHttpClient client = newClient(cache);
+        enqueueRedirect();
+        enqueueContent();
+
+        get(client);
+
+        assertEquals(0, cache.size());
+    }
+
+    private DriveRedirectCache newCache(long ttlMillis) {
+        return new DriveRedirectCache(ttlMillis, Collections.singleton(server.getHostName()));
+    }
+
+    private static OkHttpClient newClient(DriveRedirectCache cache) {
+        return new OkHttpClient.Builder()
+                .addInterceptor(cache)
+                .build();
+    }
+
+    private String driveUrl() {
+        return server.url(DRIVE_PATH).toString();
+    }
+
+    private String get(OkHttpClient client) throws IOException {
+        Request request = new Request.Builder().url(driveUrl()).build();
+        try (Response response = client.newCall(request).execute()) {
+            return response.body() != null ? response.body().string() : null;
+        }
+    }
+
+    private void enqueueRedirect() {
+        server.enqueue(new MockResponse()
+                .setResponseCode(303)
+                .setHeader("Location", CONTENT_PATH));
+    }
+
+    private void enqueueContent() {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/octet-stream")
+                .setBody("data"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.datadisplay.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+
+/**
+ * Local server for the downloader tests: serves {@link #content} with open and closed Range
+ * support, an ETag honored by {@code If-Range}, and scripted failures.
+ */
+class RangeFileServer extends Dispatcher {
+
+    static final String ETAG = "\"v1\"";
+
+    final byte[] content = new byte[200_000];
+    final MockWebServer server = new MockWebServer();
+
+    int status = 200;
+    boolean supportsRanges = true;
+    // Body requests (not the one-byte probe) that drop the connection halfway
+    int disconnects = 0;
+    // One-byte probes answered with a 503
+    int probeFailures = 0;
+
+    RangeFileServer() {
+        new Random(42).nextBytes(content);
+        server.setDispatcher(this);
+    }
+
+    void start() throws IOException {
+        server.start();
+    }
+
+    void stop() throws IOException {
+        server.shutdown();
+    }
+
+    String url() {
+        return server.url("/file").toString();
+    }
+
+    static String sha256(byte[] data) throws IOException {
+        File file = File.createTempFile("sha", null);
+        try {
+            Files.write(file.toPath(), data);
+            return RangedDownloader.sha256(file);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Override
+    public MockResponse dispatch(RecordedRequest request) {
+        if (status != 200) {
+            return new MockResponse().setResponseCode(status);
+        }
+        String range = request.getHeader("Range");
+        String ifRange = request.getHeader("If-Range");
+        MockResponse response = new MockResponse()
+                .setHeader("ETag", ETAG)
+                .setHeader("Content-Type", "application/octet-stream");
+        synchronized (this) {
+            if ("bytes=0-0".equals(range) && probeFailures > 0) {
+                probeFailures--;
+                return new MockResponse().setResponseCode(503);
+            }
+        }
+
+        int start = 0;
+        int end = content.length - 1;
+        // A stale If-Range gets the whole file, as on a real server
+        if (supportsRanges && range != null && range.startsWith("bytes=")
+                && (ifRange == null || ifRange.equals(ETAG))) {
+            int dash = range.indexOf('-');
+            start = Integer.parseInt(range.substring(6, dash));
+            String last = range.substring(dash + 1);
+            if (!last.isEmpty()) {
+                end = Integer.parseInt(last);
+            }
+            response.setResponseCode(206)
+                    .setHeader("Content-Range", "bytes " + start + "-" + end + "/" + content.length);
+        }
+        response.setBody(new Buffer().write(content, start, end - start + 1));
+        synchronized (this) {
+            if (end > start && disconnects > 0) {
+                disconnects--;
+                response.setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY);
+            }
+        }
+        return response;
+    }
+}
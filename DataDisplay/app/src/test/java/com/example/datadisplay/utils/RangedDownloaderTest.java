@@ -0,0 +1,195 @@
+package com.example.datadisplay.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static com.example.datadisplay.utils.RangeFileServer.ETAG;
+import static org.junit.Assert.*;
+
+/**
+ * Runs {@link RangedDownloader} against {@link RangeFileServer}, which serves byte ranges of one
+ * file and can drop the connection in the middle of a response body.
+ */
+public class RangedDownloaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private RangeFileServer fileServer;
+    private final List<Long> sleeps = new ArrayList<>();
+    private byte[] content;
+
+    @Before
+    public void setUp() throws IOException {
+        fileServer = new RangeFileServer();
+        fileServer.start();
+        server = fileServer.server;
+        content = fileServer.content;
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        fileServer.stop();
+    }
+
+    @Test
+    public void resumesAfterMidTransferDisconnects() throws Exception {
+        fileServer.disconnects = 2;
+        File target = new File(folder.getRoot(), "page.jpg");
+
+        RangedDownloader.Result result = newDownloader(5).download(fileServer.url(), target, content.length,
+                RangeFileServer.sha256(content), null);
+
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        assertFalse(new File(folder.getRoot(), "page.jpg.part").exists());
+        assertEquals(3, result.attempts);
+        assertEquals(2, sleeps.size());
+
+        assertNull(server.takeRequest().getHeader("Range"));
+        RecordedRequest resumed = server.takeRequest();
+        assertTrue(resumed.getHeader("Range").matches("bytes=[1-9][0-9]*-"));
+        assertEquals(ETAG, resumed.getHeader("If-Range"));
+    }
+
+    @Test
+    public void resumesPartLeftByEarlierRun() throws Exception {
+        File target = new File(folder.getRoot(), "track.mp3");
+        byte[] half = new byte[content.length / 2];
+        System.arraycopy(content, 0, half, 0, half.length);
+        Files.write(new File(folder.getRoot(), "track.mp3.part").toPath(), half);
+        Files.write(new File(folder.getRoot(), "track.mp3.part.validator").toPath(), ETAG.getBytes("UTF-8"));
+
+        RangedDownloader.Result result = newDownloader(3).download(fileServer.url(), target, -1, null, null);
+
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        assertEquals(half.length, result.resumedFrom);
+        RecordedRequest request = server.takeRequest();
+        assertEquals("bytes=" + half.length + "-", request.getHeader("Range"));
+        assertEquals(ETAG, request.getHeader("If-Range"));
+        assertEquals(1, server.getRequestCount());
+        assertFalse(new File(folder.getRoot(), "track.mp3.part.validator").exists());
+    }
+
+    @Test
+    public void partWithoutValidatorStartsOver() throws Exception {
+        File target = new File(folder.getRoot(), "track.mp3");
+        Files.write(new File(folder.getRoot(), "track.mp3.part").toPath(), new byte[]{1, 2, 3});
+
+        RangedDownloader.Result result = newDownloader(3).download(fileServer.url(), target, -1, null, null);
+
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        assertEquals(0, result.resumedFrom);
+        assertNull(server.takeRequest().getHeader("Range"));
+    }
+
+    @Test
+    public void changedFileIsNotSplicedOntoOldPart() throws Exception {
+        File target = new File(folder.getRoot(), "track.mp3");
+        Files.write(new File(folder.getRoot(), "track.mp3.part").toPath(), new byte[]{1, 2, 3});
+        Files.write(new File(folder.getRoot(), "track.mp3.part.validator").toPath(), "\"v0\"".getBytes("UTF-8"));
+
+        newDownloader(3).download(fileServer.url(), target, content.length, null, null);
+
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        assertEquals("\"v0\"", server.takeRequest().getHeader("If-Range"));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void validatorIsStoredWhileTransferRuns() throws Exception {
+        fileServer.disconnects = 1;
+        File target = new File(folder.getRoot(), "page.jpg");
+        File validator = new File(folder.getRoot(), "page.jpg.part.validator");
+        boolean[] stored = {false};
+
+        newDownloader(3).download(fileServer.url(), target, -1, null,
+                (downloaded, total) -> stored[0] |= validator.exists());
+
+        assertTrue(stored[0]);
+        assertFalse(validator.exists());
+    }
+
+    @Test
+    public void serverIgnoringRangeRestartsFromZero() throws Exception {
+        fileServer.supportsRanges = false;
+        File target = new File(folder.getRoot(), "page.jpg");
+        // A prefix that differs from the file, so splicing it on would show
+        byte[] stale = {(byte) ~content[0], (byte) ~content[1], (byte) ~content[2]};
+        Files.write(new File(folder.getRoot(), "page.jpg.part").toPath(), stale);
+        Files.write(new File(folder.getRoot(), "page.jpg.part.validator").toPath(), ETAG.getBytes("UTF-8"));
+
+        RangedDownloader.Result result = newDownloader(3).download(fileServer.url(), target, content.length, null, null);
+
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        assertEquals(stale.length, result.resumedFrom);
+        assertEquals("bytes=3-", server.takeRequest().getHeader("Range"));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void checksumMismatchKeepsTargetAbsent() throws Exception {
+        File target = new File(folder.getRoot(), "page.jpg");
+
+        try {
+            newDownloader(2).download(fileServer.url(), target, -1, RangeFileServer.sha256(new byte[]{0}), null);
+            fail("Expected a checksum failure");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("Checksum"));
+        }
+        assertFalse(target.exists());
+        assertFalse(new File(folder.getRoot(), "page.jpg.part").exists());
+    }
+
+    @Test
+    public void clientErrorIsNotRetried() throws Exception {
+        fileServer.status = 404;
+        File target = new File(folder.getRoot(), "missing.jpg");
+
+        try {
+            newDownloader(5).download(fileServer.url(), target, -1, null, null);
+            fail("Expected a 404 failure");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("404"));
+        }
+        assertEquals(1, server.getRequestCount());
+        assertTrue(sleeps.isEmpty());
+    }
+
+    @Test
+    public void backoffGrowsUntilAttemptsRunOut() throws Exception {
+        fileServer.status = 503;
+        File target = new File(folder.getRoot(), "page.jpg");
+
+        try {
+            newDownloader(4).download(fileServer.url(), target, -1, null, null);
+            fail("Expected the download to give up");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("503"));
+        }
+        assertEquals(4, server.getRequestCount());
+        assertEquals(3, sleeps.size());
+        // Each delay is drawn from [ceiling / 2, ceiling] with a doubling ceiling
+        for (int i = 0; i < sleeps.size(); i++) {
+            long ceiling = 100L << i;
+            assertTrue(sleeps.get(i) >= ceiling / 2 && sleeps.get(i) <= ceiling);
+        }
+    }
+
+    private RangedDownloader newDownloader(int maxAttempts) {
+        return new RangedDownloader(new OkHttpClient(), maxAttempts, 100, sleeps::add);
+    }
+}
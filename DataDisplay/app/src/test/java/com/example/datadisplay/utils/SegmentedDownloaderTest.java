@@ -0,0 +1,215 @@
+package com.example.datadisplay.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static com.example.datadisplay.utils.RangeFileServer.ETAG;
+import static org.junit.Assert.*;
+
+/**
+ * Runs {@link SegmentedDownloader} against {@link RangeFileServer}, which serves closed byte
+ * ranges of one file.
+ */
+public class SegmentedDownloaderTest {
+
+    private static final int MIN_SEGMENT = 10_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private RangeFileServer fileServer;
+    private final List<Long> sleeps = Collections.synchronizedList(new ArrayList<>());
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private byte[] content;
+
+    @Before
+    public void setUp() throws IOException {
+        fileServer = new RangeFileServer();
+        fileServer.start();
+        server = fileServer.server;
+        content = fileServer.content;
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        fileServer.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void fetchesSegmentsInParallelRanges() throws Exception {
+        File target = new File(folder.getRoot(), "track.mp3");
+
+        RangedDownloader.Result result = newDownloader().download(fileServer.url(), target, 4, content.length,
+                RangedDownloader.sha256(write("expected", content)), null);
+
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        assertFalse(new File(folder.getRoot(), "track.mp3.part").exists());
+        assertFalse(new File(folder.getRoot(), "track.mp3.part.seg").exists());
+        // The probe plus one request per segment
+        assertEquals(5, result.attempts);
+        assertEquals(5, server.getRequestCount());
+        assertEquals("bytes=0-0", server.takeRequest().getHeader("Range"));
+        List<String> ranges = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            RecordedRequest request = server.takeRequest();
+            ranges.add(request.getHeader("Range"));
+            assertEquals(ETAG, request.getHeader("If-Range"));
+        }
+        assertTrue(ranges.contains("bytes=0-49999"));
+        assertTrue(ranges.contains("bytes=50000-99999"));
+        assertTrue(ranges.contains("bytes=100000-149999"));
+        assertTrue(ranges.contains("bytes=150000-199999"));
+    }
+
+    @Test
+    public void serverWithoutRangesFallsBackToSingleStream() throws Exception {
+        fileServer.supportsRanges = false;
+        File target = new File(folder.getRoot(), "track.mp3");
+
+        newDownloader().download(fileServer.url(), target, 4, -1, null, null);
+
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        // The probe, then one full request
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void droppedSegmentRetriesFromItsPosition() throws Exception {
+        fileServer.disconnects = 1;
+        File target = new File(folder.getRoot(), "track.mp3");
+
+        RangedDownloader.Result result = newDownloader().download(fileServer.url(), target, 2, -1, null, null);
+
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        assertEquals(4, result.attempts);
+        assertEquals(1, sleeps.size());
+        // The retry continues inside its segment instead of refetching it from the start
+        server.takeRequest();
+        List<String> ranges = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ranges.add(server.takeRequest().getHeader("Range"));
+        }
+        assertTrue(ranges.remove("bytes=0-99999"));
+        assertTrue(ranges.remove("bytes=100000-199999"));
+        String retry = ranges.get(0);
+        long start = Long.parseLong(retry.substring(6, retry.indexOf('-')));
+        String end = retry.substring(retry.indexOf('-') + 1);
+        if ("99999".equals(end)) {
+            assertTrue(start > 0 && start < 100_000);
+        } else {
+            assertEquals("199999", end);
+            assertTrue(start > 100_000 && start < 200_000);
+        }
+    }
+
+    @Test
+    public void failedProbeIsRetried() throws Exception {
+        fileServer.probeFailures = 1;
+        File target = new File(folder.getRoot(), "track.mp3");
+
+        RangedDownloader.Result result = newDownloader().download(fileServer.url(), target, 2, -1, null, null);
+
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        // Two probes, then one request per segment
+        assertEquals(4, result.attempts);
+        assertEquals(1, sleeps.size());
+    }
+
+    @Test
+    public void resumesSegmentsFromCheckpoint() throws Exception {
+        File target = new File(folder.getRoot(), "track.mp3");
+        File part = new File(folder.getRoot(), "track.mp3.part");
+        // First half of each segment is already on disk
+        try (RandomAccessFile file = new RandomAccessFile(part, "rw")) {
+            file.setLength(content.length);
+            file.seek(0);
+            file.write(content, 0, 50_000);
+            file.seek(100_000);
+            file.write(content, 100_000, 50_000);
+        }
+        write("track.mp3.part.seg", ("200000\n" + ETAG + "\n"
+                + "0 50000 100000\n100000 150000 200000\n").getBytes(StandardCharsets.UTF_8));
+
+        RangedDownloader.Result result = newDownloader().download(fileServer.url(), target, 2, -1, null, null);
+
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        assertEquals(100_000, result.resumedFrom);
+        server.takeRequest();
+        List<String> ranges = new ArrayList<>();
+        ranges.add(server.takeRequest().getHeader("Range"));
+        ranges.add(server.takeRequest().getHeader("Range"));
+        assertTrue(ranges.contains("bytes=50000-99999"));
+        assertTrue(ranges.contains("bytes=150000-199999"));
+    }
+
+    @Test
+    public void changedFileDiscardsCheckpoint() throws Exception {
+        File target = new File(folder.getRoot(), "track.mp3");
+        File part = new File(folder.getRoot(), "track.mp3.part");
+        write("track.mp3.part", new byte[content.length]);
+        write("track.mp3.part.seg", ("200000\n\"v0\"\n0 100000 100000\n100000 200000 200000\n")
+                .getBytes(StandardCharsets.UTF_8));
+
+        RangedDownloader.Result result = newDownloader().download(fileServer.url(), target, 2, -1, null, null);
+
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        assertEquals(0, result.resumedFrom);
+        assertFalse(part.exists());
+    }
+
+    @Test
+    public void singleStreamPrefixIsKeptOnlyUnderItsValidator() throws Exception {
+        File target = new File(folder.getRoot(), "track.mp3");
+        byte[] prefix = new byte[50_000];
+        System.arraycopy(content, 0, prefix, 0, prefix.length);
+        write("track.mp3.part", prefix);
+        write("track.mp3.part.validator", ETAG.getBytes(StandardCharsets.UTF_8));
+
+        RangedDownloader.Result result = newDownloader().download(fileServer.url(), target, 2, -1, null, null);
+
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        assertEquals(50_000, result.resumedFrom);
+        assertFalse(new File(folder.getRoot(), "track.mp3.part.validator").exists());
+    }
+
+    @Test
+    public void singleStreamPrefixWithoutValidatorIsDiscarded() throws Exception {
+        File target = new File(folder.getRoot(), "track.mp3");
+        write("track.mp3.part", new byte[50_000]);
+
+        RangedDownloader.Result result = newDownloader().download(fileServer.url(), target, 2, -1, null, null);
+
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        assertEquals(0, result.resumedFrom);
+    }
+
+    private SegmentedDownloader newDownloader() {
+        return new SegmentedDownloader(new OkHttpClient(), executor, MIN_SEGMENT, 3, 100, sleeps::add);
+    }
+
+    private File write(String name, byte[] data) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        Files.write(file.toPath(), data);
+        return file;
+    }
+}